@@ -0,0 +1,123 @@
+package com.familytree.benchmarks;
+
+import com.familytree.config.WireFormatConfig;
+import com.familytree.config.WireFormats;
+import com.familytree.dto.LineageDTO;
+import com.familytree.dto.PersonDTO;
+import com.familytree.model.Person;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory mapping and serialization: no database, so differences come from the code alone.
+ * The object mappers are built the way Spring Boot builds the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+    
+    @Param({"4"})
+    public int depth;
+    
+    @Param({"4"})
+    public int branching;
+    
+    /**
+     * Response encoding, as negotiated through Accept.
+     */
+    @Param({"json", "smile", "cbor"})
+    public String format;
+    
+    private List<Person> persons;
+    private LineageDTO lineage;
+    private ObjectMapper objectMapper;
+    
+    @Setup
+    public void setUp() {
+        persons = new SyntheticTree(depth, branching).persons();
+        lineage = lineage(persons);
+        WireFormats wireFormats = new WireFormatConfig().wireFormats(Jackson2ObjectMapperBuilder.json().build(),
+            Jackson2ObjectMapperBuilder.json(), Jackson2ObjectMapperBuilder.json());
+        objectMapper = wireFormats.mapper(switch (format) {
+            case "smile" -> WireFormats.SMILE;
+            case "cbor" -> WireFormats.CBOR;
+            default -> MediaType.APPLICATION_JSON;
+        });
+    }
+    
+    @Benchmark
+    public void fullName(Blackhole blackhole) {
+        for (Person person : persons) {
+            blackhole.consume(person.getFullName());
+        }
+    }
+    
+    @Benchmark
+    public byte[] serializePersons() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(persons);
+    }
+    
+    @Benchmark
+    public byte[] serializeLineage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(lineage);
+    }
+    
+    /**
+     * The founder's lineage over the whole tree, shaped like a service response.
+     */
+    private LineageDTO lineage(List<Person> tree) {
+        List<PersonDTO> descendants = new ArrayList<>(tree.size() - 1);
+        int index = 1;
+        long generationSize = 1;
+        for (int generation = 1; generation <= depth; generation++) {
+            generationSize *= branching;
+            for (long i = 0; i < generationSize; i++, index++) {
+                Person person = tree.get(index);
+                long parentId = (person.getId() - 1) / branching;
+                descendants.add(PersonDTO.builder()
+                    .id(person.getId())
+                    .firstName(person.getFirstName())
+                    .lastName(person.getLastName())
+                    .birthDate(person.getBirthDate())
+                    .gender(person.getGender())
+                    .isPublic(true)
+                    .visibility(person.getVisibility())
+                    .parentIds(Set.of(parentId))
+                    .childrenIds(Set.of())
+                    .spouseIds(Set.of())
+                    .generation(generation)
+                    .build());
+            }
+        }
+        return LineageDTO.builder()
+            .personId(tree.get(0).getId())
+            .personName(tree.get(0).getFullName())
+            .ancestors(List.of())
+            .descendants(descendants)
+            .generationsDown(depth)
+            .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.familytree.benchmarks;
+
+import com.familytree.model.Person;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A single founder with {@code branching} children per person for {@code depth} generations,
+ * with names and dates drawn from a fixed seed so runs are comparable.
+ */
+final class SyntheticTree {
+    
+    private static final String[] FIRST_NAMES = {
+        "John", "Mary", "William", "Elizabeth", "James", "Margaret", "Thomas", "Anna", "George", "Sarah"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Brown", "Taylor", "Miller", "Wilson", "Moore", "Clark", "Hall", "Young"
+    };
+    
+    private static final String CREATE_ROOT =
+        "CREATE (p:Person {firstName: $firstName, lastName: $lastName, birthDate: $birthDate, " +
+        "gender: $gender, isPublic: true, visibility: 'PUBLIC'}) RETURN id(p) AS id";
+    
+    private static final String CREATE_CHILDREN =
+        "UNWIND $rows AS row " +
+        "MATCH (parent:Person) WHERE id(parent) = row.parentId " +
+        "CREATE (parent)-[:PARENT_OF]->(c:Person {firstName: row.firstName, lastName: row.lastName, " +
+        "birthDate: row.birthDate, gender: row.gender, isPublic: true, visibility: 'PUBLIC'}) " +
+        "RETURN id(c) AS id";
+    
+    private final int depth;
+    private final int branching;
+    
+    SyntheticTree(int depth, int branching) {
+        this.depth = depth;
+        this.branching = branching;
+    }
+    
+    /**
+     * The tree as detached entities, founder first and generation by generation; relationship sets are left empty.
+     */
+    List<Person> persons() {
+        Random random = new Random(42);
+        List<Person> persons = new ArrayList<>();
+        long id = 0;
+        persons.add(person(id++, 0, random));
+        long generationSize = 1;
+        for (int generation = 1; generation <= depth; generation++) {
+            generationSize *= branching;
+            for (long i = 0; i < generationSize; i++) {
+                persons.add(person(id++, generation, random));
+            }
+        }
+        return persons;
+    }
+    
+    /**
+     * Create the tree in Neo4j one generation per statement; returns the founder's id.
+     */
+    long seed(Driver driver) {
+        Random random = new Random(42);
+        try (Session session = driver.session()) {
+            long rootId = session.executeWrite(tx ->
+                tx.run(CREATE_ROOT, properties(person(0, 0, random))).single().get("id").asLong());
+            List<Long> parents = List.of(rootId);
+            for (int generation = 1; generation <= depth; generation++) {
+                List<Map<String, Object>> rows = new ArrayList<>(parents.size() * branching);
+                for (long parentId : parents) {
+                    for (int i = 0; i < branching; i++) {
+                        Map<String, Object> row = properties(person(0, generation, random));
+                        row.put("parentId", parentId);
+                        rows.add(row);
+                    }
+                }
+                parents = session.executeWrite(tx -> tx.run(CREATE_CHILDREN, Map.of("rows", rows))
+                    .list(record -> record.get("id").asLong()));
+            }
+            return rootId;
+        }
+    }
+    
+    private static Person person(long id, int generation, Random random) {
+        boolean male = random.nextBoolean();
+        return Person.builder()
+            .id(id)
+            .firstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)])
+            .lastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)])
+            .birthDate(LocalDate.of(1700 + generation * 28, 1 + random.nextInt(12), 1 + random.nextInt(28)))
+            .gender(male ? "MALE" : "FEMALE")
+            .isPublic(true)
+            .visibility("PUBLIC")
+            .build();
+    }
+    
+    private static Map<String, Object> properties(Person person) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("firstName", person.getFirstName());
+        properties.put("lastName", person.getLastName());
+        properties.put("birthDate", person.getBirthDate());
+        properties.put("gender", person.getGender());
+        return properties;
+    }
+}
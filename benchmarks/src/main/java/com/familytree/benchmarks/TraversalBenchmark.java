@@ -0,0 +1,105 @@
+package com.familytree.benchmarks;
+
+import com.familytree.FamilyTreeApplication;
+import com.familytree.dto.LineageDTO;
+import com.familytree.dto.PersonDTO;
+import com.familytree.graph.FamilyGraphIndex;
+import com.familytree.model.Person;
+import com.familytree.repository.PersonRepository;
+import com.familytree.service.PersonService;
+import org.neo4j.driver.Driver;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Repository traversals and lineage assembly against an embedded Neo4j holding a synthetic tree.
+ * The application context is the real one; only the lineage cache is off, so every call reaches
+ * the traversal. With {@code graphIndex=true} lineages come from the in-memory index and
+ * {@code PersonService} maps the loaded entities itself; {@code descendantEntities} isolates the
+ * entity loading part of that path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraversalBenchmark {
+    
+    @Param({"6"})
+    public int depth;
+    
+    @Param({"3"})
+    public int branching;
+    
+    @Param({"true", "false"})
+    public boolean graphIndex;
+    
+    private Neo4j neo4j;
+    private ConfigurableApplicationContext context;
+    private PersonService personService;
+    private PersonRepository personRepository;
+    private long rootId;
+    private List<Long> descendantIds;
+    
+    @Setup
+    public void setUp() {
+        neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+        context = new SpringApplicationBuilder(FamilyTreeApplication.class).run(
+            "--spring.neo4j.uri=" + neo4j.boltURI(),
+            "--server.port=0",
+            "--familytree.lineage-cache.enabled=false",
+            "--familytree.graph-index.enabled=" + graphIndex,
+            "--logging.level.root=WARN",
+            "--logging.level.com.familytree=WARN",
+            "--logging.level.org.springframework.security=WARN");
+        rootId = new SyntheticTree(depth, branching).seed(context.getBean(Driver.class));
+        // The index loaded at startup saw an empty database
+        context.getBean(FamilyGraphIndex.class).reload();
+        personService = context.getBean(PersonService.class);
+        personRepository = context.getBean(PersonRepository.class);
+        descendantIds = personRepository.findLineage(rootId, 0, depth).stream()
+            .map(PersonDTO::getId)
+            .filter(id -> id != rootId)
+            .collect(Collectors.toList());
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+        neo4j.close();
+    }
+    
+    @Benchmark
+    public LineageDTO lineage() {
+        return personService.getLineage(rootId, 0, depth);
+    }
+    
+    @Benchmark
+    public List<PersonDTO> lineageRows() {
+        return personRepository.findLineage(rootId, 0, depth);
+    }
+    
+    @Benchmark
+    public List<Person> descendantEntities() {
+        return personRepository.findAllShallowById(descendantIds);
+    }
+}
@@ -2,6 +2,7 @@ package com.familytree;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * Family Tree Application - Graph-driven genealogy platform.
@@ -16,6 +17,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - AI-ready data export
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class FamilyTreeApplication {
     
     public static void main(String[] args) {
@@ -0,0 +1,229 @@
+package com.familytree.admission;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.exception.TraversalRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for lineage, relationship-path and descendant traversals. Requested depths
+ * are first reduced until the estimated cost fits {@code familytree.admission.max-rows}. The
+ * traversal then runs in the light or heavy tier by that estimate. Each tier runs a bounded number
+ * of traversals at once and lets a bounded number wait briefly; any further request is rejected at
+ * once with {@link TraversalRejectedException}, so heavy callers cannot pile up work on Neo4j for
+ * everyone else. Each query runs in a read-only transaction with its tier's timeout, so the server
+ * aborts one that overruns; that surfaces as a {@link QueryTimeoutException}.
+ */
+@Component
+public class TraversalAdmission implements MeterBinder {
+    
+    public enum Tier { LIGHT, HEAVY }
+    
+    private static final String TIMED_OUT_CODE = "Neo.ClientError.Transaction.TransactionTimedOut";
+    
+    private final TraversalCostEstimator costs;
+    private final boolean enabled;
+    private final long lightMaxRows;
+    private final long maxRows;
+    private final Map<Tier, Gate> gates = new EnumMap<>(Tier.class);
+    
+    public TraversalAdmission(TraversalCostEstimator costs, PlatformTransactionManager transactionManager,
+                              FamilyTreeProperties properties) {
+        FamilyTreeProperties.Admission settings = properties.getAdmission();
+        this.costs = costs;
+        this.enabled = settings.isEnabled();
+        this.lightMaxRows = settings.getLightMaxRows();
+        this.maxRows = settings.getMaxRows();
+        gates.put(Tier.LIGHT, new Gate(Tier.LIGHT, settings.getLight(), transactionManager));
+        gates.put(Tier.HEAVY, new Gate(Tier.HEAVY, settings.getHeavy(), transactionManager));
+    }
+    
+    /**
+     * Depths no deeper than requested whose estimate for {@code count} lineages fits the budget.
+     * The deeper side is reduced first, and each requested side keeps at least one generation.
+     */
+    public int[] clampLineage(int ancestorDepth, int descendantDepth, int count) {
+        int up = ancestorDepth;
+        int down = descendantDepth;
+        if (!enabled) {
+            return new int[]{up, down};
+        }
+        while ((up > 1 || down > 1) && count * costs.lineageRows(up, down) > maxRows) {
+            if (up >= down) {
+                up--;
+            } else {
+                down--;
+            }
+        }
+        return new int[]{up, down};
+    }
+    
+    public int clampDescendants(int depth) {
+        int clamped = depth;
+        while (enabled && clamped > 1 && costs.descendantRows(clamped) > maxRows) {
+            clamped--;
+        }
+        return clamped;
+    }
+    
+    public <T> T lineage(int ancestorDepth, int descendantDepth, int count, Supplier<T> query) {
+        return run(enabled ? count * costs.lineageRows(ancestorDepth, descendantDepth) : 0, query);
+    }
+    
+    public <T> T path(Supplier<T> query) {
+        return run(enabled ? costs.pathRows() : 0, query);
+    }
+    
+    /**
+     * Streamed descendants: the slot is taken now and released when the stream completes, fails or
+     * is cancelled, so the returned stream must be subscribed. {@code query} receives the tier's
+     * timeout for each transaction it runs, or null when admission control is disabled.
+     */
+    public <T> Flux<T> descendants(int depth, Function<Duration, Flux<T>> query) {
+        if (!enabled) {
+            return query.apply(null);
+        }
+        Gate gate = gate(costs.descendantRows(depth));
+        gate.acquire();
+        try {
+            return query.apply(gate.queryTimeout)
+                .onErrorMap(TraversalAdmission::timedOut, TraversalAdmission::toQueryTimeout)
+                .doFinally(signal -> gate.release());
+        } catch (RuntimeException e) {
+            gate.release();
+            throw e;
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Gate gate : gates.values()) {
+            String tier = gate.tier.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("familytree.admission.running", gate, Gate::running)
+                .tag("tier", tier)
+                .register(registry);
+            Gauge.builder("familytree.admission.waiting", gate, g -> g.waiting.get())
+                .tag("tier", tier)
+                .register(registry);
+            FunctionCounter.builder("familytree.admission.rejected", gate, g -> g.rejected.get())
+                .tag("tier", tier)
+                .register(registry);
+        }
+    }
+    
+    private <T> T run(long estimatedRows, Supplier<T> query) {
+        if (!enabled) {
+            return query.get();
+        }
+        Gate gate = gate(estimatedRows);
+        gate.acquire();
+        try {
+            return gate.readOnly.execute(status -> query.get());
+        } catch (RuntimeException e) {
+            throw timedOut(e) ? toQueryTimeout(e) : e;
+        } finally {
+            gate.release();
+        }
+    }
+    
+    private static boolean timedOut(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof Neo4jException neo4j && neo4j.code() != null
+                    && neo4j.code().startsWith(TIMED_OUT_CODE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static QueryTimeoutException toQueryTimeout(Throwable error) {
+        return new QueryTimeoutException("Traversal exceeded its time limit", error);
+    }
+    
+    private Gate gate(long estimatedRows) {
+        return gates.get(estimatedRows <= lightMaxRows ? Tier.LIGHT : Tier.HEAVY);
+    }
+    
+    /**
+     * One tier: a fair semaphore for running traversals and a counter bounding those waiting for it.
+     */
+    private static final class Gate {
+        
+        private final Tier tier;
+        private final Semaphore running;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicLong rejected = new AtomicLong();
+        private final int maxConcurrent;
+        private final int maxQueued;
+        private final Duration queueTimeout;
+        private final Duration queryTimeout;
+        private final TransactionTemplate readOnly;
+        
+        Gate(Tier tier, FamilyTreeProperties.Admission.Tier settings, PlatformTransactionManager transactionManager) {
+            this.tier = tier;
+            this.maxConcurrent = settings.getMaxConcurrent();
+            this.running = new Semaphore(maxConcurrent, true);
+            this.maxQueued = settings.getMaxQueued();
+            this.queueTimeout = settings.getQueueTimeout();
+            this.queryTimeout = settings.getQueryTimeout();
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readOnly.setTimeout((int) Math.max(1, (queryTimeout.toMillis() + 999) / 1000));
+        }
+        
+        void acquire() {
+            if (running.tryAcquire()) {
+                return;
+            }
+            if (waiting.incrementAndGet() > maxQueued) {
+                waiting.decrementAndGet();
+                throw reject();
+            }
+            try {
+                if (!running.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                    throw reject();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject();
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        
+        void release() {
+            running.release();
+        }
+        
+        int running() {
+            return maxConcurrent - running.availablePermits();
+        }
+        
+        private TraversalRejectedException reject() {
+            rejected.incrementAndGet();
+            Duration retryAfter = queueTimeout.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : queueTimeout;
+            return new TraversalRejectedException(
+                "Too many " + tier.name().toLowerCase(Locale.ROOT) + " traversals in progress; retry later", retryAfter);
+        }
+    
+    }
+}
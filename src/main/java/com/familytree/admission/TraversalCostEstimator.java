@@ -0,0 +1,122 @@
+package com.familytree.admission;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.graph.FamilyGraphIndex;
+import com.familytree.repository.PersonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates how many persons a traversal visits. Each generation further down holds about as many
+ * persons as the one before times the average number of children of a parent, and each generation
+ * further up as many times the average number of parents of a child; no traversal visits more than
+ * the whole graph. The counts come from the graph index when it is loaded and from the database
+ * otherwise. They are taken by a background task every {@code familytree.admission.stats-ttl}, so
+ * requests only read the latest snapshot and never wait for a count; until the first count
+ * completes, every person is assumed to have two parents and two children.
+ */
+@Slf4j
+@Component
+public class TraversalCostEstimator implements DisposableBean {
+    
+    // Two children per parent and two parents per child, in a graph of unknown size
+    private static final Stats UNCOUNTED = new Stats(Long.MAX_VALUE, 2, 1, 1);
+    
+    private final PersonRepository personRepository;
+    private final FamilyGraphIndex graphIndex;
+    private final ScheduledExecutorService refresher;
+    private volatile Stats stats = UNCOUNTED;
+    
+    public TraversalCostEstimator(PersonRepository personRepository, FamilyGraphIndex graphIndex,
+                                  FamilyTreeProperties properties) {
+        this.personRepository = personRepository;
+        this.graphIndex = graphIndex;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "traversal-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getAdmission().getStatsTtl().toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    public long lineageRows(int ancestorDepth, int descendantDepth) {
+        Stats current = stats;
+        double rows = 1 + generations(current.fanIn, ancestorDepth) + generations(current.fanOut, descendantDepth);
+        return cap(rows, current.persons);
+    }
+    
+    public long descendantRows(int depth) {
+        Stats current = stats;
+        return cap(1 + generations(current.fanOut, depth), current.persons);
+    }
+    
+    /**
+     * Shortest paths follow every relationship without a length limit, so one between distant or
+     * unrelated persons can explore the whole graph.
+     */
+    public long pathRows() {
+        return stats.persons;
+    }
+    
+    /**
+     * Persons in generations 1 to {@code depth} when each generation is {@code fanOut} times the previous one.
+     */
+    static double generations(double fanOut, int depth) {
+        if (depth <= 0 || fanOut <= 0) {
+            return 0;
+        }
+        if (Math.abs(fanOut - 1) < 1e-9) {
+            return depth;
+        }
+        return fanOut * (Math.pow(fanOut, depth) - 1) / (fanOut - 1);
+    }
+    
+    private static long cap(double rows, long persons) {
+        return (long) Math.min(rows, Math.max(1, persons));
+    }
+    
+    /**
+     * Count the statistics now and publish them to requests.
+     */
+    void refresh() {
+        if (graphIndex.isReady()) {
+            stats = new Stats(graphIndex.personCount(), graphIndex.parentChildCount(),
+                graphIndex.parentCount(), graphIndex.childCount());
+        } else {
+            stats = new Stats(personRepository.count(), personRepository.countParentChildEdges(),
+                personRepository.countParents(), personRepository.countChildren());
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+    
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not count traversal statistics, keeping the previous ones: {}", e.getMessage());
+        }
+    }
+    
+    private static final class Stats {
+        
+        final long persons;
+        final double fanOut;
+        final double fanIn;
+        
+        Stats(long persons, long edges, long parents, long children) {
+            this.persons = persons;
+            this.fanOut = parents == 0 ? 0 : (double) edges / parents;
+            this.fanIn = children == 0 ? 0 : (double) edges / children;
+        }
+    }
+}
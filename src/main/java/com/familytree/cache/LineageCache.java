@@ -0,0 +1,255 @@
+package com.familytree.cache;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache (Caffeine, W-TinyLFU eviction) for lineage, sibling and relationship-path results.
+ * Every entry records the ids of the persons its traversal visited, and a reverse index maps each
+ * person to the entries that depend on them, so a write invalidates only those entries.
+ * Shortest paths can also be shortened by a new edge anywhere in the graph, so path entries are
+ * additionally stamped with a topology epoch that every relationship write advances.
+ */
+@Component
+public class LineageCache implements MeterBinder {
+    
+    private final Cache<Key, Entry> cache;
+    private final ConcurrentMap<Long, Set<Key>> dependents = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong topologyEpoch = new AtomicLong();
+    
+    public LineageCache(FamilyTreeProperties properties) {
+        FamilyTreeProperties.LineageCache settings = properties.getLineageCache();
+        this.cache = !settings.isEnabled() ? null : Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(settings.getExpireAfterWrite())
+            .executor(Runnable::run)
+            .removalListener(this::unregister)
+            .recordStats()
+            .build();
+    }
+    
+    /**
+     * Cached value for the key, or the loader's result, cached under the person ids returned by
+     * {@code dependencies}. Values must be treated as read-only by callers.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader, Function<T, long[]> dependencies) {
+        if (cache == null) {
+            return loader.get();
+        }
+        Entry cached = cache.getIfPresent(key);
+        if (isCurrent(key, cached)) {
+            return (T) cached.value;
+        }
+        
+        long invalidationsBefore = invalidations.get();
+        long epoch = topologyEpoch.get();
+        T value = loader.get();
+        store(key, value, dependencies.apply(value), invalidationsBefore, epoch);
+        return value;
+    }
+    
+    /**
+     * Cached value for the key, or null without loading it on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getIfPresent(Key key) {
+        if (cache == null) {
+            return null;
+        }
+        Entry cached = cache.getIfPresent(key);
+        return isCurrent(key, cached) ? (T) cached.value : null;
+    }
+    
+    /**
+     * Cached values for the keys; the misses are loaded with one call to {@code loader}, which may
+     * leave out keys that have no value (those are neither cached nor returned).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Map<Key, T> getAll(Collection<Key> keys, Function<List<Key>, Map<Key, T>> loader,
+                                  Function<T, long[]> dependencies) {
+        if (cache == null) {
+            return loader.apply(List.copyOf(keys));
+        }
+        Map<Key, T> values = new HashMap<>();
+        List<Key> missing = new ArrayList<>();
+        for (Key key : keys) {
+            Entry cached = cache.getIfPresent(key);
+            if (isCurrent(key, cached)) {
+                values.put(key, (T) cached.value);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return values;
+        }
+        
+        long invalidationsBefore = invalidations.get();
+        long epoch = topologyEpoch.get();
+        Map<Key, T> loaded = loader.apply(missing);
+        loaded.forEach((key, value) -> store(key, value, dependencies.apply(value), invalidationsBefore, epoch));
+        values.putAll(loaded);
+        return values;
+    }
+    
+    /**
+     * Drop every entry whose traversal visited one of the given persons.
+     */
+    public void invalidate(long... personIds) {
+        if (cache == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        for (long personId : personIds) {
+            Set<Key> keys = dependents.remove(personId);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+    
+    /**
+     * A relationship between the given persons was added or removed.
+     */
+    public void relationshipChanged(long... personIds) {
+        topologyEpoch.incrementAndGet();
+        invalidate(personIds);
+    }
+    
+    /**
+     * Drop everything, e.g. after a bulk write that bypassed the service layer.
+     */
+    public void invalidateAll() {
+        if (cache == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        topologyEpoch.incrementAndGet();
+        cache.invalidateAll();
+        dependents.clear();
+    }
+    
+    private boolean isCurrent(Key key, Entry cached) {
+        return cached != null && (!key.getKind().wholeTopology || cached.topologyEpoch == topologyEpoch.get());
+    }
+    
+    private void store(Key key, Object value, long[] dependsOn, long invalidationsBefore, long epoch) {
+        Entry entry = new Entry(value, dependsOn, epoch);
+        for (long personId : dependsOn) {
+            dependents.computeIfAbsent(personId, id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        cache.put(key, entry);
+        // A write committed while loading may not be reflected in the value; don't keep it
+        if (invalidations.get() != invalidationsBefore) {
+            cache.asMap().remove(key, entry);
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "lineage");
+        }
+    }
+    
+    private void unregister(Key key, Entry removed, RemovalCause cause) {
+        if (key == null || removed == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        Entry current = cache.policy().getIfPresentQuietly(key);
+        for (long personId : removed.dependencies) {
+            if (current != null && contains(current.dependencies, personId)) {
+                continue;
+            }
+            dependents.computeIfPresent(personId, (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+    
+    private static boolean contains(long[] ids, long id) {
+        for (long candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Cached query types.
+     */
+    public enum Kind {
+        LINEAGE(false),
+        SIBLINGS(false),
+        SIBLING_SUMMARIES(false),
+        PATH(true),
+        PATH_SUMMARIES(true);
+        
+        private final boolean wholeTopology;
+        
+        Kind(boolean wholeTopology) {
+            this.wholeTopology = wholeTopology;
+        }
+    }
+    
+    /**
+     * Query type plus its arguments.
+     */
+    @Value
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Key {
+        Kind kind;
+        long personId;
+        long otherPersonId;
+        long depths;
+        
+        public static Key lineage(long personId, int ancestorDepth, int descendantDepth) {
+            return new Key(Kind.LINEAGE, personId, 0L, ((long) ancestorDepth << 32) | (descendantDepth & 0xFFFFFFFFL));
+        }
+        
+        public static Key siblings(long personId, boolean summaries) {
+            return new Key(summaries ? Kind.SIBLING_SUMMARIES : Kind.SIBLINGS, personId, 0L, 0L);
+        }
+        
+        public static Key path(long person1Id, long person2Id, boolean summaries) {
+            return new Key(summaries ? Kind.PATH_SUMMARIES : Kind.PATH, person1Id, person2Id, 0L);
+        }
+    }
+    
+    private static final class Entry {
+        private final Object value;
+        private final long[] dependencies;
+        private final long topologyEpoch;
+        
+        Entry(Object value, long[] dependencies, long topologyEpoch) {
+            this.value = value;
+            this.dependencies = dependencies;
+            this.topologyEpoch = topologyEpoch;
+        }
+    }
+}
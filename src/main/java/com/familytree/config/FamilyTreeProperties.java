@@ -0,0 +1,248 @@
+package com.familytree.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application settings bound from {@code familytree.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "familytree")
+public class FamilyTreeProperties {
+    
+    private final Migrations migrations = new Migrations();
+    private final GraphIndex graphIndex = new GraphIndex();
+    private final BulkImport bulkImport = new BulkImport();
+    private final LineageCache lineageCache = new LineageCache();
+    private final ConcurrentReads concurrentReads = new ConcurrentReads();
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+    private final Auth auth = new Auth();
+    private final Admission admission = new Admission();
+    private final Generator generator = new Generator();
+    
+    @Data
+    public static class Migrations {
+        /**
+         * Apply pending schema migrations (indexes and constraints) at startup.
+         */
+        private boolean enabled = true;
+    }
+    
+    @Data
+    public static class GraphIndex {
+        /**
+         * Keep an in-memory copy of PARENT_OF / SPOUSE_OF and answer traversals from it.
+         */
+        private boolean enabled = true;
+    }
+    
+    @Data
+    public static class BulkImport {
+        /**
+         * Rows per UNWIND statement.
+         */
+        private int batchSize = 5000;
+        
+        /**
+         * Concurrent batch writers.
+         */
+        private int workers = 4;
+    }
+    
+    @Data
+    public static class LineageCache {
+        /**
+         * Cache lineage, sibling and relationship-path results.
+         */
+        private boolean enabled = true;
+        
+        /**
+         * Maximum number of cached results.
+         */
+        private long maximumSize = 10_000;
+        
+        /**
+         * Upper bound on how long a result is kept, even if nothing it depends on changes.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(30);
+    }
+    
+    @Data
+    public static class ConcurrentReads {
+        /**
+         * Run independent read queries of one request in parallel, each in its own read-only transaction.
+         */
+        private boolean enabled = true;
+        
+        /**
+         * Transaction timeout of each parallel read.
+         */
+        private Duration queryTimeout = Duration.ofSeconds(30);
+    }
+    
+    @Data
+    public static class QueryMetrics {
+        /**
+         * Time each repository call and count the rows it returns.
+         */
+        private boolean enabled = true;
+        
+        /**
+         * Repository calls taking at least this long are logged.
+         */
+        private Duration slowQueryThreshold = Duration.ofMillis(500);
+    }
+    
+    @Data
+    public static class Admission {
+        /**
+         * Estimate the cost of lineage, relationship-path and descendant traversals, clamp their
+         * depth to the budget and limit how many run at once.
+         */
+        private boolean enabled = true;
+        
+        /**
+         * Traversals estimated to visit at most this many persons run in the light tier, the rest in the heavy one.
+         */
+        private long lightMaxRows = 2_000;
+        
+        /**
+         * Budget per request: depths are reduced until the estimate fits.
+         */
+        private long maxRows = 200_000;
+        
+        /**
+         * Interval at which graph size and fan-out statistics are counted again in the background.
+         */
+        private Duration statsTtl = Duration.ofMinutes(5);
+        
+        private final Tier light = new Tier(32, 64, Duration.ofSeconds(2), Duration.ofSeconds(5));
+        private final Tier heavy = new Tier(4, 8, Duration.ofMillis(500), Duration.ofSeconds(30));
+        
+        @Data
+        public static class Tier {
+            /**
+             * Traversals of this tier running at the same time.
+             */
+            private int maxConcurrent;
+            
+            /**
+             * Requests allowed to wait for a slot; further ones are rejected at once.
+             */
+            private int maxQueued;
+            
+            /**
+             * How long a queued request waits for a slot before it is rejected.
+             */
+            private Duration queueTimeout;
+            
+            /**
+             * Transaction timeout of each query run in this tier.
+             */
+            private Duration queryTimeout;
+            
+            public Tier(int maxConcurrent, int maxQueued, Duration queueTimeout, Duration queryTimeout) {
+                this.maxConcurrent = maxConcurrent;
+                this.maxQueued = maxQueued;
+                this.queueTimeout = queueTimeout;
+                this.queryTimeout = queryTimeout;
+            }
+        }
+    }
+    
+    @Data
+    public static class Auth {
+        /**
+         * How long the user and roles behind a token id are reused before being read again;
+         * never longer than the token itself is valid.
+         */
+        private Duration principalCacheTtl = Duration.ofMinutes(5);
+        
+        /**
+         * Maximum number of cached token principals.
+         */
+        private long principalCacheMaximumSize = 10_000;
+        
+        /**
+         * How long a successful password check is remembered, so repeated logins skip BCrypt;
+         * zero disables it.
+         */
+        private Duration credentialCacheTtl = Duration.ofMinutes(5);
+        
+        /**
+         * Maximum number of remembered password checks.
+         */
+        private long credentialCacheMaximumSize = 10_000;
+        
+        /**
+         * How often queued last-login times are written.
+         */
+        private Duration lastLoginFlushInterval = Duration.ofSeconds(10);
+        
+        /**
+         * Users updated per write statement.
+         */
+        private int lastLoginBatchSize = 1000;
+    }
+    
+    @Data
+    public static class Generator {
+        /**
+         * Random seed; the same seed and settings always produce the same tree.
+         */
+        private long seed = 42;
+        
+        /**
+         * Unrelated couples the tree starts from.
+         */
+        private int founders = 100;
+        
+        /**
+         * Generations below the founders.
+         */
+        private int generations = 12;
+        
+        /**
+         * Stop adding persons once this many have been generated.
+         */
+        private long maxPersons = 1_000_000;
+        
+        /**
+         * Relative weights of a couple having 0, 1, 2, ... children.
+         */
+        private List<Double> fertility = new ArrayList<>(List.of(0.10, 0.15, 0.25, 0.22, 0.13, 0.08, 0.04, 0.03));
+        
+        /**
+         * Probability that a child grows up to marry.
+         */
+        private double spouseRate = 0.8;
+        
+        /**
+         * Probability that a marriage joins two descendants already in the tree (cousins) instead of
+         * bringing in a spouse from outside.
+         */
+        private double pedigreeCollapseRate = 0.02;
+        
+        /**
+         * Birth year of the founders.
+         */
+        private int startYear = 1700;
+        
+        /**
+         * Zipf exponent for picking names and places; higher values make the common ones more common.
+         */
+        private double nameSkew = 1.0;
+        
+        /**
+         * Name and place pools, most common first; empty uses the built-in English ones.
+         */
+        private List<String> maleNames = new ArrayList<>();
+        private List<String> femaleNames = new ArrayList<>();
+        private List<String> lastNames = new ArrayList<>();
+        private List<String> places = new ArrayList<>();
+    }
+}
@@ -1,5 +1,8 @@
 package com.familytree.config;
 
+import org.neo4j.driver.MetricsAdapter;
+import org.springframework.boot.autoconfigure.neo4j.ConfigBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.neo4j.repository.config.EnableNeo4jRepositories;
 
@@ -9,6 +12,13 @@ import org.springframework.data.neo4j.repository.config.EnableNeo4jRepositories;
 @Configuration
 @EnableNeo4jRepositories(basePackages = "com.familytree.repository")
 public class Neo4jConfig {
-    // Configuration is handled by Spring Boot auto-configuration
-    // Additional custom configuration can be added here if needed
+    /**
+     * Publish the driver's connection pool metrics (neo4j.driver.connections.*) through Micrometer
+     * when {@code spring.neo4j.pool.metrics-enabled} is set. The driver registers them in the
+     * global registry, which Spring Boot backs with the application's registries.
+     */
+    @Bean
+    public ConfigBuilderCustomizer driverMetricsCustomizer() {
+        return builder -> builder.withMetricsAdapter(MetricsAdapter.MICROMETER);
+    }
 }
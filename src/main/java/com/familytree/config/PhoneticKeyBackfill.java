@@ -0,0 +1,54 @@
+package com.familytree.config;
+
+import com.familytree.dto.PersonSummaryDTO;
+import com.familytree.repository.PersonRepository;
+import com.familytree.service.PhoneticKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills in phonetic keys for persons written before they were maintained, so similar-name search
+ * finds them. The person_phonetic index itself is created by the graph migrations.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PhoneticKeyBackfill {
+    
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    
+    private final PersonRepository personRepository;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            backfillPhoneticKeys();
+        } catch (RuntimeException e) {
+            log.warn("Could not backfill phonetic keys: {}", e.getMessage());
+        }
+    }
+    
+    private void backfillPhoneticKeys() {
+        long updated = 0;
+        List<PersonSummaryDTO> batch;
+        while (!(batch = personRepository.findSummariesWithoutPhoneticKeys(BACKFILL_BATCH_SIZE)).isEmpty()) {
+            Map<Long, String> keysById = new HashMap<>(batch.size() * 2);
+            for (PersonSummaryDTO person : batch) {
+                keysById.put(person.getId(), PhoneticKeys.of(person.getFirstName(), person.getMiddleName(),
+                    person.getLastName(), person.getMaidenName()));
+            }
+            personRepository.setPhoneticKeys(keysById);
+            updated += batch.size();
+        }
+        if (updated > 0) {
+            log.info("Computed phonetic keys for {} persons", updated);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.familytree.config;
 
+import com.familytree.security.AuthenticatedUserCache;
+import com.familytree.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,6 +14,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -28,6 +31,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig {
     
+    private final AuthenticatedUserCache authenticatedUsers;
+    
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -48,7 +53,9 @@ public class SecurityConfig {
             )
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
-            );
+            )
+            .addFilterBefore(new JwtAuthenticationFilter(authenticatedUsers),
+                UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
     }
@@ -0,0 +1,44 @@
+package com.familytree.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary response encodings. Smile and CBOR carry the same fields as JSON, but Smile also refers back
+ * to field names and short values (surnames, places) already written instead of repeating them, which
+ * is where lineage and bulk payloads spend most of their bytes.
+ */
+@Configuration
+public class WireFormatConfig {
+    
+    /**
+     * Built from Spring Boot's (prototype) builder, so the binary mappers share the JSON mapper's settings.
+     */
+    @Bean
+    public WireFormats wireFormats(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder smileBuilder,
+                                   Jackson2ObjectMapperBuilder cborBuilder) {
+        SmileFactory smile = SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build();
+        return new WireFormats(objectMapper,
+            smileBuilder.factory(smile).build(),
+            cborBuilder.factory(new CBORFactory()).build());
+    }
+    
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(WireFormats wireFormats) {
+        return new MappingJackson2SmileHttpMessageConverter(wireFormats.mapper(WireFormats.SMILE));
+    }
+    
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(WireFormats wireFormats) {
+        return new MappingJackson2CborHttpMessageConverter(wireFormats.mapper(WireFormats.CBOR));
+    }
+}
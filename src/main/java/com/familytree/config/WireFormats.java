@@ -0,0 +1,56 @@
+package com.familytree.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The response encodings clients can ask for through {@code Accept}: JSON, Smile and CBOR, each with
+ * an ObjectMapper carrying the application's Jackson settings. Used by the message converters and by
+ * endpoints that stream straight into a {@link com.fasterxml.jackson.core.JsonGenerator}.
+ */
+public class WireFormats {
+    
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    public static final List<MediaType> SUPPORTED = List.of(MediaType.APPLICATION_JSON, SMILE, CBOR);
+    
+    private final Map<MediaType, ObjectMapper> mappers;
+    
+    public WireFormats(ObjectMapper json, ObjectMapper smile, ObjectMapper cbor) {
+        this.mappers = Map.of(MediaType.APPLICATION_JSON, json, SMILE, smile, CBOR, cbor);
+    }
+    
+    public ObjectMapper mapper(MediaType format) {
+        ObjectMapper mapper = mappers.get(format);
+        if (mapper == null) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        return mapper;
+    }
+    
+    /**
+     * The supported format preferred by an {@code Accept} header, by quality and then specificity;
+     * JSON when the header is absent or accepts anything.
+     */
+    public MediaType negotiate(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            for (MediaType format : SUPPORTED) {
+                if (type.isCompatibleWith(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,24 @@
+package com.familytree.controller;
+
+import com.familytree.dto.LoginRequestDTO;
+import com.familytree.dto.TokenDTO;
+import com.familytree.service.LoginService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST API controller for logging in.
+ */
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+public class AuthController {
+    
+    private final LoginService loginService;
+    
+    @PostMapping("/login")
+    public ResponseEntity<TokenDTO> login(@RequestBody LoginRequestDTO request) {
+        return ResponseEntity.ok(loginService.login(request.getUsername(), request.getPassword()));
+    }
+}
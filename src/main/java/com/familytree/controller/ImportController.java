@@ -0,0 +1,33 @@
+package com.familytree.controller;
+
+import com.familytree.dto.ImportResultDTO;
+import com.familytree.gedcom.GedcomImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * REST API controller for bulk data import.
+ */
+@RestController
+@RequestMapping("/api/import")
+@RequiredArgsConstructor
+public class ImportController {
+    
+    private final GedcomImportService gedcomImportService;
+    
+    /**
+     * Import a GEDCOM file sent as the raw request body. The body is streamed, never buffered whole.
+     */
+    @PostMapping("/gedcom")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportResultDTO> importGedcom(
+            InputStream body,
+            @RequestParam(defaultValue = "PRIVATE") String visibility) {
+        return ResponseEntity.ok(gedcomImportService.importGedcom(body, visibility.toUpperCase(Locale.ROOT)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.familytree.controller;
+
+import com.familytree.dto.GenerationDTO;
+import com.familytree.dto.PersonDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Writes a lineage in the shape of {@link com.familytree.dto.LineageDTO} as its rows arrive: the
+ * person first, then ancestors, then descendants. Each person is written and dropped; only the ids
+ * per generation are kept for the closing {@code generations} field.
+ */
+final class LineageStreamWriter implements Consumer<PersonDTO> {
+    
+    private final JsonGenerator generator;
+    private final int ancestorDepth;
+    private final int descendantDepth;
+    private final Map<Integer, List<Long>> byGeneration = new TreeMap<>();
+    private boolean started;
+    private boolean inDescendants;
+    
+    LineageStreamWriter(JsonGenerator generator, int ancestorDepth, int descendantDepth) {
+        this.generator = generator;
+        this.ancestorDepth = ancestorDepth;
+        this.descendantDepth = descendantDepth;
+    }
+    
+    @Override
+    public void accept(PersonDTO person) {
+        try {
+            if (person.getGeneration() == 0) {
+                generator.writeStartObject();
+                generator.writeNumberField("personId", person.getId());
+                generator.writeStringField("personName", person.fullName());
+                generator.writeArrayFieldStart("ancestors");
+                started = true;
+                return;
+            }
+            if (!started) {
+                throw new IllegalStateException("Lineage rows must start with the person");
+            }
+            if (person.getGeneration() > 0 && !inDescendants) {
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("descendants");
+                inDescendants = true;
+            }
+            generator.writeObject(person);
+            byGeneration.computeIfAbsent(person.getGeneration(), g -> new ArrayList<>()).add(person.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Whether the person's row arrived, i.e. anything was written.
+     */
+    boolean isStarted() {
+        return started;
+    }
+    
+    void finish() throws IOException {
+        if (!started) {
+            return;
+        }
+        if (!inDescendants) {
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("descendants");
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("generationsUp", ancestorDepth);
+        generator.writeNumberField("generationsDown", descendantDepth);
+        generator.writeArrayFieldStart("generations");
+        for (Map.Entry<Integer, List<Long>> entry : byGeneration.entrySet()) {
+            generator.writeObject(GenerationDTO.builder().generation(entry.getKey()).personIds(entry.getValue()).build());
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
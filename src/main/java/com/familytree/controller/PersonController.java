@@ -1,17 +1,39 @@
 package com.familytree.controller;
 
+import com.familytree.config.WireFormats;
+import com.familytree.dto.KinshipDTO;
 import com.familytree.dto.LineageDTO;
+import com.familytree.dto.NameSuggestionDTO;
+import com.familytree.dto.PedigreeDTO;
+import com.familytree.dto.PersonCursor;
 import com.familytree.dto.PersonDTO;
+import com.familytree.dto.PersonPairDTO;
+import com.familytree.dto.PersonPatchDTO;
+import com.familytree.dto.PersonSortOrder;
+import com.familytree.dto.PersonSummaryDTO;
+import com.familytree.dto.PersonView;
+import com.familytree.dto.RelationshipBatchResultDTO;
 import com.familytree.dto.RelationshipDTO;
+import com.familytree.exception.ResourceNotFoundException;
 import com.familytree.model.Person;
 import com.familytree.service.PersonService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST API controller for Person management.
@@ -21,23 +43,112 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PersonController {
     
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SUGGESTIONS = 25;
+    private static final int MAX_KINSHIP_DEPTH = 15;
+    private static final int MAX_BULK_KINSHIP_DEPTH = 10;
+    private static final int MAX_KINSHIP_PAIRS = 100_000;
+    private static final int MAX_BATCH_IDS = 1000;
+    private static final int MAX_STREAM_DEPTH = 100;
+    private static final int MAX_PEDIGREE_GENERATIONS = 16;
+    private static final int STREAM_SPOOL_MEMORY_BYTES = 1 << 20;
+    
     private final PersonService personService;
+    private final ObjectMapper objectMapper;
+    private final WireFormats wireFormats;
     
+    /**
+     * Keyset-paginated listing. The cursor for the next page is returned in the
+     * {@value #NEXT_CURSOR_HEADER} header and is absent on the last page.
+     */
     @GetMapping
-    public ResponseEntity<List<Person>> getAllPersons() {
-        return ResponseEntity.ok(personService.findAll());
+    public ResponseEntity<List<PersonDTO>> getAllPersons(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        PersonSortOrder sortOrder = PersonSortOrder.from(sort);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<PersonDTO> page = personService.findPage(
+            sortOrder, cursor != null ? PersonCursor.decode(cursor) : null, pageSize);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, PersonCursor.after(page.get(page.size() - 1), sortOrder).encode());
+        }
+        return response.body(page);
+    }
+    
+    /**
+     * Full export as newline-delimited JSON, written row by row as records arrive from Neo4j.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPersons() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                personService.exportAll(person -> {
+                    try {
+                        generator.writeObject(person);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
     
+    /**
+     * Sent with a strong ETag. A matching If-None-Match is answered with 304 after reading only
+     * version numbers.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Person> getPerson(@PathVariable Long id) {
+    public ResponseEntity<Person> getPerson(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> etag = personService.getPersonETag(id);
+            if (etag.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(etag.get())) {
+                return null;
+            }
+        }
         return personService.findById(id)
-            .map(ResponseEntity::ok)
+            .map(person -> ResponseEntity.ok().eTag(personService.personETag(person)).body(person))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Person>> searchPersons(@RequestParam String name) {
-        return ResponseEntity.ok(personService.searchByName(name));
+    public ResponseEntity<List<?>> searchPersons(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "summary") String view) {
+        if (PersonView.from(view) == PersonView.FULL) {
+            return ResponseEntity.ok(personService.searchByName(name));
+        }
+        return ResponseEntity.ok(personService.searchSummariesByName(name));
+    }
+    
+    /**
+     * Persons whose names sound like or are spelled close to the given name, closest first.
+     */
+    @GetMapping("/search/similar")
+    public ResponseEntity<List<PersonSummaryDTO>> searchSimilarNames(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "2") int maxEdits) {
+        return ResponseEntity.ok(personService.findSimilarNames(name, maxEdits));
+    }
+    
+    /**
+     * Typeahead suggestions for a partially typed name.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<NameSuggestionDTO>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return ResponseEntity.ok(personService.autocomplete(prefix, size));
     }
     
     @PostMapping
@@ -55,6 +166,17 @@ public class PersonController {
         return ResponseEntity.ok(updated);
     }
     
+    /**
+     * Partial update: only the fields in the body are written. Send the {@code version} last read to
+     * have the write refused with 409 if someone else changed the person in between.
+     */
+    @PatchMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EDITOR')")
+    public ResponseEntity<PersonDTO> patchPerson(@PathVariable Long id,
+                                                 @RequestBody PersonPatchDTO patch) {
+        return ResponseEntity.ok(personService.patchPerson(id, patch));
+    }
+    
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deletePerson(@PathVariable Long id) {
@@ -76,24 +198,174 @@ public class PersonController {
         return ResponseEntity.ok().build();
     }
     
+    /**
+     * Add many PARENT / CHILD / SPOUSE relationships at once. All-or-nothing.
+     */
+    @PostMapping("/relationships/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EDITOR')")
+    public ResponseEntity<RelationshipBatchResultDTO> addRelationships(@RequestBody List<RelationshipDTO> relationships) {
+        return ResponseEntity.ok(personService.addRelationships(relationships));
+    }
+    
+    /**
+     * Several persons in one request, in the order given; unknown ids are left out.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<PersonDTO>> getPersons(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(personService.findPersons(checkBatchSize(ids)));
+    }
+    
+    /**
+     * Lineages of several persons in one request, in the order given; unknown ids are left out.
+     */
+    @PostMapping("/lineage/batch")
+    public ResponseEntity<List<LineageDTO>> getLineages(
+            @RequestBody List<Long> ids,
+            @RequestParam(defaultValue = "5") int ancestorDepth,
+            @RequestParam(defaultValue = "5") int descendantDepth) {
+        return ResponseEntity.ok(personService.getLineages(checkBatchSize(ids), ancestorDepth, descendantDepth));
+    }
+    
+    /**
+     * Sent with a strong ETag over the versions of everyone in the lineage. A matching
+     * If-None-Match is answered with 304 from the cached lineage or a version-only query.
+     */
     @GetMapping("/{id}/lineage")
     public ResponseEntity<LineageDTO> getLineage(
             @PathVariable Long id,
             @RequestParam(defaultValue = "5") int ancestorDepth,
-            @RequestParam(defaultValue = "5") int descendantDepth) {
+            @RequestParam(defaultValue = "5") int descendantDepth,
+            WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(personService.getLineageETag(id, ancestorDepth, descendantDepth))) {
+            return null;
+        }
         LineageDTO lineage = personService.getLineage(id, ancestorDepth, descendantDepth);
-        return ResponseEntity.ok(lineage);
+        return ResponseEntity.ok().eTag(lineage.getEtag()).body(lineage);
+    }
+    
+    /**
+     * Ancestors numbered for a pedigree chart (Ahnentafel: the father of n is 2n, the mother 2n + 1).
+     */
+    @GetMapping("/{id}/pedigree")
+    public ResponseEntity<PedigreeDTO> getPedigree(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") int generations) {
+        int depth = Math.max(1, Math.min(generations, MAX_PEDIGREE_GENERATIONS));
+        return ResponseEntity.ok(personService.getPedigree(id, depth));
+    }
+    
+    /**
+     * Descendants numbered for a descendancy chart (d'Aboville: 1.2.1 is the first child of the second child).
+     */
+    @GetMapping("/{id}/descendancy")
+    public ResponseEntity<PedigreeDTO> getDescendancy(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") int generations) {
+        int depth = Math.max(1, Math.min(generations, MAX_PEDIGREE_GENERATIONS));
+        return ResponseEntity.ok(personService.getDescendancy(id, depth));
+    }
+    
+    /**
+     * The lineage serialized row by row as it is read, in the same shape as {@code /lineage}, encoded as
+     * JSON, Smile or CBOR by {@code Accept}. Meant for lineages too large to assemble in memory; the
+     * result is neither cached nor tagged. The encoded rows are spooled (to a temporary file beyond
+     * 1 MiB) and sent once the read is done, so a slow client never holds the traversal's admission
+     * slot or transaction.
+     */
+    @GetMapping(value = "/{id}/lineage/stream",
+        produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamLineage(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") int ancestorDepth,
+            @RequestParam(defaultValue = "5") int descendantDepth,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (!personService.exists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        MediaType format = wireFormats.negotiate(accept);
+        ObjectMapper mapper = wireFormats.mapper(format);
+        StreamingResponseBody body = out -> {
+            try (SpoolingOutputStream spool = new SpoolingOutputStream(STREAM_SPOOL_MEMORY_BYTES)) {
+                try (JsonGenerator generator = mapper.getFactory().createGenerator(spool)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    LineageStreamWriter writer = new LineageStreamWriter(generator, ancestorDepth, descendantDepth);
+                    personService.streamLineage(id, ancestorDepth, descendantDepth, writer);
+                    if (!writer.isStarted()) {
+                        // Deleted since the check; nothing has been written yet
+                        throw new ResourceNotFoundException("Person", id);
+                    }
+                    writer.finish();
+                }
+                spool.writeTo(out);
+            }
+        };
+        return ResponseEntity.ok().contentType(format).body(body);
+    }
+    
+    /**
+     * Descendants as Server-Sent Events or newline-delimited JSON, one person per event, nearest
+     * generation first. Each person carries its generation; rows are fetched as the client reads them.
+     */
+    @GetMapping(value = "/{id}/descendants/stream",
+        produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<PersonSummaryDTO> streamDescendants(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "25") int maxDepth) {
+        return personService.streamDescendants(id, Math.max(1, Math.min(maxDepth, MAX_STREAM_DEPTH)));
     }
     
     @GetMapping("/{id}/siblings")
-    public ResponseEntity<List<Person>> getSiblings(@PathVariable Long id) {
-        return ResponseEntity.ok(personService.findSiblings(id));
+    public ResponseEntity<List<?>> getSiblings(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "summary") String view) {
+        if (PersonView.from(view) == PersonView.FULL) {
+            return ResponseEntity.ok(personService.findSiblings(id));
+        }
+        return ResponseEntity.ok(personService.findSiblingSummaries(id));
     }
     
     @GetMapping("/relationship-path")
-    public ResponseEntity<List<Person>> getRelationshipPath(
+    public ResponseEntity<List<?>> getRelationshipPath(
+            @RequestParam Long person1Id,
+            @RequestParam Long person2Id,
+            @RequestParam(defaultValue = "summary") String view) {
+        if (PersonView.from(view) == PersonView.FULL) {
+            return ResponseEntity.ok(personService.findRelationshipPath(person1Id, person2Id));
+        }
+        return ResponseEntity.ok(personService.findRelationshipPathSummaries(person1Id, person2Id));
+    }
+    
+    /**
+     * Named relationship of person 2 to person 1 (e.g. "second cousin once removed") and the path between them.
+     */
+    @GetMapping("/kinship")
+    public ResponseEntity<KinshipDTO> getKinship(
             @RequestParam Long person1Id,
-            @RequestParam Long person2Id) {
-        return ResponseEntity.ok(personService.findRelationshipPath(person1Id, person2Id));
+            @RequestParam Long person2Id,
+            @RequestParam(defaultValue = "10") int maxDepth) {
+        int depth = Math.max(1, Math.min(maxDepth, MAX_KINSHIP_DEPTH));
+        return ResponseEntity.ok(personService.findKinship(person1Id, person2Id, depth));
+    }
+    
+    /**
+     * Blood relationships for many pairs of persons, in request order.
+     */
+    @PostMapping("/kinship/batch")
+    public ResponseEntity<List<KinshipDTO>> getKinships(
+            @RequestBody List<PersonPairDTO> pairs,
+            @RequestParam(defaultValue = "10") int maxDepth) {
+        if (pairs.size() > MAX_KINSHIP_PAIRS) {
+            throw new IllegalArgumentException("At most " + MAX_KINSHIP_PAIRS + " pairs per request");
+        }
+        int depth = Math.max(1, Math.min(maxDepth, MAX_BULK_KINSHIP_DEPTH));
+        return ResponseEntity.ok(personService.findKinships(pairs, depth));
+    }
+    
+    private static List<Long> checkBatchSize(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids per request");
+        }
+        return ids;
     }
 }
@@ -0,0 +1,68 @@
+package com.familytree.controller;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Collects a response body so it can be sent after the work producing it has released its
+ * resources. Bodies up to {@code memoryLimit} bytes stay in memory; larger ones move to a
+ * temporary file, which {@link #close} deletes.
+ */
+final class SpoolingOutputStream extends OutputStream {
+    
+    private final int memoryLimit;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private Path file;
+    private OutputStream fileOut;
+    
+    SpoolingOutputStream(int memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+    
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+    
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (fileOut == null && memory.size() + length > memoryLimit) {
+            file = Files.createTempFile("response-", ".spool");
+            fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+            memory.writeTo(fileOut);
+            memory = null;
+        }
+        if (fileOut != null) {
+            fileOut.write(bytes, offset, length);
+        } else {
+            memory.write(bytes, offset, length);
+        }
+    }
+    
+    /**
+     * Copy everything written so far to {@code out}.
+     */
+    void writeTo(OutputStream out) throws IOException {
+        if (fileOut == null) {
+            memory.writeTo(out);
+            return;
+        }
+        fileOut.flush();
+        Files.copy(file, out);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (fileOut != null) {
+            try {
+                fileOut.close();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
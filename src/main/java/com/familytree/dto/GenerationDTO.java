@@ -0,0 +1,20 @@
+package com.familytree.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ids of the relatives in one generation of a lineage, relative to its root.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerationDTO {
+    private int generation;
+    private List<Long> personIds;
+}
@@ -0,0 +1,23 @@
+package com.familytree.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Summary of a bulk import run.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+    private String importId;
+    private long individuals;
+    private long families;
+    private long parentChildRelationships;
+    private long spouseRelationships;
+    private long unresolvedReferences; // edges whose endpoints were not found in the file
+    private long durationMillis;
+}
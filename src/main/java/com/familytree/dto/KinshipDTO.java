@@ -0,0 +1,32 @@
+package com.familytree.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * What person 2 is to person 1, e.g. "second cousin once removed", and how they connect.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KinshipDTO {
+    private Long person1Id;
+    private Long person2Id;
+    private boolean related;
+    private String relationship;
+    private Integer generationsUp;
+    private Integer generationsDown;
+    private List<Long> commonAncestorIds;
+    
+    /**
+     * Persons from person 1 to person 2; not set in bulk kinship results.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<PersonSummaryDTO> path;
+}
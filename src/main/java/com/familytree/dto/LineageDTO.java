@@ -4,11 +4,13 @@ import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.List;
 
 /**
- * DTO for lineage information.
+ * DTO for lineage information. Each relative appears once, at their closest generation,
+ * even when they are reachable along several lines (pedigree collapse).
  */
 @Data
 @Builder
@@ -21,4 +23,11 @@ public class LineageDTO {
     private List<PersonDTO> descendants;
     private int generationsUp;
     private int generationsDown;
+    private List<GenerationDTO> generations; // ordered from the most distant ancestors down
+    
+    /**
+     * Strong ETag over the versions of everyone in the lineage; sent as a header, not in the body.
+     */
+    @JsonIgnore
+    private String etag;
 }
@@ -0,0 +1,21 @@
+package com.familytree.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Minimal typeahead entry: just enough to tell namesakes apart.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NameSuggestionDTO {
+    private Long id;
+    private String name;
+    private String maidenName;
+    private Integer birthYear;
+    private Integer deathYear;
+}
@@ -0,0 +1,23 @@
+package com.familytree.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A person's ancestors (pedigree) or descendants (descendancy) with their genealogical numbers.
+ * The person themselves is number 1 and is not repeated in {@code entries}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedigreeDTO {
+    private Long personId;
+    private String personName;
+    private int generations;
+    private List<PedigreeEntryDTO> entries;
+}
@@ -0,0 +1,32 @@
+package com.familytree.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One position in a pedigree or descendancy. A relative reached along several lines (pedigree
+ * collapse) holds several positions, each with its own entry.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PedigreeEntryDTO {
+    
+    /**
+     * Ahnentafel number of an ancestor: the father of n is 2n and the mother 2n + 1.
+     */
+    private Long ahnentafel;
+    
+    /**
+     * d'Aboville number of a descendant: the k-th child of "1.2" is "1.2.k", children in birth order.
+     */
+    private String daboville;
+    
+    private int generation;
+    private PersonDTO person;
+}
@@ -0,0 +1,68 @@
+package com.familytree.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a person listing: the sort key of the last row already returned.
+ * Serialized as an opaque URL-safe token.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonCursor {
+    
+    private static final String SEPARATOR = "\u0000";
+    
+    private Long id;
+    private String lastName;
+    private String firstName;
+    
+    /**
+     * Cursor positioned after the given row for the given ordering.
+     */
+    public static PersonCursor after(PersonDTO person, PersonSortOrder sort) {
+        PersonCursor cursor = PersonCursor.builder().id(person.getId()).build();
+        if (sort == PersonSortOrder.NAME) {
+            cursor.setLastName(person.getLastName() != null ? person.getLastName() : "");
+            cursor.setFirstName(person.getFirstName() != null ? person.getFirstName() : "");
+        }
+        return cursor;
+    }
+    
+    /**
+     * Stored {@code nameSortKey} of a person: last name, NUL, first name, missing names as empty.
+     * NUL sorts before every other character, so the key orders like (lastName, firstName).
+     */
+    public static String nameSortKey(String lastName, String firstName) {
+        return (lastName != null ? lastName : "") + SEPARATOR + (firstName != null ? firstName : "");
+    }
+    
+    public String encode() {
+        String raw = lastName == null
+            ? String.valueOf(id)
+            : id + SEPARATOR + lastName + SEPARATOR + firstName;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static PersonCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 3);
+            PersonCursor cursor = PersonCursor.builder().id(Long.parseLong(parts[0])).build();
+            if (parts.length == 3) {
+                cursor.setLastName(parts[1]);
+                cursor.setFirstName(parts[2]);
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token);
+        }
+    }
+}
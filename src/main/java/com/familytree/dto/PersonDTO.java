@@ -4,9 +4,13 @@ import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDate;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * DTO for Person data transfer.
@@ -36,4 +40,24 @@ public class PersonDTO {
     private Set<Long> childrenIds;
     private Set<Long> parentIds;
     private Set<Long> spouseIds;
+    
+    /**
+     * Incremented by every write to the person or to their relationships.
+     */
+    private Long version;
+    
+    /**
+     * Generation relative to the lineage root (-1 parents, 1 children); only set in lineage results.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer generation;
+    
+    /**
+     * First, middle and last name joined by spaces, skipping the missing ones.
+     */
+    public String fullName() {
+        return Stream.of(firstName, middleName, lastName)
+            .filter(Objects::nonNull)
+            .collect(Collectors.joining(" "));
+    }
 }
@@ -0,0 +1,18 @@
+package com.familytree.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Two person ids, e.g. one entry of a bulk kinship request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonPairDTO {
+    private Long person1Id;
+    private Long person2Id;
+}
@@ -0,0 +1,154 @@
+package com.familytree.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Partial update of a person. Each setter records its field as changed, so only the fields present
+ * in the request body are written; a field sent as null is cleared. {@code version}, when given, is
+ * the version the client last read.
+ */
+public class PersonPatchDTO {
+    
+    private static final Set<String> NAME_FIELDS = Set.of("firstName", "middleName", "lastName", "maidenName");
+    
+    private final Map<String, Object> changes = new LinkedHashMap<>();
+    private final Set<String> unknownFields = new LinkedHashSet<>();
+    private Long version;
+    
+    /**
+     * Patch that overwrites every field with the values of {@code person}, as a full update does.
+     */
+    public static PersonPatchDTO replacing(PersonDTO person) {
+        PersonPatchDTO patch = new PersonPatchDTO();
+        patch.setFirstName(person.getFirstName());
+        patch.setMiddleName(person.getMiddleName());
+        patch.setLastName(person.getLastName());
+        patch.setMaidenName(person.getMaidenName());
+        patch.setBirthDate(person.getBirthDate());
+        patch.setDeathDate(person.getDeathDate());
+        patch.setGender(person.getGender());
+        patch.setBiography(person.getBiography());
+        patch.setProfileImageUrl(person.getProfileImageUrl());
+        patch.setBirthPlace(person.getBirthPlace());
+        patch.setDeathPlace(person.getDeathPlace());
+        patch.setCurrentLocation(person.getCurrentLocation());
+        patch.setOccupation(person.getOccupation());
+        patch.setNationality(person.getNationality());
+        patch.setPublic(person.isPublic());
+        patch.setVisibility(person.getVisibility());
+        return patch;
+    }
+    
+    /**
+     * Changed fields keyed by graph property name, in request order; null values clear the property.
+     */
+    @JsonIgnore
+    public Map<String, Object> getChanges() {
+        return Collections.unmodifiableMap(changes);
+    }
+    
+    /**
+     * Fields in the request that cannot be patched, such as {@code id} or relationship ids.
+     */
+    @JsonIgnore
+    public Set<String> getUnknownFields() {
+        return Collections.unmodifiableSet(unknownFields);
+    }
+    
+    @JsonIgnore
+    public boolean changesName() {
+        return changes.keySet().stream().anyMatch(NAME_FIELDS::contains);
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public void setFirstName(String firstName) {
+        changes.put("firstName", firstName);
+    }
+    
+    public void setMiddleName(String middleName) {
+        changes.put("middleName", middleName);
+    }
+    
+    public void setLastName(String lastName) {
+        changes.put("lastName", lastName);
+    }
+    
+    public void setMaidenName(String maidenName) {
+        changes.put("maidenName", maidenName);
+    }
+    
+    public void setBirthDate(LocalDate birthDate) {
+        changes.put("birthDate", birthDate);
+    }
+    
+    public void setDeathDate(LocalDate deathDate) {
+        changes.put("deathDate", deathDate);
+    }
+    
+    public void setGender(String gender) {
+        changes.put("gender", gender);
+    }
+    
+    public void setBiography(String biography) {
+        changes.put("biography", biography);
+    }
+    
+    public void setProfileImageUrl(String profileImageUrl) {
+        changes.put("profileImageUrl", profileImageUrl);
+    }
+    
+    public void setBirthPlace(String birthPlace) {
+        changes.put("birthPlace", birthPlace);
+    }
+    
+    public void setDeathPlace(String deathPlace) {
+        changes.put("deathPlace", deathPlace);
+    }
+    
+    public void setCurrentLocation(String currentLocation) {
+        changes.put("currentLocation", currentLocation);
+    }
+    
+    public void setOccupation(String occupation) {
+        changes.put("occupation", occupation);
+    }
+    
+    public void setNationality(String nationality) {
+        changes.put("nationality", nationality);
+    }
+    
+    /**
+     * Accepts both {@code isPublic} and {@code public}, the name person responses use.
+     */
+    @JsonProperty("isPublic")
+    @JsonAlias("public")
+    public void setPublic(boolean isPublic) {
+        changes.put("isPublic", isPublic);
+    }
+    
+    public void setVisibility(String visibility) {
+        changes.put("visibility", visibility);
+    }
+    
+    @JsonAnySetter
+    void setUnknown(String name, Object value) {
+        unknownFields.add(name);
+    }
+}
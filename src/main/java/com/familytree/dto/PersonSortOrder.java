@@ -0,0 +1,19 @@
+package com.familytree.dto;
+
+import java.util.Locale;
+
+/**
+ * Orderings supported by keyset pagination of persons.
+ */
+public enum PersonSortOrder {
+    ID,
+    NAME;
+    
+    public static PersonSortOrder from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort order: " + value);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.familytree.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Shallow person shape for list and search responses: names, dates and neighbour ids only.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonSummaryDTO {
+    private Long id;
+    private String firstName;
+    private String middleName;
+    private String lastName;
+    private String maidenName;
+    private LocalDate birthDate;
+    private LocalDate deathDate;
+    private Set<Long> childrenIds;
+    private Set<Long> parentIds;
+    private Set<Long> spouseIds;
+    
+    /**
+     * Generations below the root (1 children); only set in descendant streams.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer generation;
+}
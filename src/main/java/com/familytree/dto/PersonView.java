@@ -0,0 +1,21 @@
+package com.familytree.dto;
+
+import java.util.Locale;
+
+/**
+ * Response shape requested by callers of person list endpoints.
+ */
+public enum PersonView {
+    /** {@link PersonSummaryDTO} rows projected in Cypher. */
+    SUMMARY,
+    /** Full {@code Person} entities. */
+    FULL;
+    
+    public static PersonView from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported view: " + value);
+        }
+    }
+}
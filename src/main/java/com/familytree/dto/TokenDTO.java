@@ -0,0 +1,23 @@
+package com.familytree.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Access token issued on login; send it as {@code Authorization: Bearer <accessToken>}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenDTO {
+    private String accessToken;
+    private String tokenType;
+    
+    /**
+     * Seconds until the token expires.
+     */
+    private long expiresIn;
+}
@@ -0,0 +1,20 @@
+package com.familytree.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when too many expensive traversals are already running or waiting.
+ */
+public class TraversalRejectedException extends RuntimeException {
+    
+    private final Duration retryAfter;
+    
+    public TraversalRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
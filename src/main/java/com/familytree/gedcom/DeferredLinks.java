@@ -0,0 +1,75 @@
+package com.familytree.gedcom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Relationship rows whose individuals have not been read yet, spooled to a temporary file until the
+ * end of the GEDCOM file so that memory does not grow with the number of forward references.
+ */
+final class DeferredLinks implements Closeable {
+    
+    private static final byte PARENT_CHILD = 'P';
+    private static final byte SPOUSE = 'S';
+    
+    private final Path file;
+    private final DataOutputStream out;
+    private long count;
+    
+    DeferredLinks() throws IOException {
+        this.file = Files.createTempFile("gedcom-links-", ".bin");
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+    
+    void addParentChild(Map<String, Object> row) throws IOException {
+        write(PARENT_CHILD, (String) row.get("parent"), (String) row.get("child"));
+    }
+    
+    void addSpouse(Map<String, Object> row) throws IOException {
+        write(SPOUSE, (String) row.get("person1"), (String) row.get("person2"));
+    }
+    
+    /**
+     * Read the rows back in the order they were added; no more rows can be added afterwards.
+     */
+    void replay(Consumer<Map<String, Object>> parentChildRows, Consumer<Map<String, Object>> spouseRows)
+        throws IOException {
+        out.close();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            for (long i = 0; i < count; i++) {
+                byte kind = in.readByte();
+                String first = in.readUTF();
+                String second = in.readUTF();
+                if (kind == PARENT_CHILD) {
+                    parentChildRows.accept(Map.of("parent", first, "child", second));
+                } else {
+                    spouseRows.accept(Map.of("person1", first, "person2", second));
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    private void write(byte kind, String first, String second) throws IOException {
+        out.writeByte(kind);
+        out.writeUTF(first);
+        out.writeUTF(second);
+        count++;
+    }
+}
@@ -0,0 +1,61 @@
+package com.familytree.gedcom;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Best-effort conversion of GEDCOM date values to {@link LocalDate}.
+ * Qualifiers (ABT, BEF, EST, ...) are dropped, ranges resolve to their first date and
+ * missing day or month default to 1. Values that carry no year yield null.
+ */
+final class GedcomDate {
+    
+    private static final List<String> MONTHS = List.of(
+        "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC");
+    
+    private GedcomDate() {
+    }
+    
+    static LocalDate parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String[] tokens = value.trim().toUpperCase(Locale.ROOT).split("\\s+");
+        Integer day = null;
+        Integer month = null;
+        for (String token : tokens) {
+            if (token.startsWith("(")) {
+                break;
+            }
+            int monthIndex = MONTHS.indexOf(token);
+            if (monthIndex >= 0) {
+                month = monthIndex + 1;
+                continue;
+            }
+            String digits = token.contains("/") ? token.substring(0, token.indexOf('/')) : token;
+            if (!digits.isEmpty() && digits.chars().allMatch(Character::isDigit) && digits.length() <= 4) {
+                int number = Integer.parseInt(digits);
+                if (month == null && day == null && digits.length() <= 2 && !token.contains("/")) {
+                    day = number;
+                } else {
+                    return toDate(number, month, month != null ? day : null);
+                }
+            } else if (month != null || day != null) {
+                // Anything else (AND, TO, qualifiers) between components resets them
+                day = null;
+                month = null;
+            }
+        }
+        return null;
+    }
+    
+    private static LocalDate toDate(int year, Integer month, Integer day) {
+        try {
+            return LocalDate.of(year, month != null ? month : 1, day != null ? day : 1);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
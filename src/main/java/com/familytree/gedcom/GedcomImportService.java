@@ -0,0 +1,175 @@
+package com.familytree.gedcom;
+
+import com.familytree.cache.LineageCache;
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.dto.ImportResultDTO;
+import com.familytree.graph.FamilyGraphIndex;
+import com.familytree.repository.BatchPipeline;
+import com.familytree.repository.PersonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk GEDCOM import. The file is read as a stream and INDI / FAM records are written in
+ * UNWIND batches by a pool of workers, bypassing the per-entity service path.
+ * Relationship rows between individuals already read are batched as the file streams, each batch
+ * written once the person batches before it have completed. GEDCOM does not order INDI before FAM
+ * records, so rows referring to individuals not read yet are spooled to a temporary file and written
+ * after the last person batch; only the xrefs of the individuals read so far are kept in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GedcomImportService {
+    
+    private static final Set<String> VISIBILITIES = Set.of("PUBLIC", "FAMILY", "PRIVATE");
+    
+    private final PersonRepository personRepository;
+    private final FamilyGraphIndex graphIndex;
+    private final LineageCache lineageCache;
+    private final FamilyTreeProperties properties;
+    
+    public ImportResultDTO importGedcom(InputStream in, String visibility) {
+        if (!VISIBILITIES.contains(visibility)) {
+            throw new IllegalArgumentException("Unsupported visibility: " + visibility);
+        }
+        long started = System.nanoTime();
+        String importId = UUID.randomUUID().toString();
+        int batchSize = Math.max(1, properties.getBulkImport().getBatchSize());
+        personRepository.awaitIndexes();
+        
+        AtomicLong personsCreated = new AtomicLong();
+        AtomicLong parentsLinked = new AtomicLong();
+        AtomicLong spousesLinked = new AtomicLong();
+        long families = 0;
+        long parentRowsSeen = 0;
+        long spouseRowsSeen = 0;
+        
+        try (GedcomReader reader = new GedcomReader(in);
+             DeferredLinks deferred = new DeferredLinks();
+             BatchPipeline pipeline = new BatchPipeline(Math.max(1, properties.getBulkImport().getWorkers()), "gedcom-import")) {
+            Set<String> personKeys = new HashSet<>();
+            List<Map<String, Object>> persons = new ArrayList<>(batchSize);
+            List<Map<String, Object>> parentRows = new ArrayList<>(batchSize);
+            List<Map<String, Object>> spouseRows = new ArrayList<>(batchSize);
+            
+            GedcomRecord record;
+            while ((record = reader.next()) != null) {
+                if ("INDI".equals(record.getTag()) && record.getXref() != null) {
+                    persons.add(GedcomMapper.toPersonRow(record, visibility));
+                    personKeys.add(record.getXref());
+                    if (persons.size() >= batchSize) {
+                        submitPersons(pipeline, importId, persons, personsCreated);
+                        persons = new ArrayList<>(batchSize);
+                    }
+                } else if ("FAM".equals(record.getTag())) {
+                    families++;
+                    for (Map<String, Object> row : GedcomMapper.toParentChildRows(record)) {
+                        parentRowsSeen++;
+                        if (personKeys.contains(row.get("parent")) && personKeys.contains(row.get("child"))) {
+                            parentRows.add(row);
+                        } else {
+                            deferred.addParentChild(row);
+                        }
+                    }
+                    Map<String, Object> spouseRow = GedcomMapper.toSpouseRow(record);
+                    if (spouseRow != null) {
+                        spouseRowsSeen++;
+                        if (personKeys.contains(spouseRow.get("person1")) && personKeys.contains(spouseRow.get("person2"))) {
+                            spouseRows.add(spouseRow);
+                        } else {
+                            deferred.addSpouse(spouseRow);
+                        }
+                    }
+                    if (parentRows.size() >= batchSize || spouseRows.size() >= batchSize) {
+                        flushPersons(pipeline, importId, persons, personsCreated);
+                        persons = new ArrayList<>(batchSize);
+                        submitLinks(pipeline, importId, parentRows, spouseRows, parentsLinked, spousesLinked);
+                    }
+                }
+            }
+            
+            flushPersons(pipeline, importId, persons, personsCreated);
+            deferred.replay(row -> {
+                parentRows.add(row);
+                if (parentRows.size() >= batchSize) {
+                    submitLinks(pipeline, importId, parentRows, spouseRows, parentsLinked, spousesLinked);
+                }
+            }, row -> {
+                spouseRows.add(row);
+                if (spouseRows.size() >= batchSize) {
+                    submitLinks(pipeline, importId, parentRows, spouseRows, parentsLinked, spousesLinked);
+                }
+            });
+            submitLinks(pipeline, importId, parentRows, spouseRows, parentsLinked, spousesLinked);
+            pipeline.awaitAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        graphIndex.reloadAsync();
+        lineageCache.invalidateAll();
+        ImportResultDTO result = ImportResultDTO.builder()
+            .importId(importId)
+            .individuals(personsCreated.get())
+            .families(families)
+            .parentChildRelationships(parentsLinked.get())
+            .spouseRelationships(spousesLinked.get())
+            .unresolvedReferences(parentRowsSeen - parentsLinked.get() + spouseRowsSeen - spousesLinked.get())
+            .durationMillis((System.nanoTime() - started) / 1_000_000)
+            .build();
+        log.info("GEDCOM import {} finished: {}", importId, result);
+        return result;
+    }
+    
+    /**
+     * Write any buffered persons and wait for every person batch, so relationship batches can resolve them.
+     */
+    private void flushPersons(BatchPipeline pipeline, String importId, List<Map<String, Object>> persons,
+                              AtomicLong personsCreated) {
+        if (!persons.isEmpty()) {
+            submitPersons(pipeline, importId, persons, personsCreated);
+        }
+        if (pipeline.hasBatchesBeforeBarrier()) {
+            pipeline.awaitAll();
+        }
+    }
+    
+    private void submitPersons(BatchPipeline pipeline, String importId,
+                               List<Map<String, Object>> rows, AtomicLong personsCreated) {
+        pipeline.submitBeforeBarrier(() -> personsCreated.addAndGet(
+            BatchPipeline.withRetry(() -> personRepository.createImportedPersons(importId, rows))));
+    }
+    
+    /**
+     * Submit the buffered link rows, whose persons have all been written, and empty the buffers.
+     */
+    private void submitLinks(BatchPipeline pipeline, String importId,
+                             List<Map<String, Object>> parentRows, List<Map<String, Object>> spouseRows,
+                             AtomicLong parentsLinked, AtomicLong spousesLinked) {
+        if (!parentRows.isEmpty()) {
+            List<Map<String, Object>> rows = List.copyOf(parentRows);
+            parentRows.clear();
+            pipeline.submit(() -> parentsLinked.addAndGet(
+                BatchPipeline.withRetry(() -> personRepository.linkImportedParents(importId, rows))));
+        }
+        if (!spouseRows.isEmpty()) {
+            List<Map<String, Object>> rows = List.copyOf(spouseRows);
+            spouseRows.clear();
+            pipeline.submit(() -> spousesLinked.addAndGet(
+                BatchPipeline.withRetry(() -> personRepository.linkImportedSpouses(importId, rows))));
+        }
+    }
+}
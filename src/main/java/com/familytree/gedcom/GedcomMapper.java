@@ -0,0 +1,163 @@
+package com.familytree.gedcom;
+
+import com.familytree.service.PhoneticKeys;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maps GEDCOM INDI and FAM records to the property maps and edge rows written by the bulk import.
+ * Person rows use {@code Person} property names plus {@code importKey}, the record's xref.
+ */
+public final class GedcomMapper {
+    
+    private GedcomMapper() {
+    }
+    
+    public static Map<String, Object> toPersonRow(GedcomRecord indi, String visibility) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("importKey", indi.getXref());
+        
+        List<GedcomRecord> names = indi.children("NAME");
+        if (!names.isEmpty()) {
+            GedcomRecord primary = names.get(0);
+            String given = primary.childValue("GIVN");
+            String surname = primary.childValue("SURN");
+            String personal = primary.getValue();
+            if (personal != null) {
+                int slash = personal.indexOf('/');
+                if (given == null) {
+                    given = (slash >= 0 ? personal.substring(0, slash) : personal).trim();
+                }
+                if (surname == null && slash >= 0) {
+                    int end = personal.indexOf('/', slash + 1);
+                    surname = personal.substring(slash + 1, end > slash ? end : personal.length()).trim();
+                }
+            }
+            if (given != null && !given.isEmpty()) {
+                String[] parts = given.split("\\s+", 2);
+                row.put("firstName", parts[0]);
+                if (parts.length > 1) {
+                    row.put("middleName", parts[1]);
+                }
+            }
+            String marriedName = primary.childValue("_MARNM");
+            for (GedcomRecord alternate : names.subList(1, names.size())) {
+                if (marriedName == null && "married".equalsIgnoreCase(alternate.childValue("TYPE"))) {
+                    marriedName = surnameOf(alternate);
+                }
+            }
+            if (marriedName != null && !marriedName.isEmpty() && surname != null) {
+                row.put("maidenName", emptyToNull(surname));
+                row.put("lastName", marriedName);
+            } else {
+                row.put("lastName", emptyToNull(surname));
+            }
+        }
+        
+        row.put("gender", toGender(indi.childValue("SEX")));
+        GedcomRecord birth = indi.child("BIRT");
+        if (birth != null) {
+            row.put("birthDate", GedcomDate.parse(birth.childValue("DATE")));
+            row.put("birthPlace", birth.childValue("PLAC"));
+        }
+        GedcomRecord death = indi.child("DEAT");
+        if (death != null) {
+            row.put("deathDate", GedcomDate.parse(death.childValue("DATE")));
+            row.put("deathPlace", death.childValue("PLAC"));
+        }
+        row.put("occupation", indi.childValue("OCCU"));
+        row.put("nationality", indi.childValue("NATI"));
+        String note = indi.childValue("NOTE");
+        if (note != null && !note.startsWith("@")) {
+            row.put("biography", note);
+        }
+        GedcomRecord media = indi.child("OBJE");
+        if (media != null) {
+            row.put("profileImageUrl", media.childValue("FILE"));
+        }
+        row.put("phoneticKeys", PhoneticKeys.of((String) row.get("firstName"), (String) row.get("middleName"),
+            (String) row.get("lastName"), (String) row.get("maidenName")));
+        row.put("isPublic", "PUBLIC".equals(visibility));
+        row.put("visibility", visibility);
+        row.values().removeIf(Objects::isNull);
+        return row;
+    }
+    
+    /**
+     * PARENT_OF rows ({@code parent}, {@code child} xrefs) for every HUSB / WIFE and CHIL pair.
+     */
+    public static List<Map<String, Object>> toParentChildRows(GedcomRecord fam) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<String> parents = new ArrayList<>(2);
+        addIfPresent(parents, xref(fam.childValue("HUSB")));
+        addIfPresent(parents, xref(fam.childValue("WIFE")));
+        for (GedcomRecord child : fam.children("CHIL")) {
+            String childXref = xref(child.getValue());
+            if (childXref != null) {
+                for (String parent : parents) {
+                    rows.add(Map.of("parent", parent, "child", childXref));
+                }
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * SPOUSE_OF row ({@code person1}, {@code person2} xrefs) when the family has both partners, else null.
+     */
+    public static Map<String, Object> toSpouseRow(GedcomRecord fam) {
+        String husband = xref(fam.childValue("HUSB"));
+        String wife = xref(fam.childValue("WIFE"));
+        if (husband == null || wife == null) {
+            return null;
+        }
+        return Map.of("person1", husband, "person2", wife);
+    }
+    
+    private static String surnameOf(GedcomRecord name) {
+        String surname = name.childValue("SURN");
+        if (surname == null && name.getValue() != null) {
+            String[] parts = name.getValue().split("/");
+            surname = parts.length > 1 ? parts[1].trim() : null;
+        }
+        return surname;
+    }
+    
+    private static String toGender(String sex) {
+        if (sex == null) {
+            return "UNKNOWN";
+        }
+        switch (sex.trim().toUpperCase(Locale.ROOT)) {
+            case "M":
+                return "MALE";
+            case "F":
+                return "FEMALE";
+            case "X":
+                return "OTHER";
+            default:
+                return "UNKNOWN";
+        }
+    }
+    
+    private static void addIfPresent(List<String> list, String value) {
+        if (value != null) {
+            list.add(value);
+        }
+    }
+    
+    /**
+     * Pointer value without surrounding whitespace, so it matches the INDI record's xref; null when blank.
+     */
+    private static String xref(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+    
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
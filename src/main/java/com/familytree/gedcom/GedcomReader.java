@@ -0,0 +1,96 @@
+package com.familytree.gedcom;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming GEDCOM 5.5.1 reader. Only the current level-0 record is held in memory,
+ * so files of any size can be read. CONC / CONT continuation lines are folded into
+ * the value of the structure they continue.
+ */
+public class GedcomReader implements Closeable {
+    
+    private static final Pattern LINE = Pattern.compile("^\\s*(\\d{1,2})\\s+(?:(@[^@]+@)\\s+)?(\\S+)(?: (.*))?$");
+    
+    private final BufferedReader reader;
+    private GedcomRecord pending;
+    private long lineNumber;
+    
+    public GedcomReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+    
+    /**
+     * Next level-0 record, or null at end of input (or at the TRLR trailer).
+     */
+    public GedcomRecord next() {
+        try {
+            GedcomRecord record = pending != null ? pending : readStructure();
+            pending = null;
+            while (record != null && record.getLevel() != 0) {
+                record = readStructure();
+            }
+            if (record == null || "TRLR".equals(record.getTag())) {
+                return null;
+            }
+            
+            Deque<GedcomRecord> stack = new ArrayDeque<>();
+            stack.push(record);
+            GedcomRecord line;
+            while ((line = readStructure()) != null) {
+                if (line.getLevel() == 0) {
+                    pending = line;
+                    break;
+                }
+                while (stack.size() > 1 && stack.peek().getLevel() >= line.getLevel()) {
+                    stack.pop();
+                }
+                GedcomRecord parent = stack.peek();
+                if ("CONC".equals(line.getTag())) {
+                    parent.appendValue(line.getValue(), false);
+                } else if ("CONT".equals(line.getTag())) {
+                    parent.appendValue(line.getValue(), true);
+                } else {
+                    parent.getChildren().add(line);
+                    stack.push(line);
+                }
+            }
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private GedcomRecord readStructure() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            Matcher matcher = LINE.matcher(line);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Malformed GEDCOM line " + lineNumber + ": " + line);
+            }
+            return new GedcomRecord(Integer.parseInt(matcher.group(1)), matcher.group(2), matcher.group(3), matcher.group(4));
+        }
+        return null;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.familytree.gedcom;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One GEDCOM structure: a tag with optional cross-reference id and value, plus its sub-structures.
+ * Level-0 records (INDI, FAM, ...) are the unit the reader hands out.
+ */
+@Getter
+public class GedcomRecord {
+    
+    private final int level;
+    private final String xref;
+    private final String tag;
+    private String value;
+    private final List<GedcomRecord> children = new ArrayList<>();
+    
+    public GedcomRecord(int level, String xref, String tag, String value) {
+        this.level = level;
+        this.xref = xref;
+        this.tag = tag;
+        this.value = value;
+    }
+    
+    /**
+     * First direct sub-structure with the given tag, or null.
+     */
+    public GedcomRecord child(String childTag) {
+        for (GedcomRecord child : children) {
+            if (child.tag.equals(childTag)) {
+                return child;
+            }
+        }
+        return null;
+    }
+    
+    public List<GedcomRecord> children(String childTag) {
+        List<GedcomRecord> result = new ArrayList<>();
+        for (GedcomRecord child : children) {
+            if (child.tag.equals(childTag)) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Value of the first sub-structure with the given tag, or null.
+     */
+    public String childValue(String childTag) {
+        GedcomRecord child = child(childTag);
+        return child != null ? child.value : null;
+    }
+    
+    void appendValue(String text, boolean newLine) {
+        String current = value != null ? value : "";
+        value = current + (newLine ? "\n" : "") + (text != null ? text : "");
+    }
+}
@@ -0,0 +1,144 @@
+package com.familytree.generator;
+
+import com.familytree.cache.LineageCache;
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.graph.FamilyGraphIndex;
+import com.familytree.repository.BatchPipeline;
+import com.familytree.repository.PersonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes a {@link TreeGenerator} tree at startup when the {@code generator} profile is active,
+ * through the same batched UNWIND path as the GEDCOM import ({@code familytree.bulk-import.*}).
+ * Each run is a new import batch, so running twice adds a second tree.
+ */
+@Component
+@Profile("generator")
+@RequiredArgsConstructor
+@Slf4j
+public class GeneratorRunner implements CommandLineRunner {
+    
+    private final PersonRepository personRepository;
+    private final FamilyGraphIndex graphIndex;
+    private final LineageCache lineageCache;
+    private final FamilyTreeProperties properties;
+    
+    @Override
+    public void run(String... args) {
+        long started = System.nanoTime();
+        String importId = UUID.randomUUID().toString();
+        int batchSize = Math.max(1, properties.getBulkImport().getBatchSize());
+        personRepository.awaitIndexes();
+        log.info("Generating synthetic tree {} with {}", importId, properties.getGenerator());
+        
+        AtomicLong personsCreated = new AtomicLong();
+        AtomicLong parentsLinked = new AtomicLong();
+        AtomicLong spousesLinked = new AtomicLong();
+        try (BatchPipeline pipeline = new BatchPipeline(Math.max(1, properties.getBulkImport().getWorkers()),
+                "tree-generator")) {
+            BatchingSink sink = new BatchingSink(pipeline, importId, batchSize,
+                personsCreated, parentsLinked, spousesLinked);
+            new TreeGenerator(properties.getGenerator()).generate(sink);
+            sink.flush();
+            pipeline.awaitAll();
+        }
+        
+        graphIndex.reloadAsync();
+        lineageCache.invalidateAll();
+        log.info("Synthetic tree {} written: {} persons, {} parent-child and {} spouse links in {} ms",
+            importId, personsCreated.get(), parentsLinked.get(), spousesLinked.get(),
+            (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    /**
+     * Buffers rows into batches. Before links are written, all buffered and in-flight person batches
+     * complete, so every link finds both of its persons.
+     */
+    private final class BatchingSink implements TreeGenerator.Sink {
+        
+        private final BatchPipeline pipeline;
+        private final String importId;
+        private final int batchSize;
+        private final AtomicLong personsCreated;
+        private final AtomicLong parentsLinked;
+        private final AtomicLong spousesLinked;
+        private List<Map<String, Object>> persons;
+        private List<Map<String, Object>> parentRows;
+        private List<Map<String, Object>> spouseRows;
+        
+        BatchingSink(BatchPipeline pipeline, String importId, int batchSize,
+                     AtomicLong personsCreated, AtomicLong parentsLinked, AtomicLong spousesLinked) {
+            this.pipeline = pipeline;
+            this.importId = importId;
+            this.batchSize = batchSize;
+            this.personsCreated = personsCreated;
+            this.parentsLinked = parentsLinked;
+            this.spousesLinked = spousesLinked;
+            this.persons = new ArrayList<>(batchSize);
+            this.parentRows = new ArrayList<>(batchSize);
+            this.spouseRows = new ArrayList<>(batchSize);
+        }
+        
+        @Override
+        public void person(Map<String, Object> row) {
+            persons.add(row);
+            if (persons.size() >= batchSize) {
+                submitPersons();
+            }
+        }
+        
+        @Override
+        public void parentChild(String parentKey, String childKey) {
+            parentRows.add(Map.of("parent", parentKey, "child", childKey));
+            if (parentRows.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        @Override
+        public void spouses(String person1Key, String person2Key) {
+            spouseRows.add(Map.of("person1", person1Key, "person2", person2Key));
+            if (spouseRows.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        void flush() {
+            if (!persons.isEmpty()) {
+                submitPersons();
+            }
+            if (pipeline.hasBatchesBeforeBarrier()) {
+                pipeline.awaitAll();
+            }
+            if (!parentRows.isEmpty()) {
+                List<Map<String, Object>> rows = parentRows;
+                pipeline.submit(() -> parentsLinked.addAndGet(
+                    BatchPipeline.withRetry(() -> personRepository.linkImportedParents(importId, rows))));
+                parentRows = new ArrayList<>(batchSize);
+            }
+            if (!spouseRows.isEmpty()) {
+                List<Map<String, Object>> rows = spouseRows;
+                pipeline.submit(() -> spousesLinked.addAndGet(
+                    BatchPipeline.withRetry(() -> personRepository.linkImportedSpouses(importId, rows))));
+                spouseRows = new ArrayList<>(batchSize);
+            }
+        }
+        
+        private void submitPersons() {
+            List<Map<String, Object>> rows = persons;
+            pipeline.submitBeforeBarrier(() -> personsCreated.addAndGet(
+                BatchPipeline.withRetry(() -> personRepository.createImportedPersons(importId, rows))));
+            persons = new ArrayList<>(batchSize);
+        }
+    }
+}
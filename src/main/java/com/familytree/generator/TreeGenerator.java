@@ -0,0 +1,275 @@
+package com.familytree.generator;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.service.PhoneticKeys;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic family tree for load tests. Founder couples have children drawn from the
+ * fertility distribution; children marry at the spouse rate, mostly someone from outside the tree
+ * and occasionally a cousin (pedigree collapse), and the married couples form the next generation.
+ * Names and places are drawn from Zipf-weighted pools. All randomness comes from one seeded
+ * {@link Random} consumed in a fixed order, so a seed always yields the same persons and links.
+ * Only the generation being built is held in memory.
+ */
+public final class TreeGenerator {
+    
+    /** Death dates are only set up to this year, so output does not depend on when it runs. */
+    static final int PRESENT_YEAR = 2024;
+    
+    private static final List<String> MALE_NAMES = List.of(
+        "John", "William", "James", "George", "Charles", "Thomas", "Joseph", "Henry", "Robert", "Edward",
+        "Samuel", "David", "Richard", "Peter", "Daniel", "Walter", "Arthur", "Frank", "Albert", "Harry");
+    private static final List<String> FEMALE_NAMES = List.of(
+        "Mary", "Elizabeth", "Sarah", "Margaret", "Anna", "Catherine", "Jane", "Emma", "Alice", "Ellen",
+        "Martha", "Hannah", "Ann", "Susan", "Rose", "Clara", "Grace", "Ruth", "Edith", "Louisa");
+    private static final List<String> LAST_NAMES = List.of(
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Miller", "Davis", "Wilson", "Anderson", "Taylor",
+        "Thomas", "Moore", "Martin", "Jackson", "Thompson", "White", "Harris", "Clark", "Lewis", "Walker",
+        "Hall", "Allen", "Young", "King", "Wright", "Scott", "Green", "Baker", "Adams", "Nelson");
+    private static final List<String> PLACES = List.of(
+        "London, England", "Manchester, England", "Dublin, Ireland", "Edinburgh, Scotland",
+        "Boston, Massachusetts", "New York, New York", "Philadelphia, Pennsylvania", "Bristol, England",
+        "Cork, Ireland", "Glasgow, Scotland", "Liverpool, England", "Baltimore, Maryland",
+        "Cardiff, Wales", "Chicago, Illinois", "Toronto, Ontario");
+    
+    /**
+     * Receives the tree as it is generated: every person before any link that references them.
+     */
+    public interface Sink {
+        
+        void person(Map<String, Object> row);
+        
+        void parentChild(String parentKey, String childKey);
+        
+        void spouses(String person1Key, String person2Key);
+    }
+    
+    private final FamilyTreeProperties.Generator settings;
+    private final Random random;
+    private final double[] fertility;
+    private final Pool maleNames;
+    private final Pool femaleNames;
+    private final Pool lastNames;
+    private final Pool places;
+    private long nextKey;
+    
+    public TreeGenerator(FamilyTreeProperties.Generator settings) {
+        this.settings = settings;
+        this.random = new Random(settings.getSeed());
+        this.fertility = cumulative(settings.getFertility());
+        this.maleNames = new Pool(orDefault(settings.getMaleNames(), MALE_NAMES), settings.getNameSkew());
+        this.femaleNames = new Pool(orDefault(settings.getFemaleNames(), FEMALE_NAMES), settings.getNameSkew());
+        this.lastNames = new Pool(orDefault(settings.getLastNames(), LAST_NAMES), settings.getNameSkew());
+        this.places = new Pool(orDefault(settings.getPlaces(), PLACES), settings.getNameSkew());
+    }
+    
+    /**
+     * Generate the whole tree into {@code sink}; returns the number of persons.
+     */
+    public long generate(Sink sink) {
+        List<Member[]> couples = new ArrayList<>(settings.getFounders());
+        for (int i = 0; i < settings.getFounders() && nextKey < settings.getMaxPersons(); i++) {
+            Member husband = outsider(true, settings.getStartYear() - 10 + random.nextInt(21), places.pick(random));
+            Member wife = outsider(false, husband.birthYear - 5 + random.nextInt(11), husband.place);
+            marry(husband, wife);
+            emit(sink, husband);
+            emit(sink, wife);
+            sink.spouses(husband.importKey(), wife.importKey());
+            couples.add(new Member[] {husband, wife});
+        }
+        for (int generation = 1; generation <= settings.getGenerations() && !couples.isEmpty(); generation++) {
+            couples = nextGeneration(couples, sink);
+        }
+        return nextKey;
+    }
+    
+    private List<Member[]> nextGeneration(List<Member[]> couples, Sink sink) {
+        List<Member> children = new ArrayList<>();
+        for (int family = 0; family < couples.size(); family++) {
+            Member father = couples.get(family)[0];
+            Member mother = couples.get(family)[1];
+            int count = sampleChildren();
+            for (int i = 0; i < count && nextKey < settings.getMaxPersons(); i++) {
+                boolean male = random.nextBoolean();
+                Member child = new Member(nextKey++, male, mother.birthYear + 18 + random.nextInt(25),
+                    (male ? maleNames : femaleNames).pick(random), father.lastName,
+                    random.nextDouble() < 0.8 ? father.place : places.pick(random));
+                child.family = family;
+                child.fatherKey = father.importKey();
+                child.motherKey = mother.importKey();
+                children.add(child);
+            }
+        }
+        
+        List<Member> unmarriedMen = new ArrayList<>();
+        List<Member> unmarriedWomen = new ArrayList<>();
+        for (Member child : children) {
+            (child.male ? unmarriedMen : unmarriedWomen).add(child);
+        }
+        List<Member[]> next = new ArrayList<>();
+        List<Member> marriedIn = new ArrayList<>();
+        for (Member child : children) {
+            if (child.spouse != null || random.nextDouble() >= settings.getSpouseRate()) {
+                continue;
+            }
+            Member spouse = null;
+            if (random.nextDouble() < settings.getPedigreeCollapseRate()) {
+                List<Member> candidates = child.male ? unmarriedWomen : unmarriedMen;
+                Member candidate = candidates.isEmpty() ? null : candidates.get(random.nextInt(candidates.size()));
+                if (candidate != null && candidate.spouse == null && candidate.family != child.family) {
+                    spouse = candidate;
+                }
+            }
+            if (spouse == null) {
+                if (nextKey >= settings.getMaxPersons()) {
+                    continue;
+                }
+                spouse = outsider(!child.male, child.birthYear - 5 + random.nextInt(11), child.place);
+                marriedIn.add(spouse);
+            }
+            Member husband = child.male ? child : spouse;
+            Member wife = child.male ? spouse : child;
+            marry(husband, wife);
+            next.add(new Member[] {husband, wife});
+        }
+        
+        for (Member child : children) {
+            emit(sink, child);
+        }
+        for (Member spouse : marriedIn) {
+            emit(sink, spouse);
+        }
+        for (Member child : children) {
+            sink.parentChild(child.fatherKey, child.importKey());
+            sink.parentChild(child.motherKey, child.importKey());
+        }
+        for (Member[] couple : next) {
+            sink.spouses(couple[0].importKey(), couple[1].importKey());
+        }
+        return next;
+    }
+    
+    private Member outsider(boolean male, int birthYear, int place) {
+        return new Member(nextKey++, male, birthYear, (male ? maleNames : femaleNames).pick(random),
+            lastNames.pick(random), place);
+    }
+    
+    private static void marry(Member husband, Member wife) {
+        husband.spouse = wife;
+        wife.spouse = husband;
+        wife.maidenName = wife.lastName;
+        wife.lastName = husband.lastName;
+    }
+    
+    private void emit(Sink sink, Member member) {
+        Map<String, Object> row = new HashMap<>();
+        String firstName = (member.male ? maleNames : femaleNames).name(member.firstName);
+        String lastName = lastNames.name(member.lastName);
+        String maidenName = member.maidenName >= 0 ? lastNames.name(member.maidenName) : null;
+        row.put("importKey", member.importKey());
+        row.put("firstName", firstName);
+        row.put("lastName", lastName);
+        if (maidenName != null) {
+            row.put("maidenName", maidenName);
+        }
+        row.put("gender", member.male ? "MALE" : "FEMALE");
+        row.put("birthDate", LocalDate.of(member.birthYear, 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        row.put("birthPlace", places.name(member.place));
+        int deathYear = member.birthYear + 30 + random.nextInt(66);
+        if (deathYear <= PRESENT_YEAR) {
+            row.put("deathDate", LocalDate.of(deathYear, 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            row.put("deathPlace", places.name(random.nextDouble() < 0.8 ? member.place : places.pick(random)));
+        }
+        row.put("phoneticKeys", PhoneticKeys.of(firstName, null, lastName, maidenName));
+        row.put("isPublic", true);
+        row.put("visibility", "PUBLIC");
+        sink.person(row);
+    }
+    
+    private int sampleChildren() {
+        int children = Arrays.binarySearch(fertility, random.nextDouble() * fertility[fertility.length - 1]);
+        return children >= 0 ? children + 1 : -children - 1;
+    }
+    
+    private static double[] cumulative(List<Double> weights) {
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Fertility distribution must not be empty");
+        }
+        double[] cumulative = new double[weights.size()];
+        double sum = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            sum += weights.get(i);
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+    
+    private static List<String> orDefault(List<String> configured, List<String> fallback) {
+        return configured == null || configured.isEmpty() ? fallback : configured;
+    }
+    
+    /**
+     * Values picked with Zipf weights: the value at rank r is chosen in proportion to 1 / r^skew.
+     */
+    private static final class Pool {
+        
+        private final List<String> values;
+        private final double[] cumulative;
+        
+        Pool(List<String> values, double skew) {
+            this.values = values;
+            this.cumulative = new double[values.size()];
+            double sum = 0;
+            for (int i = 0; i < values.size(); i++) {
+                sum += 1 / Math.pow(i + 1, skew);
+                cumulative[i] = sum;
+            }
+        }
+        
+        int pick(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+        }
+        
+        String name(int index) {
+            return values.get(index);
+        }
+    }
+    
+    private static final class Member {
+        
+        final long key;
+        final boolean male;
+        final int birthYear;
+        final int firstName;
+        final int place;
+        int lastName;
+        int maidenName = -1;
+        int family = -1;
+        // Keys rather than references, so earlier generations can be collected
+        String fatherKey;
+        String motherKey;
+        Member spouse;
+        
+        Member(long key, boolean male, int birthYear, int firstName, int lastName, int place) {
+            this.key = key;
+            this.male = male;
+            this.birthYear = birthYear;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.place = place;
+        }
+        
+        String importKey() {
+            return "G" + key;
+        }
+    }
+}
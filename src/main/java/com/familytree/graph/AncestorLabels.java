@@ -0,0 +1,110 @@
+package com.familytree.graph;
+
+import java.util.Arrays;
+
+/**
+ * Per-person ancestor labels for bulk common-ancestor queries: each label lists the
+ * person and their ancestors up to {@link #MAX_DEPTH} generations, sorted by slot, with the minimum
+ * generation distance of each. Two labels are intersected with one merge, so a query costs the size
+ * of two labels instead of a graph walk. Binary lifting and Euler tours assume a tree; a person
+ * here has two parents and ancestors repeat, so the labels hold the bounded ancestor closure instead.
+ * <p>
+ * Labels are built on first use and dropped again when an edge change reaches them. Readers may
+ * build labels concurrently under {@link FamilyGraphIndex}'s read lock: labels are immutable and
+ * two threads building the same label store equal copies.
+ */
+final class AncestorLabels {
+    
+    static final int MAX_DEPTH = 10;
+    
+    private Label[] labels;
+    
+    AncestorLabels(int capacity) {
+        this.labels = new Label[Math.max(16, capacity)];
+    }
+    
+    void ensureCapacity(int slotCount) {
+        if (slotCount > labels.length) {
+            labels = Arrays.copyOf(labels, Math.max(slotCount, labels.length + (labels.length >> 1)));
+        }
+    }
+    
+    Label get(int slot, CsrAdjacency parents) {
+        Label label = labels[slot];
+        if (label == null) {
+            label = build(slot, parents);
+            labels[slot] = label;
+        }
+        return label;
+    }
+    
+    /**
+     * Drop the labels of {@code slot} and its descendants down to {@code depth} generations below.
+     * A changed edge above {@code slot} reaches labels {@code MAX_DEPTH - 1} generations down; a
+     * removed person is itself in the labels of descendants {@code MAX_DEPTH} generations down.
+     */
+    void invalidateFrom(int slot, int depth, CsrAdjacency children) {
+        labels[slot] = null;
+        IntHashSet seen = new IntHashSet(16);
+        seen.add(slot);
+        int[] level = {slot};
+        for (int generation = 1; generation <= depth && level.length > 0; generation++) {
+            IntHashSet next = new IntHashSet(level.length * 2);
+            for (int parent : level) {
+                children.forEach(parent, child -> {
+                    if (seen.add(child)) {
+                        labels[child] = null;
+                        next.add(child);
+                    }
+                });
+            }
+            level = next.toArray();
+        }
+    }
+    
+    private static Label build(int slot, CsrAdjacency parents) {
+        IntHashSet seen = new IntHashSet(32);
+        seen.add(slot);
+        // (slot << 32 | depth) so sorting orders by slot
+        long[] entries = new long[16];
+        entries[0] = (long) slot << 32;
+        int size = 1;
+        int levelStart = 0;
+        for (int depth = 1; depth <= MAX_DEPTH && levelStart < size; depth++) {
+            int levelEnd = size;
+            for (int i = levelStart; i < levelEnd; i++) {
+                for (int parent : parents.neighbours((int) (entries[i] >>> 32))) {
+                    if (seen.add(parent)) {
+                        if (size == entries.length) {
+                            entries = Arrays.copyOf(entries, size * 2);
+                        }
+                        entries[size++] = (long) parent << 32 | depth;
+                    }
+                }
+            }
+            levelStart = levelEnd;
+        }
+        Arrays.sort(entries, 0, size);
+        int[] slots = new int[size];
+        byte[] depths = new byte[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = (int) (entries[i] >>> 32);
+            depths[i] = (byte) entries[i];
+        }
+        return new Label(slots, depths);
+    }
+    
+    /**
+     * Ancestor slots in ascending order and the generation distance to each (0 for the person).
+     */
+    static final class Label {
+        
+        final int[] slots;
+        final byte[] depths;
+        
+        Label(int[] slots, byte[] depths) {
+            this.slots = slots;
+            this.depths = depths;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.familytree.graph;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * Bidirectional breadth-first search up the PARENT_OF graph for the lowest common ancestors of
+ * two persons. Each step expands the smaller of the two frontiers by one generation, and the search
+ * stops as soon as no unseen ancestor could give a shorter connection, or both sides reach
+ * {@code maxDepth}. Work is bounded by the ancestors within {@code maxDepth} of each person.
+ */
+public final class CommonAncestorSearch {
+    
+    private CommonAncestorSearch() {
+    }
+    
+    /**
+     * @param parentsOf parent ids of a person; must not return null
+     * @return the closest connection, or null when the two share no ancestor within {@code maxDepth}
+     */
+    public static Result find(long person1Id, long person2Id, int maxDepth, LongFunction<long[]> parentsOf) {
+        Side first = new Side(person1Id);
+        Side second = new Side(person2Id);
+        int best = person1Id == person2Id ? 0 : Integer.MAX_VALUE;
+        
+        while (true) {
+            boolean firstOpen = first.canExpand(maxDepth);
+            boolean secondOpen = second.canExpand(maxDepth);
+            if (!firstOpen && !secondOpen) {
+                break;
+            }
+            // A connection not seen yet lies beyond the current level of at least one open side
+            int bound = Math.min(firstOpen ? first.level + 1 : Integer.MAX_VALUE,
+                secondOpen ? second.level + 1 : Integer.MAX_VALUE);
+            if (best <= bound) {
+                break;
+            }
+            boolean expandFirst = firstOpen && (!secondOpen || first.frontierSize <= second.frontierSize);
+            Side side = expandFirst ? first : second;
+            best = Math.min(best, side.expand(parentsOf, expandFirst ? second : first));
+        }
+        return best == Integer.MAX_VALUE ? null : first.closestMeeting(second);
+    }
+    
+    /**
+     * The lowest common ancestors of two persons and one connecting path through the first of them.
+     */
+    public static final class Result {
+        
+        private final int generationsUp;
+        private final int generationsDown;
+        private final long[] commonAncestorIds;
+        private final long[] path;
+        
+        Result(int generationsUp, int generationsDown, long[] commonAncestorIds, long[] path) {
+            this.generationsUp = generationsUp;
+            this.generationsDown = generationsDown;
+            this.commonAncestorIds = commonAncestorIds;
+            this.path = path;
+        }
+        
+        /** Generations from the first person up to the common ancestors. */
+        public int generationsUp() {
+            return generationsUp;
+        }
+        
+        /** Generations from the common ancestors down to the second person. */
+        public int generationsDown() {
+            return generationsDown;
+        }
+        
+        public long[] commonAncestorIds() {
+            return commonAncestorIds;
+        }
+        
+        /**
+         * Person ids from the first person up to a common ancestor and down to the second person;
+         * empty when only the common ancestors were looked up.
+         */
+        public long[] path() {
+            return path;
+        }
+    }
+    
+    /**
+     * Ancestors reached from one person so far, each with its depth and the child it was reached from.
+     */
+    private static final class Side {
+        
+        private final LongIntHashMap indexById = new LongIntHashMap(64);
+        private long[] ids = new long[16];
+        private int[] depths = new int[16];
+        private int[] reachedFrom = new int[16];
+        private int size;
+        private int frontierStart;
+        private int frontierSize;
+        private int level;
+        
+        Side(long personId) {
+            add(personId, 0, -1);
+            frontierSize = 1;
+        }
+        
+        boolean canExpand(int maxDepth) {
+            return frontierSize > 0 && level < maxDepth;
+        }
+        
+        /**
+         * Visit the parents of the current frontier; returns the shortest connection to {@code other} found.
+         */
+        int expand(LongFunction<long[]> parentsOf, Side other) {
+            int best = Integer.MAX_VALUE;
+            int frontierEnd = frontierStart + frontierSize;
+            int nextStart = size;
+            for (int i = frontierStart; i < frontierEnd; i++) {
+                for (long parentId : parentsOf.apply(ids[i])) {
+                    if (indexById.get(parentId, -1) >= 0) {
+                        continue;
+                    }
+                    add(parentId, level + 1, i);
+                    int otherIndex = other.indexById.get(parentId, -1);
+                    if (otherIndex >= 0) {
+                        best = Math.min(best, level + 1 + other.depths[otherIndex]);
+                    }
+                }
+            }
+            frontierStart = nextStart;
+            frontierSize = size - nextStart;
+            level++;
+            return best;
+        }
+        
+        /**
+         * The meetings with the smallest total distance, preferring the fewest generations up from this side.
+         */
+        Result closestMeeting(Side other) {
+            int bestUp = -1;
+            int bestDown = -1;
+            long[] common = new long[4];
+            int commonCount = 0;
+            int pathVia = -1;
+            for (int i = 0; i < size; i++) {
+                int otherIndex = other.indexById.get(ids[i], -1);
+                if (otherIndex < 0) {
+                    continue;
+                }
+                int up = depths[i];
+                int down = other.depths[otherIndex];
+                boolean closer = bestUp < 0 || up + down < bestUp + bestDown
+                    || (up + down == bestUp + bestDown && up < bestUp);
+                if (closer) {
+                    bestUp = up;
+                    bestDown = down;
+                    commonCount = 0;
+                    pathVia = i;
+                }
+                if (up == bestUp && down == bestDown) {
+                    if (commonCount == common.length) {
+                        common = Arrays.copyOf(common, commonCount * 2);
+                    }
+                    common[commonCount++] = ids[i];
+                }
+            }
+            long[] commonIds = Arrays.copyOf(common, commonCount);
+            Arrays.sort(commonIds);
+            return new Result(bestUp, bestDown, commonIds, path(pathVia, other));
+        }
+        
+        private long[] path(int meeting, Side other) {
+            long[] path = new long[depths[meeting] + 1 + other.depths[other.indexById.get(ids[meeting], -1)]];
+            int n = 0;
+            for (int i = meeting; i >= 0; i = reachedFrom[i]) {
+                path[n++] = ids[i];
+            }
+            for (int left = 0, right = n - 1; left < right; left++, right--) {
+                long swap = path[left];
+                path[left] = path[right];
+                path[right] = swap;
+            }
+            for (int i = other.reachedFrom[other.indexById.get(ids[meeting], -1)]; i >= 0; i = other.reachedFrom[i]) {
+                path[n++] = other.ids[i];
+            }
+            return path;
+        }
+        
+        private void add(long id, int depth, int from) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                depths = Arrays.copyOf(depths, size * 2);
+                reachedFrom = Arrays.copyOf(reachedFrom, size * 2);
+            }
+            ids[size] = id;
+            depths[size] = depth;
+            reachedFrom[size] = from;
+            indexById.put(id, size);
+            size++;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.familytree.graph;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Primitive adjacency lists for one relationship direction.
+ * Edges known at build time live in compressed sparse row (CSR) arrays; edges added
+ * later go to small per-slot overflow arrays until the next compaction folds them in.
+ */
+final class CsrAdjacency {
+    
+    private static final int REMOVED = -1;
+    private static final int[] NO_EDGES = new int[0];
+    
+    private int[] offsets;
+    private int[] targets;
+    private int csrSlots;
+    private int[][] overflow;
+    private int[] overflowSizes;
+    private int liveEdges;
+    private int staleEdges;
+    
+    private CsrAdjacency(int[] offsets, int[] targets, int csrSlots, int capacity) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.csrSlots = csrSlots;
+        this.overflow = new int[Math.max(capacity, 1)][];
+        this.overflowSizes = new int[Math.max(capacity, 1)];
+        this.liveEdges = targets.length;
+    }
+    
+    /**
+     * Build CSR arrays from parallel edge arrays with a counting sort on the source slot.
+     */
+    static CsrAdjacency build(int slotCount, int[] from, int[] to, int edgeCount) {
+        int[] offsets = new int[slotCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[from[i] + 1]++;
+        }
+        for (int i = 0; i < slotCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] cursor = Arrays.copyOf(offsets, slotCount);
+        int[] targets = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            targets[cursor[from[i]]++] = to[i];
+        }
+        return new CsrAdjacency(offsets, targets, slotCount, slotCount);
+    }
+    
+    void ensureCapacity(int slots) {
+        if (slots > overflow.length) {
+            int capacity = Math.max(slots, overflow.length + (overflow.length >> 1));
+            overflow = Arrays.copyOf(overflow, capacity);
+            overflowSizes = Arrays.copyOf(overflowSizes, capacity);
+        }
+    }
+    
+    int edgeCount() {
+        return liveEdges;
+    }
+    
+    /**
+     * Number of the first {@code slots} slots with at least one live edge.
+     */
+    int sourceCount(int slots) {
+        int count = 0;
+        for (int from = 0; from < slots; from++) {
+            if (overflowSizes[from] > 0 || hasCsrEdge(from)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private boolean hasCsrEdge(int from) {
+        if (from < csrSlots) {
+            for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+                if (targets[i] != REMOVED) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    boolean contains(int from, int to) {
+        if (from < csrSlots) {
+            for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+                if (targets[i] == to) {
+                    return true;
+                }
+            }
+        }
+        int[] extra = overflow[from];
+        for (int i = 0; i < overflowSizes[from]; i++) {
+            if (extra[i] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    boolean add(int from, int to) {
+        if (contains(from, to)) {
+            return false;
+        }
+        int[] extra = overflow[from];
+        int n = overflowSizes[from];
+        if (extra == null) {
+            extra = new int[2];
+        } else if (n == extra.length) {
+            extra = Arrays.copyOf(extra, n * 2);
+        }
+        extra[n] = to;
+        overflow[from] = extra;
+        overflowSizes[from] = n + 1;
+        liveEdges++;
+        staleEdges++;
+        return true;
+    }
+    
+    boolean remove(int from, int to) {
+        if (from < csrSlots) {
+            for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+                if (targets[i] == to) {
+                    targets[i] = REMOVED;
+                    liveEdges--;
+                    staleEdges++;
+                    return true;
+                }
+            }
+        }
+        int[] extra = overflow[from];
+        int n = overflowSizes[from];
+        for (int i = 0; i < n; i++) {
+            if (extra[i] == to) {
+                extra[i] = extra[n - 1];
+                overflowSizes[from] = n - 1;
+                liveEdges--;
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    void forEach(int from, IntConsumer action) {
+        if (from < csrSlots) {
+            for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+                int target = targets[i];
+                if (target != REMOVED) {
+                    action.accept(target);
+                }
+            }
+        }
+        int[] extra = overflow[from];
+        for (int i = 0; i < overflowSizes[from]; i++) {
+            action.accept(extra[i]);
+        }
+    }
+    
+    int[] neighbours(int from) {
+        int count = 0;
+        if (from < csrSlots) {
+            for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+                if (targets[i] != REMOVED) {
+                    count++;
+                }
+            }
+        }
+        count += overflowSizes[from];
+        if (count == 0) {
+            return NO_EDGES;
+        }
+        int[] result = new int[count];
+        int n = 0;
+        if (from < csrSlots) {
+            for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+                if (targets[i] != REMOVED) {
+                    result[n++] = targets[i];
+                }
+            }
+        }
+        if (overflowSizes[from] > 0) {
+            System.arraycopy(overflow[from], 0, result, n, overflowSizes[from]);
+        }
+        return result;
+    }
+    
+    /**
+     * Whether enough edges live outside the CSR arrays that a rebuild pays off.
+     */
+    boolean needsCompaction() {
+        return staleEdges > Math.max(1024, liveEdges >> 3);
+    }
+    
+    /**
+     * Fold overflow edges into fresh CSR arrays and drop removed entries.
+     */
+    void compact(int slotCount) {
+        int[] newOffsets = new int[slotCount + 1];
+        for (int slot = 0; slot < slotCount; slot++) {
+            newOffsets[slot + 1] = newOffsets[slot] + neighbourCount(slot);
+        }
+        int[] newTargets = new int[newOffsets[slotCount]];
+        for (int slot = 0; slot < slotCount; slot++) {
+            int[] n = {newOffsets[slot]};
+            forEach(slot, target -> newTargets[n[0]++] = target);
+        }
+        offsets = newOffsets;
+        targets = newTargets;
+        csrSlots = slotCount;
+        Arrays.fill(overflow, null);
+        Arrays.fill(overflowSizes, 0);
+        staleEdges = 0;
+    }
+    
+    int neighbourCount(int from) {
+        int count = overflowSizes[from];
+        if (from < csrSlots) {
+            for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+                if (targets[i] != REMOVED) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
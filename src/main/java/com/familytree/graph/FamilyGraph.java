@@ -0,0 +1,455 @@
+package com.familytree.graph;
+
+import java.util.Arrays;
+
+/**
+ * In-memory copy of the PARENT_OF / SPOUSE_OF topology keyed by person id.
+ * Every person is mapped to a dense int slot and each relationship direction is kept in
+ * primitive CSR arrays, so traversals never allocate entities or boxed collections.
+ * Not thread-safe; {@link FamilyGraphIndex} guards access.
+ */
+public final class FamilyGraph {
+    
+    private static final long DELETED = -1L;
+    
+    private final LongIntHashMap slotsById;
+    private long[] ids;
+    private int slotCount;
+    private int personCount;
+    
+    private final CsrAdjacency children;
+    private final CsrAdjacency parents;
+    private final CsrAdjacency spouses;
+    private final TopologicalOrder order;
+    private final AncestorLabels labels;
+    
+    private FamilyGraph(LongIntHashMap slotsById, long[] ids, int slotCount,
+                        CsrAdjacency children, CsrAdjacency parents, CsrAdjacency spouses) {
+        this.slotsById = slotsById;
+        this.ids = ids;
+        this.slotCount = slotCount;
+        this.personCount = slotCount;
+        this.children = children;
+        this.parents = parents;
+        this.spouses = spouses;
+        this.order = TopologicalOrder.build(slotCount, children, parents);
+        this.labels = new AncestorLabels(slotCount);
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public int personCount() {
+        return personCount;
+    }
+    
+    public int parentChildCount() {
+        return children.edgeCount();
+    }
+    
+    /**
+     * Persons with at least one child; a scan over all slots.
+     */
+    public int parentCount() {
+        return children.sourceCount(slotCount);
+    }
+    
+    /**
+     * Persons with at least one parent; a scan over all slots.
+     */
+    public int childCount() {
+        return parents.sourceCount(slotCount);
+    }
+    
+    public boolean contains(long personId) {
+        return slot(personId) >= 0;
+    }
+    
+    public boolean addPerson(long personId) {
+        if (contains(personId)) {
+            return false;
+        }
+        if (slotCount == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(16, slotCount + (slotCount >> 1)));
+        }
+        int slot = slotCount++;
+        ids[slot] = personId;
+        slotsById.put(personId, slot);
+        children.ensureCapacity(slotCount);
+        parents.ensureCapacity(slotCount);
+        spouses.ensureCapacity(slotCount);
+        order.append(slot);
+        labels.ensureCapacity(slotCount);
+        personCount++;
+        return true;
+    }
+    
+    /**
+     * Remove a person and every relationship touching them. The slot is retired, not reused.
+     */
+    public boolean removePerson(long personId) {
+        int slot = slot(personId);
+        if (slot < 0) {
+            return false;
+        }
+        labels.invalidateFrom(slot, AncestorLabels.MAX_DEPTH, children);
+        for (int child : children.neighbours(slot)) {
+            parents.remove(child, slot);
+            children.remove(slot, child);
+        }
+        for (int parent : parents.neighbours(slot)) {
+            children.remove(parent, slot);
+            parents.remove(slot, parent);
+        }
+        for (int spouse : spouses.neighbours(slot)) {
+            spouses.remove(spouse, slot);
+            spouses.remove(slot, spouse);
+        }
+        slotsById.remove(personId);
+        ids[slot] = DELETED;
+        personCount--;
+        compactIfNeeded();
+        return true;
+    }
+    
+    public boolean addParentChild(long parentId, long childId) {
+        addPerson(parentId);
+        addPerson(childId);
+        int parent = slot(parentId);
+        int child = slot(childId);
+        if (!children.add(parent, child)) {
+            return false;
+        }
+        parents.add(child, parent);
+        order.edgeAdded(parent, child, children, parents);
+        labels.invalidateFrom(child, AncestorLabels.MAX_DEPTH - 1, children);
+        compactIfNeeded();
+        return true;
+    }
+    
+    public boolean addSpouses(long person1Id, long person2Id) {
+        addPerson(person1Id);
+        addPerson(person2Id);
+        int a = slot(person1Id);
+        int b = slot(person2Id);
+        if (!spouses.add(a, b)) {
+            return false;
+        }
+        spouses.add(b, a);
+        compactIfNeeded();
+        return true;
+    }
+    
+    /**
+     * Whether {@code personId} descends from {@code ancestorId}. Usually a single comparison
+     * of topological positions; see {@link TopologicalOrder}.
+     */
+    public boolean isAncestor(long ancestorId, long personId) {
+        int ancestor = slot(ancestorId);
+        int person = slot(personId);
+        return ancestor >= 0 && person >= 0 && ancestor != person && order.reaches(ancestor, person, children);
+    }
+    
+    /**
+     * Whether adding {@code parentId -> childId} would close a PARENT_OF cycle.
+     */
+    public boolean wouldCreateCycle(long parentId, long childId) {
+        return parentId == childId || isAncestor(childId, parentId);
+    }
+    
+    /**
+     * Lowest common ancestors of two persons within {@code maxDepth} (at most
+     * {@link AncestorLabels#MAX_DEPTH}) generations of each, from their ancestor labels.
+     * The result carries no path. Returns null when either person is unknown or nothing is shared.
+     */
+    public CommonAncestorSearch.Result lowestCommonAncestors(long person1Id, long person2Id, int maxDepth) {
+        int first = slot(person1Id);
+        int second = slot(person2Id);
+        if (first < 0 || second < 0) {
+            return null;
+        }
+        AncestorLabels.Label a = labels.get(first, parents);
+        AncestorLabels.Label b = labels.get(second, parents);
+        int bestUp = -1;
+        int bestDown = -1;
+        long[] common = new long[4];
+        int commonCount = 0;
+        for (int i = 0, j = 0; i < a.slots.length && j < b.slots.length; ) {
+            if (a.slots[i] < b.slots[j]) {
+                i++;
+            } else if (a.slots[i] > b.slots[j]) {
+                j++;
+            } else {
+                int up = a.depths[i];
+                int down = b.depths[j];
+                if (up <= maxDepth && down <= maxDepth) {
+                    boolean closer = bestUp < 0 || up + down < bestUp + bestDown
+                        || (up + down == bestUp + bestDown && up < bestUp);
+                    if (closer) {
+                        bestUp = up;
+                        bestDown = down;
+                        commonCount = 0;
+                    }
+                    if (up == bestUp && down == bestDown) {
+                        if (commonCount == common.length) {
+                            common = Arrays.copyOf(common, commonCount * 2);
+                        }
+                        common[commonCount++] = ids[a.slots[i]];
+                    }
+                }
+                i++;
+                j++;
+            }
+        }
+        if (bestUp < 0) {
+            return null;
+        }
+        long[] commonIds = Arrays.copyOf(common, commonCount);
+        Arrays.sort(commonIds);
+        return new CommonAncestorSearch.Result(bestUp, bestDown, commonIds, new long[0]);
+    }
+    
+    public long[] parentsOf(long personId) {
+        return neighbours(parents, personId);
+    }
+    
+    public long[] childrenOf(long personId) {
+        return neighbours(children, personId);
+    }
+    
+    public long[] spousesOf(long personId) {
+        return neighbours(spouses, personId);
+    }
+    
+    /**
+     * Children of any of the person's parents, excluding the person (full and half siblings).
+     */
+    public long[] siblingsOf(long personId) {
+        int slot = slot(personId);
+        if (slot < 0) {
+            return new long[0];
+        }
+        IntHashSet seen = new IntHashSet(8);
+        seen.add(slot);
+        SlotBuffer siblings = new SlotBuffer();
+        for (int parent : parents.neighbours(slot)) {
+            children.forEach(parent, sibling -> {
+                if (seen.add(sibling)) {
+                    siblings.add(sibling, 1);
+                }
+            });
+        }
+        return siblings.toIds(ids);
+    }
+    
+    /**
+     * Ancestors within {@code maxDepth} generations, nearest first. Up to {@link AncestorLabels#MAX_DEPTH}
+     * generations they are read from the person's ancestor label, which already holds every
+     * ancestor's generation and is kept across calls until an edge change reaches it.
+     */
+    public GraphTraversal ancestors(long personId, int maxDepth) {
+        int start = slot(personId);
+        if (start < 0 || maxDepth <= 0 || maxDepth > AncestorLabels.MAX_DEPTH) {
+            return breadthFirst(personId, maxDepth, parents);
+        }
+        AncestorLabels.Label label = labels.get(start, parents);
+        // The label is ordered by slot; counting sort by generation, slot order within one
+        int[] offsets = new int[maxDepth + 2];
+        for (byte depth : label.depths) {
+            if (depth > 0 && depth <= maxDepth) {
+                offsets[depth + 1]++;
+            }
+        }
+        for (int depth = 2; depth <= maxDepth + 1; depth++) {
+            offsets[depth] += offsets[depth - 1];
+        }
+        int size = offsets[maxDepth + 1];
+        if (size == 0) {
+            return GraphTraversal.EMPTY;
+        }
+        long[] ancestorIds = new long[size];
+        int[] generations = new int[size];
+        for (int i = 0; i < label.slots.length; i++) {
+            int depth = label.depths[i];
+            if (depth > 0 && depth <= maxDepth) {
+                int position = offsets[depth]++;
+                ancestorIds[position] = ids[label.slots[i]];
+                generations[position] = depth;
+            }
+        }
+        return new GraphTraversal(ancestorIds, generations);
+    }
+    
+    public GraphTraversal descendants(long personId, int maxDepth) {
+        return breadthFirst(personId, maxDepth, children);
+    }
+    
+    /**
+     * Level-order walk so each person is reported once, at their minimum generation distance.
+     */
+    private GraphTraversal breadthFirst(long personId, int maxDepth, CsrAdjacency direction) {
+        int start = slot(personId);
+        if (start < 0 || maxDepth <= 0) {
+            return GraphTraversal.EMPTY;
+        }
+        IntHashSet seen = new IntHashSet(32);
+        seen.add(start);
+        SlotBuffer visited = new SlotBuffer();
+        int levelStart = 0;
+        int generation = 1;
+        direction.forEach(start, next -> {
+            if (seen.add(next)) {
+                visited.add(next, 1);
+            }
+        });
+        while (generation < maxDepth && levelStart < visited.size) {
+            int levelEnd = visited.size;
+            int nextGeneration = generation + 1;
+            for (int i = levelStart; i < levelEnd; i++) {
+                direction.forEach(visited.slots[i], next -> {
+                    if (seen.add(next)) {
+                        visited.add(next, nextGeneration);
+                    }
+                });
+            }
+            levelStart = levelEnd;
+            generation = nextGeneration;
+        }
+        return visited.toTraversal(ids);
+    }
+    
+    private long[] neighbours(CsrAdjacency adjacency, long personId) {
+        int slot = slot(personId);
+        if (slot < 0) {
+            return new long[0];
+        }
+        int[] slots = adjacency.neighbours(slot);
+        long[] result = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            result[i] = ids[slots[i]];
+        }
+        return result;
+    }
+    
+    private int slot(long personId) {
+        return slotsById.get(personId, -1);
+    }
+    
+    private void compactIfNeeded() {
+        if (children.needsCompaction()) {
+            children.compact(slotCount);
+        }
+        if (parents.needsCompaction()) {
+            parents.compact(slotCount);
+        }
+        if (spouses.needsCompaction()) {
+            spouses.compact(slotCount);
+        }
+    }
+    
+    /**
+     * Growable pair of slot / generation arrays.
+     */
+    private static final class SlotBuffer {
+        private int[] slots = new int[16];
+        private int[] generations = new int[16];
+        private int size;
+        
+        void add(int slot, int generation) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                generations = Arrays.copyOf(generations, size * 2);
+            }
+            slots[size] = slot;
+            generations[size] = generation;
+            size++;
+        }
+        
+        long[] toIds(long[] idsBySlot) {
+            long[] result = new long[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = idsBySlot[slots[i]];
+            }
+            return result;
+        }
+        
+        GraphTraversal toTraversal(long[] idsBySlot) {
+            return size == 0 ? GraphTraversal.EMPTY
+                : new GraphTraversal(toIds(idsBySlot), Arrays.copyOf(generations, size));
+        }
+    }
+    
+    /**
+     * Collects ids and edges while streaming them from the database, then lays them out as CSR.
+     */
+    public static final class Builder {
+        
+        private final LongIntHashMap slotsById = new LongIntHashMap(1024);
+        private long[] ids = new long[1024];
+        private int slotCount;
+        private int[] parentSlots = new int[1024];
+        private int[] childSlots = new int[1024];
+        private int parentChildCount;
+        private int[] spouseFrom = new int[1024];
+        private int[] spouseTo = new int[1024];
+        private int spouseCount;
+        
+        private Builder() {
+        }
+        
+        public Builder addPerson(long personId) {
+            slotFor(personId);
+            return this;
+        }
+        
+        public Builder addParentChild(long parentId, long childId) {
+            if (parentChildCount == parentSlots.length) {
+                parentSlots = Arrays.copyOf(parentSlots, parentChildCount * 2);
+                childSlots = Arrays.copyOf(childSlots, parentChildCount * 2);
+            }
+            parentSlots[parentChildCount] = slotFor(parentId);
+            childSlots[parentChildCount] = slotFor(childId);
+            parentChildCount++;
+            return this;
+        }
+        
+        /**
+         * Add an undirected spouse edge; callers should report each couple once.
+         */
+        public Builder addSpouses(long person1Id, long person2Id) {
+            if (spouseCount + 2 > spouseFrom.length) {
+                spouseFrom = Arrays.copyOf(spouseFrom, spouseFrom.length * 2);
+                spouseTo = Arrays.copyOf(spouseTo, spouseTo.length * 2);
+            }
+            int a = slotFor(person1Id);
+            int b = slotFor(person2Id);
+            spouseFrom[spouseCount] = a;
+            spouseTo[spouseCount++] = b;
+            spouseFrom[spouseCount] = b;
+            spouseTo[spouseCount++] = a;
+            return this;
+        }
+        
+        public FamilyGraph build() {
+            return new FamilyGraph(slotsById, Arrays.copyOf(ids, Math.max(16, slotCount)), slotCount,
+                CsrAdjacency.build(slotCount, parentSlots, childSlots, parentChildCount),
+                CsrAdjacency.build(slotCount, childSlots, parentSlots, parentChildCount),
+                CsrAdjacency.build(slotCount, spouseFrom, spouseTo, spouseCount));
+        }
+        
+        private int slotFor(long personId) {
+            int slot = slotsById.get(personId, -1);
+            if (slot >= 0) {
+                return slot;
+            }
+            if (slotCount == ids.length) {
+                ids = Arrays.copyOf(ids, slotCount * 2);
+            }
+            slot = slotCount++;
+            ids[slot] = personId;
+            slotsById.put(personId, slot);
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.familytree.graph;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.repository.PersonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Process-wide {@link FamilyGraph} loaded from Neo4j at startup and kept in sync by
+ * {@code PersonService} after each committed write.
+ * Until loading finishes (or when disabled) {@link #isReady()} is false and callers use Cypher.
+ */
+@Component
+@Slf4j
+public class FamilyGraphIndex {
+    
+    private final PersonRepository personRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private volatile FamilyGraph graph;
+    private List<Consumer<FamilyGraph>> writesDuringLoad;
+    
+    public FamilyGraphIndex(PersonRepository personRepository, FamilyTreeProperties properties) {
+        this.personRepository = personRepository;
+        this.enabled = properties.getGraphIndex().isEnabled();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            log.info("In-memory family graph index disabled");
+            return;
+        }
+        reloadAsync();
+    }
+    
+    /**
+     * Rebuild in the background, e.g. after a bulk import wrote around the service layer.
+     */
+    public void reloadAsync() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::reload, "family-graph-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    /**
+     * Rebuild the graph from the database. Writes applied while loading are replayed on the new copy.
+     */
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            writesDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        try {
+            long started = System.nanoTime();
+            FamilyGraph.Builder builder = FamilyGraph.builder();
+            personRepository.forEachPersonId(builder::addPerson);
+            personRepository.forEachParentChildEdge(builder::addParentChild);
+            personRepository.forEachSpouseEdge(builder::addSpouses);
+            FamilyGraph loaded = builder.build();
+            
+            lock.writeLock().lock();
+            try {
+                writesDuringLoad.forEach(write -> write.accept(loaded));
+                graph = loaded;
+            } finally {
+                writesDuringLoad = null;
+                lock.writeLock().unlock();
+            }
+            log.info("Loaded family graph index: {} persons, {} parent-child edges in {} ms",
+                loaded.personCount(), loaded.parentChildCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                writesDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Could not load family graph index, falling back to Cypher traversals: {}", e.getMessage());
+        }
+    }
+    
+    public boolean isReady() {
+        return graph != null;
+    }
+    
+    public int personCount() {
+        return read(FamilyGraph::personCount);
+    }
+    
+    public int parentChildCount() {
+        return read(FamilyGraph::parentChildCount);
+    }
+    
+    public int parentCount() {
+        return read(FamilyGraph::parentCount);
+    }
+    
+    public int childCount() {
+        return read(FamilyGraph::childCount);
+    }
+    
+    public boolean contains(long personId) {
+        return read(g -> g.contains(personId));
+    }
+    
+    public GraphTraversal ancestors(long personId, int maxDepth) {
+        return read(g -> g.ancestors(personId, maxDepth));
+    }
+    
+    public GraphTraversal descendants(long personId, int maxDepth) {
+        return read(g -> g.descendants(personId, maxDepth));
+    }
+    
+    public boolean wouldCreateCycle(long parentId, long childId) {
+        return read(g -> g.wouldCreateCycle(parentId, childId));
+    }
+    
+    /**
+     * {@link FamilyGraph#lowestCommonAncestors} for each {@code (person1Ids[i], person2Ids[i])} pair,
+     * answered in parallel under one read lock. Entries are null for unrelated or unknown pairs.
+     */
+    public CommonAncestorSearch.Result[] lowestCommonAncestors(long[] person1Ids, long[] person2Ids, int maxDepth) {
+        return read(g -> {
+            CommonAncestorSearch.Result[] results = new CommonAncestorSearch.Result[person1Ids.length];
+            IntStream.range(0, results.length)
+                .parallel()
+                .forEach(i -> results[i] = g.lowestCommonAncestors(person1Ids[i], person2Ids[i], maxDepth));
+            return results;
+        });
+    }
+    
+    public long[] parentsOf(long personId) {
+        return read(g -> g.parentsOf(personId));
+    }
+    
+    public long[] childrenOf(long personId) {
+        return read(g -> g.childrenOf(personId));
+    }
+    
+    public long[] spousesOf(long personId) {
+        return read(g -> g.spousesOf(personId));
+    }
+    
+    public long[] siblingsOf(long personId) {
+        return read(g -> g.siblingsOf(personId));
+    }
+    
+    public void personAdded(long personId) {
+        write(g -> g.addPerson(personId));
+    }
+    
+    public void personRemoved(long personId) {
+        write(g -> g.removePerson(personId));
+    }
+    
+    public void parentChildAdded(long parentId, long childId) {
+        write(g -> g.addParentChild(parentId, childId));
+    }
+    
+    public void spousesAdded(long person1Id, long person2Id) {
+        write(g -> g.addSpouses(person1Id, person2Id));
+    }
+    
+    private <T> T read(Function<FamilyGraph, T> query) {
+        lock.readLock().lock();
+        try {
+            FamilyGraph current = graph;
+            if (current == null) {
+                throw new IllegalStateException("Family graph index is not loaded");
+            }
+            return query.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void write(Consumer<FamilyGraph> mutation) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (writesDuringLoad != null) {
+                writesDuringLoad.add(mutation);
+            }
+            if (graph != null) {
+                mutation.accept(graph);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
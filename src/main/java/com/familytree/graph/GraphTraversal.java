@@ -0,0 +1,33 @@
+package com.familytree.graph;
+
+/**
+ * Result of a breadth-first walk: person ids in visiting order with their generation distance.
+ */
+public final class GraphTraversal {
+    
+    static final GraphTraversal EMPTY = new GraphTraversal(new long[0], new int[0]);
+    
+    private final long[] ids;
+    private final int[] generations;
+    
+    GraphTraversal(long[] ids, int[] generations) {
+        this.ids = ids;
+        this.generations = generations;
+    }
+    
+    public int size() {
+        return ids.length;
+    }
+    
+    public long id(int index) {
+        return ids[index];
+    }
+    
+    public int generation(int index) {
+        return generations[index];
+    }
+    
+    public long[] ids() {
+        return ids.clone();
+    }
+}
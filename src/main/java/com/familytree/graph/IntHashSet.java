@@ -0,0 +1,85 @@
+package com.familytree.graph;
+
+import java.util.Arrays;
+
+/**
+ * Minimal open-addressing set of non-negative slots, used as the visited set of a traversal.
+ */
+final class IntHashSet {
+    
+    private static final int EMPTY = -1;
+    
+    private int[] keys;
+    private int mask;
+    private int size;
+    
+    IntHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+    
+    /**
+     * Add a slot, returning false if it was already present.
+     */
+    boolean add(int key) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int i = index(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        size++;
+        return true;
+    }
+    
+    boolean contains(int key) {
+        int i = index(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    int[] toArray() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+    
+    private int index(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+    
+    private void resize() {
+        int[] old = keys;
+        keys = new int[old.length * 2];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        size = 0;
+        for (int key : old) {
+            if (key != EMPTY) {
+                add(key);
+            }
+        }
+    }
+}
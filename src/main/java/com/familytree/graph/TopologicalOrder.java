@@ -0,0 +1,173 @@
+package com.familytree.graph;
+
+import java.util.Arrays;
+
+/**
+ * Dynamic topological order of the PARENT_OF DAG (Pearce-Kelly), used as a reachability index.
+ * Every parent sits at a lower position than its children, so a person can only reach people at
+ * higher positions: most "is X an ancestor of Y" checks are answered by one comparison, and the
+ * rest search only the people positioned between the two.
+ * Adding an edge reorders just that window; removing edges or people never invalidates the order.
+ * If the stored data already contains a cycle the order is marked invalid and
+ * {@link #reaches} falls back to an unpruned search.
+ */
+final class TopologicalOrder {
+    
+    private int[] positionBySlot;
+    private int[] slotByPosition;
+    private int size;
+    private boolean valid = true;
+    
+    private TopologicalOrder(int[] positionBySlot, int[] slotByPosition, int size) {
+        this.positionBySlot = positionBySlot;
+        this.slotByPosition = slotByPosition;
+        this.size = size;
+    }
+    
+    /**
+     * Kahn's algorithm over the loaded graph.
+     */
+    static TopologicalOrder build(int slotCount, CsrAdjacency children, CsrAdjacency parents) {
+        int capacity = Math.max(16, slotCount);
+        int[] positionBySlot = new int[capacity];
+        int[] slotByPosition = new int[capacity];
+        int[] pendingParents = new int[slotCount];
+        int head = 0;
+        int tail = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            pendingParents[slot] = parents.neighbourCount(slot);
+            if (pendingParents[slot] == 0) {
+                slotByPosition[tail++] = slot;
+            }
+        }
+        while (head < tail) {
+            int slot = slotByPosition[head++];
+            int[] queueTail = {tail};
+            children.forEach(slot, child -> {
+                if (--pendingParents[child] == 0) {
+                    slotByPosition[queueTail[0]++] = child;
+                }
+            });
+            tail = queueTail[0];
+        }
+        boolean acyclic = tail == slotCount;
+        for (int slot = 0; slot < slotCount && !acyclic; slot++) {
+            if (pendingParents[slot] > 0) {
+                slotByPosition[tail++] = slot;
+            }
+        }
+        for (int position = 0; position < slotCount; position++) {
+            positionBySlot[slotByPosition[position]] = position;
+        }
+        TopologicalOrder order = new TopologicalOrder(positionBySlot, slotByPosition, slotCount);
+        order.valid = acyclic;
+        return order;
+    }
+    
+    /**
+     * Place a new, unconnected slot last.
+     */
+    void append(int slot) {
+        if (size == slotByPosition.length || slot >= positionBySlot.length) {
+            int capacity = Math.max(Math.max(size, slot) + 1, slotByPosition.length + (slotByPosition.length >> 1));
+            slotByPosition = Arrays.copyOf(slotByPosition, capacity);
+            positionBySlot = Arrays.copyOf(positionBySlot, capacity);
+        }
+        positionBySlot[slot] = size;
+        slotByPosition[size++] = slot;
+    }
+    
+    boolean isValid() {
+        return valid;
+    }
+    
+    /**
+     * Whether {@code to} is reachable from {@code from} through {@code children} edges.
+     */
+    boolean reaches(int from, int to, CsrAdjacency children) {
+        if (from == to) {
+            return true;
+        }
+        int limit = valid ? positionBySlot[to] : Integer.MAX_VALUE;
+        if (positionBySlot[from] > limit) {
+            return false;
+        }
+        IntHashSet seen = new IntHashSet(16);
+        return search(from, children, seen, limit, true, to) >= 0;
+    }
+    
+    /**
+     * Restore the order after {@code parent -> child} was added to the adjacency lists.
+     */
+    void edgeAdded(int parent, int child, CsrAdjacency children, CsrAdjacency parents) {
+        int lower = positionBySlot[child];
+        int upper = positionBySlot[parent];
+        if (!valid || upper < lower) {
+            return;
+        }
+        IntHashSet forward = new IntHashSet(16);
+        if (search(child, children, forward, upper, true, parent) >= 0) {
+            valid = false;
+            return;
+        }
+        IntHashSet backward = new IntHashSet(16);
+        search(parent, parents, backward, lower, false, -1);
+        
+        // Ancestors of the parent take the lowest freed positions, then descendants of the child.
+        int[] moved = new int[backward.size() + forward.size()];
+        int n = collectByPosition(backward, moved, 0);
+        collectByPosition(forward, moved, n);
+        int[] positions = new int[moved.length];
+        for (int i = 0; i < moved.length; i++) {
+            positions[i] = positionBySlot[moved[i]];
+        }
+        Arrays.sort(positions);
+        for (int i = 0; i < moved.length; i++) {
+            positionBySlot[moved[i]] = positions[i];
+            slotByPosition[positions[i]] = moved[i];
+        }
+    }
+    
+    /**
+     * Depth-first search that never leaves the window bounded by {@code limit}
+     * (positions at most {@code limit} going forward, at least {@code limit} going backward).
+     * Returns {@code target} if it was reached, otherwise -1.
+     */
+    private int search(int start, CsrAdjacency edges, IntHashSet seen, int limit, boolean forward, int target) {
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = start;
+        seen.add(start);
+        while (depth > 0) {
+            int slot = stack[--depth];
+            int[] next = edges.neighbours(slot);
+            for (int neighbour : next) {
+                if (neighbour == target) {
+                    return target;
+                }
+                int position = positionBySlot[neighbour];
+                boolean inWindow = forward ? position < limit : position > limit;
+                if (inWindow && seen.add(neighbour)) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = neighbour;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    private int collectByPosition(IntHashSet slots, int[] into, int offset) {
+        int[] collected = slots.toArray();
+        long[] keyed = new long[collected.length];
+        for (int i = 0; i < collected.length; i++) {
+            keyed[i] = ((long) positionBySlot[collected[i]] << 32) | collected[i];
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < keyed.length; i++) {
+            into[offset + i] = (int) keyed[i];
+        }
+        return offset + keyed.length;
+    }
+}
@@ -0,0 +1,21 @@
+package com.familytree.migration;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One schema change: statements run in order, each in its own transaction, since Neo4j does not
+ * mix schema and data writes. Statements must be idempotent ({@code IF NOT EXISTS}), so a migration
+ * interrupted halfway can simply run again.
+ */
+@Value
+public class GraphMigration {
+    int version;
+    String description;
+    List<String> statements;
+    
+    static GraphMigration of(int version, String description, String... statements) {
+        return new GraphMigration(version, description, List.of(statements));
+    }
+}
@@ -0,0 +1,82 @@
+package com.familytree.migration;
+
+import com.familytree.config.FamilyTreeProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Applies pending {@link GraphMigrations} at startup, before other runners and before the
+ * application reports ready, and records each as a {@code (:SchemaMigration {version})} node.
+ * Several instances starting together are safe: every statement is idempotent and the version
+ * nodes are unique. A failed migration is logged and retried on the next start.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class GraphMigrationRunner implements ApplicationRunner {
+    
+    private final Neo4jClient neo4jClient;
+    private final boolean enabled;
+    
+    public GraphMigrationRunner(Neo4jClient neo4jClient, FamilyTreeProperties properties) {
+        this.neo4jClient = neo4jClient;
+        this.enabled = properties.getMigrations().isEnabled();
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            log.info("Graph migrations disabled");
+            return;
+        }
+        try {
+            migrate();
+        } catch (RuntimeException e) {
+            log.error("Graph migrations did not complete; they will be retried on the next start", e);
+        }
+    }
+    
+    /**
+     * Apply every migration not recorded yet, in version order; returns how many were applied.
+     */
+    int migrate() {
+        neo4jClient.query("CREATE CONSTRAINT schema_migration_version IF NOT EXISTS " +
+                          "FOR (m:SchemaMigration) REQUIRE m.version IS UNIQUE").run();
+        Set<Integer> applied = new HashSet<>(neo4jClient
+            .query("MATCH (m:SchemaMigration) RETURN m.version AS version")
+            .fetchAs(Integer.class)
+            .mappedBy((typeSystem, record) -> record.get("version").asInt())
+            .all());
+        
+        int count = 0;
+        for (GraphMigration migration : GraphMigrations.ALL) {
+            if (applied.contains(migration.getVersion())) {
+                continue;
+            }
+            log.info("Applying graph migration {}: {}", migration.getVersion(), migration.getDescription());
+            for (String statement : migration.getStatements()) {
+                neo4jClient.query(statement).run();
+            }
+            neo4jClient.query("MERGE (m:SchemaMigration {version: $version}) " +
+                              "ON CREATE SET m.description = $description, m.appliedAt = $appliedAt")
+                .bind(migration.getVersion()).to("version")
+                .bind(migration.getDescription()).to("description")
+                .bind(ZonedDateTime.now()).to("appliedAt")
+                .run();
+            count++;
+        }
+        if (count > 0) {
+            log.info("Applied {} graph migrations", count);
+        }
+        return count;
+    }
+}
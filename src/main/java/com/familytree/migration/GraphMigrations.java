@@ -0,0 +1,48 @@
+package com.familytree.migration;
+
+import java.util.List;
+
+/**
+ * The schema migrations, oldest first. Applied versions are recorded as {@code :SchemaMigration}
+ * nodes; add new changes as a new version at the end rather than editing one that has shipped.
+ */
+final class GraphMigrations {
+    
+    static final List<GraphMigration> ALL = List.of(
+        GraphMigration.of(1, "Unique user names and emails",
+            "CREATE CONSTRAINT user_username_unique IF NOT EXISTS FOR (u:User) REQUIRE u.username IS UNIQUE",
+            "CREATE CONSTRAINT user_email_unique IF NOT EXISTS FOR (u:User) REQUIRE u.email IS UNIQUE"),
+        GraphMigration.of(2, "Range indexes for person lookups and bulk imports",
+            "CREATE INDEX person_last_name IF NOT EXISTS FOR (p:Person) ON (p.lastName)",
+            "CREATE INDEX person_first_last_name IF NOT EXISTS FOR (p:Person) ON (p.firstName, p.lastName)",
+            "CREATE INDEX person_birth_date IF NOT EXISTS FOR (p:Person) ON (p.birthDate)",
+            "CREATE INDEX person_is_public IF NOT EXISTS FOR (p:Person) ON (p.isPublic)",
+            "CREATE INDEX person_import_key IF NOT EXISTS FOR (p:Person) ON (p.importBatch, p.importKey)"),
+        GraphMigration.of(3, "Range indexes for event and location lookups",
+            "CREATE INDEX event_type IF NOT EXISTS FOR (e:Event) ON (e.eventType)",
+            "CREATE INDEX event_date IF NOT EXISTS FOR (e:Event) ON (e.eventDate)",
+            "CREATE INDEX location_name IF NOT EXISTS FOR (l:Location) ON (l.name)",
+            "CREATE INDEX location_city IF NOT EXISTS FOR (l:Location) ON (l.city)",
+            "CREATE INDEX location_country IF NOT EXISTS FOR (l:Location) ON (l.country)"),
+        GraphMigration.of(4, "Text indexes for substring place search",
+            "CREATE TEXT INDEX location_name_text IF NOT EXISTS FOR (l:Location) ON (l.name)",
+            "CREATE TEXT INDEX person_birth_place_text IF NOT EXISTS FOR (p:Person) ON (p.birthPlace)"),
+        GraphMigration.of(5, "Full-text indexes for name and similar-name search",
+            "CREATE FULLTEXT INDEX person_names IF NOT EXISTS " +
+            "FOR (p:Person) ON EACH [p.firstName, p.middleName, p.lastName, p.maidenName] " +
+            "OPTIONS {indexConfig: {`fulltext.analyzer`: 'standard-no-stop-words'}}",
+            "CREATE FULLTEXT INDEX person_phonetic IF NOT EXISTS " +
+            "FOR (p:Person) ON EACH [p.phoneticKeys] " +
+            "OPTIONS {indexConfig: {`fulltext.analyzer`: 'whitespace'}}"),
+        GraphMigration.of(6, "Initial version for persons written before optimistic locking",
+            "MATCH (p:Person) WHERE p.version IS NULL " +
+            "CALL { WITH p SET p.version = 0 } IN TRANSACTIONS OF 10000 ROWS"),
+        GraphMigration.of(7, "Indexed name sort key for keyset pagination by name",
+            "MATCH (p:Person) WHERE p.nameSortKey IS NULL " +
+            "CALL { WITH p SET p.nameSortKey = coalesce(p.lastName, '') + '\\u0000' + coalesce(p.firstName, '') } " +
+            "IN TRANSACTIONS OF 10000 ROWS",
+            "CREATE INDEX person_name_sort IF NOT EXISTS FOR (p:Person) ON (p.nameSortKey)"));
+    
+    private GraphMigrations() {
+    }
+}
@@ -1,11 +1,13 @@
 package com.familytree.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.neo4j.core.schema.GeneratedValue;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
@@ -32,6 +34,12 @@ public class Person {
     @GeneratedValue
     private Long id;
     
+    /**
+     * Bumped by every write to the person, and by relationship changes at either end; the basis of ETags.
+     */
+    @Version
+    private Long version;
+    
     private String firstName;
     private String middleName;
     private String lastName;
@@ -58,6 +66,14 @@ public class Person {
     private boolean isPublic;
     private String visibility; // PUBLIC, FAMILY, PRIVATE
     
+    // Search support, maintained by PersonService from the name fields
+    @JsonIgnore
+    private String phoneticKeys;
+    
+    // Keyset order of name listings, maintained by PersonService from the name fields
+    @JsonIgnore
+    private String nameSortKey;
+    
     @Relationship(type = "PARENT_OF", direction = Relationship.Direction.OUTGOING)
     @Builder.Default
     private Set<Person> children = new HashSet<>();
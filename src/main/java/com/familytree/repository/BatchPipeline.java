@@ -0,0 +1,115 @@
+package com.familytree.repository;
+
+import org.springframework.dao.TransientDataAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed worker pool for bulk UNWIND writes with a bounded number of queued batches, so the producer
+ * never runs far ahead of writing. Batches that others depend on (e.g. persons before the
+ * relationships between them) are submitted with {@link #submitBeforeBarrier} and waited for with
+ * {@link #awaitAll}.
+ */
+public final class BatchPipeline implements AutoCloseable {
+    
+    private static final int MAX_ATTEMPTS = 5;
+    
+    private final ExecutorService workers;
+    private final Semaphore slots;
+    private final List<Future<?>> inFlight = new ArrayList<>();
+    private final AtomicInteger batchesSinceBarrier = new AtomicInteger();
+    
+    public BatchPipeline(int workerCount, String threadNamePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.slots = new Semaphore(workerCount * 2);
+    }
+    
+    public void submit(Runnable batch) {
+        slots.acquireUninterruptibly();
+        try {
+            inFlight.add(workers.submit(() -> {
+                try {
+                    batch.run();
+                } finally {
+                    slots.release();
+                }
+            }));
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Submit a batch that later batches depend on; it counts as pending until the next {@link #awaitAll}.
+     */
+    public void submitBeforeBarrier(Runnable batch) {
+        batchesSinceBarrier.incrementAndGet();
+        submit(batch);
+    }
+    
+    public boolean hasBatchesBeforeBarrier() {
+        return batchesSinceBarrier.get() > 0;
+    }
+    
+    /**
+     * Wait for every submitted batch; the first failure is rethrown.
+     */
+    public void awaitAll() {
+        try {
+            for (Future<?> batch : inFlight) {
+                batch.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk write interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Bulk write batch failed", e.getCause());
+        } finally {
+            inFlight.clear();
+            batchesSinceBarrier.set(0);
+        }
+    }
+    
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+    
+    /**
+     * Retry batches that lose a lock race (e.g. deadlock detection) with another worker.
+     */
+    public static long withRetry(LongSupplier write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.getAsLong();
+            } catch (TransientDataAccessException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(50L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,27 +14,29 @@ import java.util.Optional;
  * Repository for Person entity with graph-specific queries.
  */
 @Repository
-public interface PersonRepository extends Neo4jRepository<Person, Long> {
+public interface PersonRepository extends Neo4jRepository<Person, Long>, PersonRepositoryCustom {
     
     Optional<Person> findByFirstNameAndLastName(String firstName, String lastName);
     
     List<Person> findByLastName(String lastName);
     
     /**
-     * Find all ancestors of a person up to a certain depth
+     * Number of PARENT_OF relationships, read from the count store without scanning
      */
-    @Query("MATCH (p:Person)-[:PARENT_OF*1..$depth]->(child:Person) " +
-           "WHERE id(child) = $personId " +
-           "RETURN p")
-    List<Person> findAncestors(@Param("personId") Long personId, @Param("depth") int depth);
+    @Query("MATCH ()-[r:PARENT_OF]->() RETURN count(r)")
+    long countParentChildEdges();
+    
+    /**
+     * Number of persons with at least one child
+     */
+    @Query("MATCH (p:Person) WHERE (p)-[:PARENT_OF]->() RETURN count(p)")
+    long countParents();
     
     /**
-     * Find all descendants of a person up to a certain depth
+     * Number of persons with at least one parent
      */
-    @Query("MATCH (p:Person)-[:PARENT_OF*1..$depth]->(descendant:Person) " +
-           "WHERE id(p) = $personId " +
-           "RETURN descendant")
-    List<Person> findDescendants(@Param("personId") Long personId, @Param("depth") int depth);
+    @Query("MATCH (p:Person) WHERE ()-[:PARENT_OF]->(p) RETURN count(p)")
+    long countChildren();
     
     /**
      * Find siblings (people with same parents)
@@ -53,12 +56,18 @@ public interface PersonRepository extends Neo4jRepository<Person, Long> {
                                       @Param("person2Id") Long person2Id);
     
     /**
-     * Search persons by name (partial match)
+     * Search persons through the person_names full-text index, best matches first
+     */
+    @Query("CALL db.index.fulltext.queryNodes('person_names', $query, {limit: 50}) " +
+           "YIELD node AS p " +
+           "RETURN p")
+    List<Person> searchByName(@Param("query") String luceneQuery);
+    
+    /**
+     * Load persons by id without hydrating their relationship sets
      */
-    @Query("MATCH (p:Person) " +
-           "WHERE p.firstName CONTAINS $searchTerm OR p.lastName CONTAINS $searchTerm " +
-           "RETURN p LIMIT 50")
-    List<Person> searchByName(@Param("searchTerm") String searchTerm);
+    @Query("MATCH (p:Person) WHERE id(p) IN $ids RETURN p")
+    List<Person> findAllShallowById(@Param("ids") Collection<Long> ids);
     
     /**
      * Find all public persons
@@ -0,0 +1,203 @@
+package com.familytree.repository;
+
+import com.familytree.dto.NameSuggestionDTO;
+import com.familytree.dto.PersonDTO;
+import com.familytree.dto.PersonSummaryDTO;
+import com.familytree.dto.RelationshipDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Person queries that stream raw driver records instead of mapping entities.
+ */
+public interface PersonRepositoryCustom {
+    
+    /**
+     * Callback receiving one relationship as a pair of person ids.
+     */
+    @FunctionalInterface
+    interface EdgeConsumer {
+        void accept(long fromId, long toId);
+    }
+    
+    /**
+     * Outcome of writing one relationship.
+     */
+    enum EdgeWrite {
+        CREATED, ALREADY_EXISTS, FIRST_NOT_FOUND, SECOND_NOT_FOUND
+    }
+    
+    void forEachPersonId(LongConsumer consumer);
+    
+    void forEachParentChildEdge(EdgeConsumer consumer);
+    
+    /**
+     * Each couple is reported once, regardless of how many SPOUSE_OF directions are stored.
+     */
+    void forEachSpouseEdge(EdgeConsumer consumer);
+    
+    /**
+     * Page of persons ordered by id, starting after {@code afterId} (or from the start when null).
+     */
+    List<PersonDTO> findPageById(Long afterId, int limit);
+    
+    /**
+     * Page of persons ordered by (lastName, firstName, id) through their {@code nameSortKey}, starting
+     * after the given key and id (or from the start when the key is null). Missing names sort as empty strings.
+     */
+    List<PersonDTO> findPageByName(String afterNameSortKey, Long afterId, int limit);
+    
+    /**
+     * Every person, handed over one row at a time as the driver receives it.
+     */
+    void forEachPerson(Consumer<PersonDTO> consumer);
+    
+    /**
+     * Full-text search over all name fields, projected to summaries, best matches first
+     */
+    List<PersonSummaryDTO> searchSummariesByName(String luceneQuery, int limit);
+    
+    /**
+     * Typeahead suggestions from the full-text index, best matches first. Reads only name and
+     * date properties, no relationships.
+     */
+    List<NameSuggestionDTO> autocompleteNames(String luceneQuery, int limit);
+    
+    /**
+     * Candidates for a similar-name search: the union of phonetic-index matches (when
+     * {@code phoneticQuery} is not null) and fuzzy name-index matches, up to {@code limit} from each.
+     */
+    List<PersonSummaryDTO> findSimilarNameCandidates(String phoneticQuery, String fuzzyQuery, int limit);
+    
+    /**
+     * Persons written before phonetic keys existed, for the backfill.
+     */
+    List<PersonSummaryDTO> findSummariesWithoutPhoneticKeys(int limit);
+    
+    void setPhoneticKeys(Map<Long, String> keysById);
+    
+    /**
+     * Summaries of persons sharing at least one parent with the given person
+     */
+    List<PersonSummaryDTO> findSiblingSummaries(Long personId);
+    
+    /**
+     * Summaries of the persons on the shortest path between two people, in path order
+     */
+    List<PersonSummaryDTO> findRelationshipPathSummaries(Long person1Id, Long person2Id);
+    
+    List<PersonSummaryDTO> findSummariesById(Collection<Long> ids);
+    
+    /**
+     * The person (generation 0), their ancestors (negative generations) and descendants (positive)
+     * in one statement, each once at their minimum distance, nearest generations first.
+     * Empty when the person does not exist.
+     */
+    List<PersonDTO> findLineage(Long personId, int ancestorDepth, int descendantDepth);
+    
+    /**
+     * {@link #findLineage} for several persons in one statement, keyed by root id; unknown roots are absent.
+     * Relatives shared by several lineages are projected once.
+     */
+    Map<Long, List<PersonDTO>> findLineages(Collection<Long> personIds, int ancestorDepth, int descendantDepth);
+    
+    /**
+     * The rows of {@link #findLineage} handed over as the driver receives them, grouped for writing
+     * out as a lineage: the person, then ancestors, then descendants, each group nearest generation first.
+     */
+    void forEachLineageMember(Long personId, int ancestorDepth, int descendantDepth, Consumer<PersonDTO> consumer);
+    
+    /**
+     * Persons with their neighbour ids, in the order of {@code ids}; unknown ids are skipped.
+     */
+    List<PersonDTO> findPersonsById(List<Long> ids);
+    
+    /**
+     * Versions of the given persons keyed by id; unknown ids are absent. Reads one property per person.
+     */
+    Map<Long, Long> findVersions(Collection<Long> ids);
+    
+    /**
+     * Versions of the person and of their parents, children and spouses; empty when the person does not exist.
+     */
+    Map<Long, Long> findNeighbourhoodVersions(Long personId);
+    
+    /**
+     * Versions of the persons {@link #findLineage} would return, without projecting them.
+     */
+    Map<Long, Long> findLineageVersions(Long personId, int ancestorDepth, int descendantDepth);
+    
+    /**
+     * Set the given properties of one person in a single statement that loads no relationships, and
+     * bump its version; null values remove the property. With {@code expectedVersion} the write only
+     * happens if the stored version still equals it.
+     *
+     * @return the person as stored afterwards; empty when the person does not exist
+     * @throws org.springframework.dao.OptimisticLockingFailureException when the version has moved on
+     */
+    Optional<PersonDTO> patchPerson(Long personId, Map<String, Object> properties, Long expectedVersion);
+    
+    /**
+     * Bump the versions of the person's parents, children and spouses, whose neighbour ids are about to change.
+     * Returns the ids of the relatives bumped.
+     */
+    long[] touchRelatives(Long personId);
+    
+    /**
+     * Whether a PARENT_OF path leads from {@code ancestorId} down to {@code personId}.
+     * The search stops at the first path found and loads no entities.
+     */
+    boolean isAncestor(Long ancestorId, Long personId);
+    
+    /**
+     * Parent ids of the given persons and of each of their ancestors up to {@code maxDepth} generations,
+     * keyed by person id, so a kinship search can walk them without further queries.
+     */
+    Map<Long, long[]> findAncestorParentIds(Collection<Long> personIds, int maxDepth);
+    
+    /**
+     * Merge {@code person1 -[:PARENT_OF]-> person2} for each edge in one statement, touching only
+     * the two endpoints. Results are in input order.
+     */
+    List<EdgeWrite> mergeParentChildEdges(List<RelationshipDTO> edges);
+    
+    /**
+     * Merge SPOUSE_OF in both directions for each edge in one statement. Results are in input order.
+     */
+    List<EdgeWrite> mergeSpouseEdges(List<RelationshipDTO> edges);
+    
+    /**
+     * First of the given parent-child edges whose child is also an ancestor of its parent, if any.
+     */
+    Optional<RelationshipDTO> findCycle(List<RelationshipDTO> parentChildEdges);
+    
+    /**
+     * Wait until every index is online, including the (importBatch, importKey) index that resolves
+     * references between imported rows.
+     */
+    void awaitIndexes();
+    
+    /**
+     * Create one person per row in a single UNWIND statement, tagged with the import batch id.
+     * Rows hold Person property values plus an {@code importKey} unique within the batch.
+     * Returns the number of nodes created.
+     */
+    long createImportedPersons(String importBatch, List<Map<String, Object>> rows);
+    
+    /**
+     * Merge PARENT_OF between persons of an import batch given {@code parent} / {@code child}
+     * import keys. Returns the number of rows whose endpoints were both found.
+     */
+    long linkImportedParents(String importBatch, List<Map<String, Object>> rows);
+    
+    /**
+     * Merge SPOUSE_OF in both directions given {@code person1} / {@code person2} import keys.
+     * Returns the number of rows whose endpoints were both found.
+     */
+    long linkImportedSpouses(String importBatch, List<Map<String, Object>> rows);
+}
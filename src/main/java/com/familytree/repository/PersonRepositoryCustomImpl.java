@@ -0,0 +1,511 @@
+package com.familytree.repository;
+
+import com.familytree.dto.NameSuggestionDTO;
+import com.familytree.dto.PersonDTO;
+import com.familytree.dto.PersonSummaryDTO;
+import com.familytree.dto.RelationshipDTO;
+import lombok.RequiredArgsConstructor;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Driver-level implementation of {@link PersonRepositoryCustom}.
+ * Records are handed to the caller as they arrive, so memory use does not grow with the result.
+ */
+@RequiredArgsConstructor
+public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
+    
+    private static final String EDGE_WRITE_ROW =
+        "RETURN row.position AS position, a IS NOT NULL AS firstFound, b IS NOT NULL AS secondFound, existed";
+    
+    // A new relationship changes both endpoints' neighbour ids, so both count as modified
+    private static final String BUMP_VERSIONS =
+        "  SET a.version = coalesce(a.version, 0) + 1, b.version = coalesce(b.version, 0) + 1";
+    
+    private static final String VERSION_ROW = "RETURN id(p) AS id, coalesce(p.version, 0) AS version";
+    
+    /**
+     * Cypher form of {@link com.familytree.dto.PersonCursor#nameSortKey} over the stored names of {@code p}.
+     */
+    static final String NAME_SORT_KEY = "coalesce(p.lastName, '') + '\\u0000' + coalesce(p.firstName, '')";
+    
+    private final Neo4jClient neo4jClient;
+    
+    @Override
+    public void forEachPersonId(LongConsumer consumer) {
+        stream("MATCH (p:Person) RETURN id(p) AS id", Map.of(),
+            row -> consumer.accept(row.get("id").asLong()));
+    }
+    
+    @Override
+    public void forEachParentChildEdge(EdgeConsumer consumer) {
+        stream("MATCH (p:Person)-[:PARENT_OF]->(c:Person) " +
+               "RETURN DISTINCT id(p) AS parentId, id(c) AS childId", Map.of(),
+            row -> consumer.accept(row.get("parentId").asLong(), row.get("childId").asLong()));
+    }
+    
+    @Override
+    public void forEachSpouseEdge(EdgeConsumer consumer) {
+        stream("MATCH (a:Person)-[:SPOUSE_OF]-(b:Person) WHERE id(a) < id(b) " +
+               "RETURN DISTINCT id(a) AS person1Id, id(b) AS person2Id", Map.of(),
+            row -> consumer.accept(row.get("person1Id").asLong(), row.get("person2Id").asLong()));
+    }
+    
+    /**
+     * First and later pages are separate statements: a {@code $afterId IS NULL OR ...} filter would keep
+     * the planner from reading the label scan in id order and stopping after {@code $limit} rows.
+     */
+    @Override
+    public List<PersonDTO> findPageById(Long afterId, int limit) {
+        List<PersonDTO> page = new ArrayList<>(limit);
+        if (afterId == null) {
+            stream("MATCH (p:Person) WITH p ORDER BY id(p) LIMIT $limit " + PersonRowMapper.PERSON_ROW,
+                Map.of("limit", limit), row -> page.add(PersonRowMapper.toPersonDTO(row)));
+        } else {
+            stream("MATCH (p:Person) WHERE id(p) > $afterId WITH p ORDER BY id(p) LIMIT $limit " +
+                   PersonRowMapper.PERSON_ROW,
+                Map.of("afterId", afterId, "limit", limit), row -> page.add(PersonRowMapper.toPersonDTO(row)));
+        }
+        return page;
+    }
+    
+    /**
+     * Seeks the person_name_sort index and reads it in order, so a page costs its own rows plus the
+     * persons sharing the cursor's name. Only the id tie-break within one name is sorted.
+     */
+    @Override
+    public List<PersonDTO> findPageByName(String afterNameSortKey, Long afterId, int limit) {
+        List<PersonDTO> page = new ArrayList<>(limit);
+        if (afterNameSortKey == null) {
+            stream("MATCH (p:Person) WHERE p.nameSortKey >= '' " +
+                   "WITH p ORDER BY p.nameSortKey, id(p) LIMIT $limit " +
+                   PersonRowMapper.PERSON_ROW,
+                Map.of("limit", limit), row -> page.add(PersonRowMapper.toPersonDTO(row)));
+        } else {
+            stream("MATCH (p:Person) WHERE p.nameSortKey >= $key " +
+                   "AND (p.nameSortKey > $key OR id(p) > $afterId) " +
+                   "WITH p ORDER BY p.nameSortKey, id(p) LIMIT $limit " +
+                   PersonRowMapper.PERSON_ROW,
+                Map.of("key", afterNameSortKey, "afterId", afterId, "limit", limit),
+                row -> page.add(PersonRowMapper.toPersonDTO(row)));
+        }
+        return page;
+    }
+    
+    @Override
+    public void forEachPerson(Consumer<PersonDTO> consumer) {
+        stream("MATCH (p:Person) " + PersonRowMapper.PERSON_ROW, Map.of(),
+            row -> consumer.accept(PersonRowMapper.toPersonDTO(row)));
+    }
+    
+    @Override
+    public List<PersonSummaryDTO> searchSummariesByName(String luceneQuery, int limit) {
+        return summaries("CALL db.index.fulltext.queryNodes('person_names', $query, {limit: $limit}) " +
+                         "YIELD node AS p " +
+                         PersonRowMapper.SUMMARY_ROW,
+            Map.of("query", luceneQuery, "limit", limit));
+    }
+    
+    @Override
+    public List<NameSuggestionDTO> autocompleteNames(String luceneQuery, int limit) {
+        List<NameSuggestionDTO> suggestions = new ArrayList<>(limit);
+        stream("CALL db.index.fulltext.queryNodes('person_names', $query, {limit: $limit}) " +
+               "YIELD node AS p " +
+               "RETURN id(p) AS id, p.firstName AS firstName, p.middleName AS middleName, " +
+               "p.lastName AS lastName, p.maidenName AS maidenName, " +
+               "p.birthDate.year AS birthYear, p.deathDate.year AS deathYear",
+            Map.of("query", luceneQuery, "limit", limit),
+            row -> suggestions.add(PersonRowMapper.toSuggestion(row)));
+        return suggestions;
+    }
+    
+    @Override
+    public List<PersonSummaryDTO> findSimilarNameCandidates(String phoneticQuery, String fuzzyQuery, int limit) {
+        String names = "CALL db.index.fulltext.queryNodes('person_names', $fuzzyQuery, {limit: $limit}) " +
+                       "YIELD node RETURN node ";
+        String phonetic = "CALL db.index.fulltext.queryNodes('person_phonetic', $phoneticQuery, {limit: $limit}) " +
+                          "YIELD node RETURN node ";
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("fuzzyQuery", fuzzyQuery);
+        parameters.put("phoneticQuery", phoneticQuery);
+        parameters.put("limit", limit);
+        return summaries("CALL { " + (phoneticQuery != null ? phonetic + "UNION " : "") + names + "} " +
+                         "WITH node AS p " +
+                         PersonRowMapper.SUMMARY_ROW,
+            parameters);
+    }
+    
+    @Override
+    public List<PersonSummaryDTO> findSummariesWithoutPhoneticKeys(int limit) {
+        return summaries("MATCH (p:Person) WHERE p.phoneticKeys IS NULL " +
+                         "WITH p LIMIT $limit " +
+                         PersonRowMapper.SUMMARY_ROW,
+            Map.of("limit", limit));
+    }
+    
+    @Override
+    public void setPhoneticKeys(Map<Long, String> keysById) {
+        List<Map<String, Object>> rows = new ArrayList<>(keysById.size());
+        keysById.forEach((id, keys) -> rows.add(Map.of("id", id, "keys", keys)));
+        neo4jClient.query("UNWIND $rows AS row " +
+                          "MATCH (p:Person) WHERE id(p) = row.id " +
+                          "SET p.phoneticKeys = row.keys")
+            .bind(rows).to("rows")
+            .run();
+    }
+    
+    @Override
+    public List<PersonSummaryDTO> findSiblingSummaries(Long personId) {
+        return summaries("MATCH (me:Person)<-[:PARENT_OF]-(:Person)-[:PARENT_OF]->(p:Person) " +
+                         "WHERE id(me) = $personId AND p <> me " +
+                         "WITH DISTINCT p " +
+                         PersonRowMapper.SUMMARY_ROW,
+            Map.of("personId", personId));
+    }
+    
+    @Override
+    public List<PersonSummaryDTO> findRelationshipPathSummaries(Long person1Id, Long person2Id) {
+        return summaries("MATCH path = shortestPath((p1:Person)-[*]-(p2:Person)) " +
+                         "WHERE id(p1) = $person1Id AND id(p2) = $person2Id " +
+                         "UNWIND range(0, length(path)) AS position " +
+                         "WITH nodes(path)[position] AS p, position ORDER BY position " +
+                         PersonRowMapper.SUMMARY_ROW,
+            Map.of("person1Id", person1Id, "person2Id", person2Id));
+    }
+    
+    @Override
+    public List<PersonSummaryDTO> findSummariesById(Collection<Long> ids) {
+        return summaries("MATCH (p:Person) WHERE id(p) IN $ids " + PersonRowMapper.SUMMARY_ROW,
+            Map.of("ids", ids));
+    }
+    
+    @Override
+    public List<PersonDTO> findLineage(Long personId, int ancestorDepth, int descendantDepth) {
+        String cypher = "MATCH (root:Person) WHERE id(root) = $personId " +
+                        lineageCall(ancestorDepth, descendantDepth) +
+                        "WITH p, generation ORDER BY abs(generation), generation, id(p) " +
+                        PersonRowMapper.PERSON_ROW + ", generation";
+        
+        List<PersonDTO> lineage = new ArrayList<>();
+        stream(cypher, Map.of("personId", personId), row -> {
+            PersonDTO person = PersonRowMapper.toPersonDTO(row);
+            person.setGeneration(row.get("generation").asInt());
+            lineage.add(person);
+        });
+        return lineage;
+    }
+    
+    @Override
+    public void forEachLineageMember(Long personId, int ancestorDepth, int descendantDepth,
+                                     Consumer<PersonDTO> consumer) {
+        String cypher = "MATCH (root:Person) WHERE id(root) = $personId " +
+                        lineageCall(ancestorDepth, descendantDepth) +
+                        "WITH p, generation ORDER BY generation > 0, abs(generation), id(p) " +
+                        PersonRowMapper.PERSON_ROW + ", generation";
+        
+        stream(cypher, Map.of("personId", personId), row -> {
+            PersonDTO person = PersonRowMapper.toPersonDTO(row);
+            person.setGeneration(row.get("generation").asInt());
+            consumer.accept(person);
+        });
+    }
+    
+    @Override
+    public Map<Long, List<PersonDTO>> findLineages(Collection<Long> personIds, int ancestorDepth, int descendantDepth) {
+        // One row per distinct relative, listing every [root, generation] it belongs to
+        String cypher = "UNWIND $ids AS rootId " +
+                        "MATCH (root:Person) WHERE id(root) = rootId " +
+                        lineageCall(ancestorDepth, descendantDepth) +
+                        "WITH p, collect([rootId, generation]) AS memberships " +
+                        PersonRowMapper.PERSON_ROW + ", memberships";
+        
+        Map<Long, List<PersonDTO>> lineages = new HashMap<>();
+        stream(cypher, Map.of("ids", personIds), row -> {
+            for (Value membership : row.get("memberships").values()) {
+                PersonDTO person = PersonRowMapper.toPersonDTO(row);
+                person.setGeneration(membership.get(1).asInt());
+                lineages.computeIfAbsent(membership.get(0).asLong(), id -> new ArrayList<>()).add(person);
+            }
+        });
+        Comparator<PersonDTO> nearestFirst = Comparator
+            .comparingInt((PersonDTO person) -> Math.abs(person.getGeneration()))
+            .thenComparingInt(PersonDTO::getGeneration)
+            .thenComparingLong(PersonDTO::getId);
+        lineages.values().forEach(lineage -> lineage.sort(nearestFirst));
+        return lineages;
+    }
+    
+    /**
+     * {@code CALL} yielding {@code p, generation} for {@code root}: itself, its ancestors (negative)
+     * and descendants (positive), each at its minimum distance.
+     */
+    private static String lineageCall(int ancestorDepth, int descendantDepth) {
+        // Variable-length bounds cannot be parameters, so the (int) depths are inlined
+        StringBuilder cypher = new StringBuilder("CALL { WITH root RETURN root AS p, 0 AS generation ");
+        if (ancestorDepth > 0) {
+            cypher.append("UNION WITH root MATCH path = (p:Person)-[:PARENT_OF*1..").append(ancestorDepth).append("]->(root) ")
+                .append("RETURN p, -min(length(path)) AS generation ");
+        }
+        if (descendantDepth > 0) {
+            cypher.append("UNION WITH root MATCH path = (root)-[:PARENT_OF*1..").append(descendantDepth).append("]->(p:Person) ")
+                .append("RETURN p, min(length(path)) AS generation ");
+        }
+        return cypher.append("} ").toString();
+    }
+    
+    @Override
+    public List<PersonDTO> findPersonsById(List<Long> ids) {
+        List<PersonDTO> persons = new ArrayList<>(ids.size());
+        stream("UNWIND $ids AS personId " +
+               "MATCH (p:Person) WHERE id(p) = personId " +
+               PersonRowMapper.PERSON_ROW,
+            Map.of("ids", ids),
+            row -> persons.add(PersonRowMapper.toPersonDTO(row)));
+        return persons;
+    }
+    
+    @Override
+    public Map<Long, Long> findVersions(Collection<Long> ids) {
+        return versions("UNWIND $ids AS personId " +
+                        "MATCH (p:Person) WHERE id(p) = personId " +
+                        VERSION_ROW, Map.of("ids", ids));
+    }
+    
+    @Override
+    public Map<Long, Long> findNeighbourhoodVersions(Long personId) {
+        return versions("MATCH (root:Person) WHERE id(root) = $personId " +
+                        "CALL { WITH root RETURN root AS p " +
+                        "UNION WITH root MATCH (root)-[:PARENT_OF|SPOUSE_OF]-(p:Person) RETURN p } " +
+                        VERSION_ROW, Map.of("personId", personId));
+    }
+    
+    @Override
+    public Map<Long, Long> findLineageVersions(Long personId, int ancestorDepth, int descendantDepth) {
+        return versions("MATCH (root:Person) WHERE id(root) = $personId " +
+                        lineageCall(ancestorDepth, descendantDepth) +
+                        "WITH DISTINCT p " +
+                        VERSION_ROW, Map.of("personId", personId));
+    }
+    
+    @Override
+    public Optional<PersonDTO> patchPerson(Long personId, Map<String, Object> properties, Long expectedVersion) {
+        // Taking the write lock before reading the version keeps check and write atomic under concurrent patches
+        String cypher = "MATCH (p:Person) WHERE id(p) = $personId " +
+                        "SET p._lock = true REMOVE p._lock " +
+                        "WITH p, coalesce(p.version, 0) AS current " +
+                        "WITH p, current, $expectedVersion IS NULL OR current = $expectedVersion AS applied " +
+                        "FOREACH (_ IN CASE WHEN applied THEN [1] ELSE [] END | " +
+                        "  SET p += $properties, p.version = current + 1 " +
+                        "  SET p.nameSortKey = " + NAME_SORT_KEY + ") " +
+                        "WITH p, current, applied " +
+                        PersonRowMapper.PERSON_ROW + ", current, applied";
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("personId", personId);
+        parameters.put("properties", properties);
+        parameters.put("expectedVersion", expectedVersion);
+        List<Record> rows = new ArrayList<>(1);
+        stream(cypher, parameters, rows::add);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Record row = rows.get(0);
+        if (!row.get("applied").asBoolean()) {
+            throw new OptimisticLockingFailureException("Person " + personId + " is at version " +
+                row.get("current").asLong() + ", not " + expectedVersion);
+        }
+        return Optional.of(PersonRowMapper.toPersonDTO(row));
+    }
+    
+    @Override
+    public long[] touchRelatives(Long personId) {
+        return neo4jClient.query("MATCH (p:Person)-[:PARENT_OF|SPOUSE_OF]-(n:Person) WHERE id(p) = $personId " +
+                                 "WITH DISTINCT n " +
+                                 "SET n.version = coalesce(n.version, 0) + 1 " +
+                                 "RETURN id(n) AS id")
+            .bind(personId).to("personId")
+            .fetchAs(Long.class)
+            .mappedBy((typeSystem, row) -> row.get("id").asLong())
+            .all()
+            .stream()
+            .mapToLong(Long::longValue)
+            .toArray();
+    }
+    
+    private Map<Long, Long> versions(String cypher, Map<String, Object> parameters) {
+        Map<Long, Long> versions = new HashMap<>();
+        stream(cypher, parameters, row -> versions.put(row.get("id").asLong(), row.get("version").asLong()));
+        return versions;
+    }
+    
+    @Override
+    public boolean isAncestor(Long ancestorId, Long personId) {
+        return neo4jClient.query("MATCH (a:Person), (p:Person) " +
+                                 "WHERE id(a) = $ancestorId AND id(p) = $personId " +
+                                 "RETURN EXISTS { MATCH (a)-[:PARENT_OF*1..]->(p) } AS reachable")
+            .bind(ancestorId).to("ancestorId")
+            .bind(personId).to("personId")
+            .fetchAs(Boolean.class)
+            .mappedBy((typeSystem, row) -> row.get("reachable").asBoolean())
+            .one()
+            .orElse(false);
+    }
+    
+    @Override
+    public Map<Long, long[]> findAncestorParentIds(Collection<Long> personIds, int maxDepth) {
+        Map<Long, long[]> parentIds = new HashMap<>();
+        stream("MATCH (start:Person) WHERE id(start) IN $ids " +
+               "MATCH (start)<-[:PARENT_OF*0.." + maxDepth + "]-(a:Person) " +
+               "WITH DISTINCT a " +
+               "RETURN id(a) AS id, [(parent:Person)-[:PARENT_OF]->(a) | id(parent)] AS parentIds",
+            Map.of("ids", personIds),
+            row -> parentIds.put(row.get("id").asLong(),
+                row.get("parentIds").asList(Value::asLong).stream().mapToLong(Long::longValue).toArray()));
+        return parentIds;
+    }
+    
+    @Override
+    public List<EdgeWrite> mergeParentChildEdges(List<RelationshipDTO> edges) {
+        return mergeEdges("UNWIND $rows AS row " +
+                          "OPTIONAL MATCH (a:Person) WHERE id(a) = row.from " +
+                          "OPTIONAL MATCH (b:Person) WHERE id(b) = row.to " +
+                          "OPTIONAL MATCH (a)-[existing:PARENT_OF]->(b) " +
+                          "WITH row, a, b, count(existing) > 0 AS existed " +
+                          "FOREACH (_ IN CASE WHEN a IS NOT NULL AND b IS NOT NULL AND NOT existed THEN [1] ELSE [] END | " +
+                          "  MERGE (a)-[:PARENT_OF]->(b) " +
+                          BUMP_VERSIONS + ") " +
+                          EDGE_WRITE_ROW, edges);
+    }
+    
+    @Override
+    public List<EdgeWrite> mergeSpouseEdges(List<RelationshipDTO> edges) {
+        return mergeEdges("UNWIND $rows AS row " +
+                          "OPTIONAL MATCH (a:Person) WHERE id(a) = row.from " +
+                          "OPTIONAL MATCH (b:Person) WHERE id(b) = row.to " +
+                          "OPTIONAL MATCH (a)-[existing:SPOUSE_OF]-(b) " +
+                          "WITH row, a, b, count(existing) > 0 AS existed " +
+                          "FOREACH (_ IN CASE WHEN a IS NOT NULL AND b IS NOT NULL AND NOT existed THEN [1] ELSE [] END | " +
+                          "  MERGE (a)-[:SPOUSE_OF]->(b) " +
+                          "  MERGE (b)-[:SPOUSE_OF]->(a) " +
+                          BUMP_VERSIONS + ") " +
+                          EDGE_WRITE_ROW, edges);
+    }
+    
+    @Override
+    public Optional<RelationshipDTO> findCycle(List<RelationshipDTO> parentChildEdges) {
+        return neo4jClient.query("UNWIND $rows AS row " +
+                                 "MATCH (parent:Person), (child:Person) " +
+                                 "WHERE id(parent) = row.from AND id(child) = row.to " +
+                                 "AND EXISTS { MATCH (child)-[:PARENT_OF*1..]->(parent) } " +
+                                 "RETURN row.from AS parentId, row.to AS childId LIMIT 1")
+            .bind(edgeRows(parentChildEdges)).to("rows")
+            .fetchAs(RelationshipDTO.class)
+            .mappedBy((typeSystem, row) -> RelationshipDTO.builder()
+                .person1Id(row.get("parentId").asLong())
+                .person2Id(row.get("childId").asLong())
+                .relationshipType("PARENT")
+                .build())
+            .one();
+    }
+    
+    @Override
+    public void awaitIndexes() {
+        neo4jClient.query("CALL db.awaitIndexes(300)").run();
+    }
+    
+    @Override
+    public long createImportedPersons(String importBatch, List<Map<String, Object>> rows) {
+        return neo4jClient.query("UNWIND $rows AS row " +
+                                 "CREATE (p:Person) " +
+                                 "SET p = row, p.importBatch = $importBatch, p.version = 0 " +
+                                 "SET p.nameSortKey = " + NAME_SORT_KEY)
+            .bind(importBatch).to("importBatch")
+            .bind(rows).to("rows")
+            .run()
+            .counters()
+            .nodesCreated();
+    }
+    
+    @Override
+    public long linkImportedParents(String importBatch, List<Map<String, Object>> rows) {
+        return countLinked("UNWIND $rows AS row " +
+                           "MATCH (parent:Person {importBatch: $importBatch, importKey: row.parent}) " +
+                           "MATCH (child:Person {importBatch: $importBatch, importKey: row.child}) " +
+                           "MERGE (parent)-[:PARENT_OF]->(child) " +
+                           "ON CREATE SET parent.version = parent.version + 1, child.version = child.version + 1 " +
+                           "RETURN count(*) AS linked", importBatch, rows);
+    }
+    
+    @Override
+    public long linkImportedSpouses(String importBatch, List<Map<String, Object>> rows) {
+        return countLinked("UNWIND $rows AS row " +
+                           "MATCH (a:Person {importBatch: $importBatch, importKey: row.person1}) " +
+                           "MATCH (b:Person {importBatch: $importBatch, importKey: row.person2}) " +
+                           "MERGE (a)-[:SPOUSE_OF]->(b) " +
+                           "ON CREATE SET a.version = a.version + 1, b.version = b.version + 1 " +
+                           "MERGE (b)-[:SPOUSE_OF]->(a) " +
+                           "RETURN count(*) AS linked", importBatch, rows);
+    }
+    
+    private List<EdgeWrite> mergeEdges(String cypher, List<RelationshipDTO> edges) {
+        EdgeWrite[] results = new EdgeWrite[edges.size()];
+        stream(cypher, Map.of("rows", edgeRows(edges)), row -> {
+            int position = row.get("position").asInt();
+            if (!row.get("firstFound").asBoolean()) {
+                results[position] = EdgeWrite.FIRST_NOT_FOUND;
+            } else if (!row.get("secondFound").asBoolean()) {
+                results[position] = EdgeWrite.SECOND_NOT_FOUND;
+            } else {
+                results[position] = row.get("existed").asBoolean() ? EdgeWrite.ALREADY_EXISTS : EdgeWrite.CREATED;
+            }
+        });
+        return List.of(results);
+    }
+    
+    private static List<Map<String, Object>> edgeRows(List<RelationshipDTO> edges) {
+        List<Map<String, Object>> rows = new ArrayList<>(edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            RelationshipDTO edge = edges.get(i);
+            rows.add(Map.of("position", i, "from", edge.getPerson1Id(), "to", edge.getPerson2Id()));
+        }
+        return rows;
+    }
+    
+    private long countLinked(String cypher, String importBatch, List<Map<String, Object>> rows) {
+        return neo4jClient.query(cypher)
+            .bind(importBatch).to("importBatch")
+            .bind(rows).to("rows")
+            .fetchAs(Long.class)
+            .mappedBy((typeSystem, row) -> row.get("linked").asLong())
+            .one()
+            .orElse(0L);
+    }
+    
+    private List<PersonSummaryDTO> summaries(String cypher, Map<String, Object> parameters) {
+        List<PersonSummaryDTO> result = new ArrayList<>();
+        stream(cypher, parameters, row -> result.add(PersonRowMapper.toSummary(row)));
+        return result;
+    }
+    
+    private void stream(String cypher, Map<String, Object> parameters, Consumer<Record> consumer) {
+        neo4jClient.<Void>delegateTo(runner -> {
+            Result result = runner.run(cypher, parameters);
+            while (result.hasNext()) {
+                consumer.accept(result.next());
+            }
+            return Optional.empty();
+        }).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.familytree.repository;
+
+import com.familytree.config.FamilyTreeProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Times every {@link PersonRepository} call as {@value #QUERY_TIMER}, tagged with the method name
+ * and its depth arguments, and counts the rows it returned under {@value #ROWS_COUNTER}.
+ * Calls slower than {@code familytree.query-metrics.slow-query-threshold} are logged.
+ * Methods that hand rows to a callback return nothing to count; only their time is recorded.
+ */
+@Aspect
+@Component
+@Slf4j
+public class PersonRepositoryMetrics {
+    
+    static final String QUERY_TIMER = "familytree.repository.query";
+    static final String ROWS_COUNTER = "familytree.repository.rows";
+    
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration slowQueryThreshold;
+    
+    public PersonRepositoryMetrics(MeterRegistry meterRegistry, FamilyTreeProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = properties.getQueryMetrics().isEnabled();
+        this.slowQueryThreshold = properties.getQueryMetrics().getSlowQueryThreshold();
+    }
+    
+    @Around("target(com.familytree.repository.PersonRepository)")
+    public Object measure(ProceedingJoinPoint call) throws Throwable {
+        if (!enabled) {
+            return call.proceed();
+        }
+        MethodSignature signature = (MethodSignature) call.getSignature();
+        String query = signature.getName();
+        String depth = depth(signature.getParameterNames(), call.getArgs());
+        long start = System.nanoTime();
+        String outcome = "error";
+        Object result = null;
+        try {
+            result = call.proceed();
+            outcome = "success";
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder(QUERY_TIMER)
+                .tag("query", query)
+                .tag("depth", depth)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(elapsed));
+            long rows = rows(signature.getReturnType(), result);
+            if (rows >= 0) {
+                Counter.builder(ROWS_COUNTER)
+                    .tag("query", query)
+                    .tag("depth", depth)
+                    .register(meterRegistry)
+                    .increment(rows);
+            }
+            if (elapsed >= slowQueryThreshold.toNanos()) {
+                log.warn("Slow query {}({}) took {} ms, {} rows, {}", query, describe(call.getArgs()),
+                    elapsed / 1_000_000, rows >= 0 ? rows : "?", outcome);
+            }
+        }
+    }
+    
+    /**
+     * Values of the parameters named {@code depth} or {@code ...Depth}, joined with "/"; "none" without any.
+     */
+    static String depth(String[] parameterNames, Object[] args) {
+        List<String> depths = new ArrayList<>(2);
+        for (int i = 0; parameterNames != null && i < parameterNames.length; i++) {
+            if (parameterNames[i].equals("depth") || parameterNames[i].endsWith("Depth")) {
+                depths.add(String.valueOf(args[i]));
+            }
+        }
+        return depths.isEmpty() ? "none" : String.join("/", depths);
+    }
+    
+    /**
+     * Rows in a query result, or -1 when it has no row count (no return value, or a count or flag).
+     */
+    static long rows(Class<?> returnType, Object result) {
+        if (returnType == void.class || Number.class.isAssignableFrom(returnType) || returnType.isPrimitive()
+                || returnType == Boolean.class) {
+            return -1;
+        }
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Iterable<?> iterable) {
+            return iterable.spliterator().getExactSizeIfKnown();
+        }
+        return 1;
+    }
+    
+    private static String describe(Object[] args) {
+        List<String> described = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            if (arg instanceof Collection<?> collection) {
+                described.add(collection.size() + " items");
+            } else if (arg instanceof Map<?, ?> map) {
+                described.add(map.size() + " entries");
+            } else if (arg == null || arg instanceof Number || arg instanceof CharSequence || arg instanceof Boolean) {
+                described.add(String.valueOf(arg));
+            } else if (arg.getClass().isSynthetic()) {
+                described.add("callback");
+            } else {
+                described.add(arg.getClass().getSimpleName());
+            }
+        }
+        return String.join(", ", described);
+    }
+}
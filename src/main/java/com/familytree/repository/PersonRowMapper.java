@@ -0,0 +1,99 @@
+package com.familytree.repository;
+
+import com.familytree.dto.NameSuggestionDTO;
+import com.familytree.dto.PersonDTO;
+import com.familytree.dto.PersonSummaryDTO;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.Node;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maps person rows straight from driver records to DTOs, bypassing entity hydration.
+ * Queries bind the person as {@code p} and end with {@link #PERSON_ROW} or {@link #SUMMARY_ROW}.
+ */
+final class PersonRowMapper {
+    
+    static final String NEIGHBOUR_IDS =
+        "[(p)-[:PARENT_OF]->(c:Person) | id(c)] AS childrenIds, " +
+        "[(p)<-[:PARENT_OF]-(q:Person) | id(q)] AS parentIds, " +
+        "[(p)-[:SPOUSE_OF]-(s:Person) | id(s)] AS spouseIds";
+    
+    static final String PERSON_ROW = "RETURN id(p) AS id, p, " + NEIGHBOUR_IDS;
+    
+    static final String SUMMARY_ROW =
+        "RETURN id(p) AS id, p.firstName AS firstName, p.middleName AS middleName, " +
+        "p.lastName AS lastName, p.maidenName AS maidenName, " +
+        "p.birthDate AS birthDate, p.deathDate AS deathDate, " + NEIGHBOUR_IDS;
+    
+    private PersonRowMapper() {
+    }
+    
+    static PersonDTO toPersonDTO(Record row) {
+        Node p = row.get("p").asNode();
+        return PersonDTO.builder()
+            .id(row.get("id").asLong())
+            .firstName(p.get("firstName").asString(null))
+            .middleName(p.get("middleName").asString(null))
+            .lastName(p.get("lastName").asString(null))
+            .maidenName(p.get("maidenName").asString(null))
+            .birthDate(p.get("birthDate").asLocalDate(null))
+            .deathDate(p.get("deathDate").asLocalDate(null))
+            .gender(p.get("gender").asString(null))
+            .biography(p.get("biography").asString(null))
+            .profileImageUrl(p.get("profileImageUrl").asString(null))
+            .birthPlace(p.get("birthPlace").asString(null))
+            .deathPlace(p.get("deathPlace").asString(null))
+            .currentLocation(p.get("currentLocation").asString(null))
+            .occupation(p.get("occupation").asString(null))
+            .nationality(p.get("nationality").asString(null))
+            .isPublic(p.get("isPublic").asBoolean(false))
+            .visibility(p.get("visibility").asString(null))
+            .childrenIds(toIdSet(row.get("childrenIds")))
+            .parentIds(toIdSet(row.get("parentIds")))
+            .spouseIds(toIdSet(row.get("spouseIds")))
+            .version(p.get("version").asLong(0))
+            .build();
+    }
+    
+    static PersonSummaryDTO toSummary(Record row) {
+        return PersonSummaryDTO.builder()
+            .id(row.get("id").asLong())
+            .firstName(row.get("firstName").asString(null))
+            .middleName(row.get("middleName").asString(null))
+            .lastName(row.get("lastName").asString(null))
+            .maidenName(row.get("maidenName").asString(null))
+            .birthDate(row.get("birthDate").asLocalDate(null))
+            .deathDate(row.get("deathDate").asLocalDate(null))
+            .childrenIds(toIdSet(row.get("childrenIds")))
+            .parentIds(toIdSet(row.get("parentIds")))
+            .spouseIds(toIdSet(row.get("spouseIds")))
+            .build();
+    }
+    
+    static NameSuggestionDTO toSuggestion(Record row) {
+        String name = Stream.of(row.get("firstName"), row.get("middleName"), row.get("lastName"))
+            .filter(value -> !value.isNull())
+            .map(Value::asString)
+            .collect(Collectors.joining(" "));
+        return NameSuggestionDTO.builder()
+            .id(row.get("id").asLong())
+            .name(name)
+            .maidenName(row.get("maidenName").asString(null))
+            .birthYear(row.get("birthYear").isNull() ? null : row.get("birthYear").asInt())
+            .deathYear(row.get("deathYear").isNull() ? null : row.get("deathYear").asInt())
+            .build();
+    }
+    
+    static Set<Long> toIdSet(Value ids) {
+        Set<Long> result = new HashSet<>();
+        if (!ids.isNull()) {
+            ids.values().forEach(id -> result.add(id.asLong()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package com.familytree.repository;
+
+import com.familytree.dto.PersonSummaryDTO;
+import lombok.RequiredArgsConstructor;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.TransactionConfig;
+import org.neo4j.driver.reactivestreams.ReactiveResult;
+import org.neo4j.driver.reactivestreams.ReactiveSession;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming reads over the driver's reactive session. Records are pulled from Neo4j only as fast
+ * as the subscriber requests them, so a large traversal never sits in memory as a whole.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactivePersonRepository {
+    
+    private static final String CHILDREN_OF =
+        "UNWIND $parentIds AS parentId " +
+        "MATCH (parent:Person)-[:PARENT_OF]->(p:Person) WHERE id(parent) = parentId " +
+        "WITH DISTINCT p " +
+        PersonRowMapper.SUMMARY_ROW;
+    
+    private final Driver driver;
+    
+    /**
+     * Descendants of a person one generation at a time, nearest first, each tagged with its generation.
+     * A generation is queried only once the previous one has been consumed; a person reachable through
+     * several lines is emitted once, in the nearest generation. Each generation's transaction is
+     * aborted by the server after {@code queryTimeout}, unless that is null.
+     */
+    public Flux<PersonSummaryDTO> streamDescendants(long personId, int maxDepth, Duration queryTimeout) {
+        TransactionConfig config = queryTimeout == null
+            ? TransactionConfig.empty()
+            : TransactionConfig.builder().withTimeout(queryTimeout).build();
+        return Flux.usingWhen(
+            Mono.fromSupplier(() -> driver.session(ReactiveSession.class,
+                SessionConfig.builder().withDefaultAccessMode(AccessMode.READ).build())),
+            session -> {
+                Set<Long> seen = new HashSet<>();
+                seen.add(personId);
+                return generation(session, config, List.of(personId), 1, maxDepth, seen);
+            },
+            ReactiveSession::close);
+    }
+    
+    private Flux<PersonSummaryDTO> generation(ReactiveSession session, TransactionConfig config, List<Long> parentIds,
+                                              int generation, int maxDepth, Set<Long> seen) {
+        if (parentIds.isEmpty() || generation > maxDepth) {
+            return Flux.empty();
+        }
+        List<Long> next = new ArrayList<>();
+        // A retried transaction replays its records; the seen set drops the ones already emitted
+        Flux<PersonSummaryDTO> current = Flux.from(session.executeRead(tx ->
+                Flux.from(tx.run(CHILDREN_OF, Map.of("parentIds", parentIds))).flatMap(ReactiveResult::records), config))
+            .map(PersonRowMapper::toSummary)
+            .filter(person -> seen.add(person.getId()))
+            .doOnNext(person -> {
+                person.setGeneration(generation);
+                next.add(person.getId());
+            });
+        return current.concatWith(Flux.defer(() -> generation(session, config, next, generation + 1, maxDepth, seen)));
+    }
+}
@@ -2,8 +2,12 @@ package com.familytree.repository;
 
 import com.familytree.model.User;
 import org.springframework.data.neo4j.repository.Neo4jRepository;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -19,4 +23,12 @@ public interface UserRepository extends Neo4jRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+    
+    /**
+     * Set {@code lastLoginAt} for each {@code {username, at}} row in one statement, touching no other property.
+     */
+    @Query("UNWIND $logins AS login " +
+           "MATCH (u:User {username: login.username}) " +
+           "SET u.lastLoginAt = login.at")
+    void updateLastLogins(@Param("logins") List<Map<String, Object>> logins);
 }
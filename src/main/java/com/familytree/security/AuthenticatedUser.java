@@ -0,0 +1,28 @@
+package com.familytree.security;
+
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The user behind a verified token, as resolved from the database when the token was first seen.
+ */
+@Value
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    Long userId;
+    String username;
+    List<GrantedAuthority> authorities;
+    
+    /**
+     * Expiry of the token this was resolved for; the cache entry never outlives it.
+     */
+    Instant tokenExpiresAt;
+    
+    @Override
+    public String getName() {
+        return username;
+    }
+}
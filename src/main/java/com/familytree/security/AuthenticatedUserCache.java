@@ -0,0 +1,127 @@
+package com.familytree.security;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.model.User;
+import com.familytree.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Resolves bearer tokens to users. The signature and expiry are checked on every request; the
+ * database read for the user and roles happens once per token id and is then reused until
+ * {@code familytree.auth.principal-cache-ttl} passes or the token expires, whichever comes first.
+ * Role changes made through {@code UserService} take effect at once through {@link #evictUser};
+ * an account disabled, deleted or re-enabled directly in the database keeps its old standing until
+ * its cached entry expires, at most {@code principal-cache-ttl} later.
+ */
+@Component
+public class AuthenticatedUserCache implements MeterBinder {
+    
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+    private final Cache<String, Resolution> byTokenId;
+    
+    public AuthenticatedUserCache(JwtService jwtService, UserRepository userRepository,
+                                  FamilyTreeProperties properties) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        Duration ttl = properties.getAuth().getPrincipalCacheTtl();
+        this.byTokenId = Caffeine.newBuilder()
+            .maximumSize(properties.getAuth().getPrincipalCacheMaximumSize())
+            .expireAfter(new Expiry<String, Resolution>() {
+                @Override
+                public long expireAfterCreate(String tokenId, Resolution resolution, long currentTime) {
+                    Duration untilExpiry = Duration.between(Instant.now(), resolution.tokenExpiresAt);
+                    return Math.max(0, Math.min(untilExpiry.toNanos(), ttl.toNanos()));
+                }
+                
+                @Override
+                public long expireAfterUpdate(String tokenId, Resolution resolution, long currentTime,
+                                              long currentDuration) {
+                    return expireAfterCreate(tokenId, resolution, currentTime);
+                }
+                
+                @Override
+                public long expireAfterRead(String tokenId, Resolution resolution, long currentTime,
+                                            long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
+    }
+    
+    /**
+     * The enabled user a valid token was issued to; empty for bad signatures, expired tokens and
+     * unknown or disabled users. Unknown and disabled users are cached like known ones, so a token
+     * of a deleted account does not reach the database on every request either.
+     */
+    public Optional<AuthenticatedUser> resolve(String token) {
+        Optional<Claims> verified = jwtService.verify(token);
+        if (verified.isEmpty()) {
+            return Optional.empty();
+        }
+        Claims claims = verified.get();
+        if (claims.getId() == null) {
+            return Optional.ofNullable(load(claims).user);
+        }
+        return Optional.ofNullable(byTokenId.get(claims.getId(), tokenId -> load(claims)).user);
+    }
+    
+    /**
+     * Drop every cached token of the user, so the next request reads their roles again.
+     */
+    public void evictUser(String username) {
+        byTokenId.asMap().values().removeIf(resolution -> username.equals(resolution.username));
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byTokenId, "authenticatedUsers");
+    }
+    
+    private Resolution load(Claims claims) {
+        Instant tokenExpiresAt = claims.getExpiration().toInstant();
+        AuthenticatedUser authenticated = userRepository.findByUsername(claims.getSubject())
+            .filter(User::isEnabled)
+            .map(user -> new AuthenticatedUser(user.getId(), user.getUsername(), authorities(user), tokenExpiresAt))
+            .orElse(null);
+        return new Resolution(claims.getSubject(), authenticated, tokenExpiresAt);
+    }
+    
+    private static List<GrantedAuthority> authorities(User user) {
+        return user.getRoles().stream()
+            .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+            .toList();
+    }
+    
+    /**
+     * What a token resolved to: its enabled user, or null when the user is unknown or disabled.
+     */
+    private static final class Resolution {
+        
+        private final String username;
+        private final AuthenticatedUser user;
+        private final Instant tokenExpiresAt;
+        
+        Resolution(String username, AuthenticatedUser user, Instant tokenExpiresAt) {
+            this.username = username;
+            this.user = user;
+            this.tokenExpiresAt = tokenExpiresAt;
+        }
+    }
+}
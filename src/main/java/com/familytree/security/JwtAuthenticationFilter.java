@@ -0,0 +1,40 @@
+package com.familytree.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>}. Requests without a valid
+ * token pass through unauthenticated and are turned away by the authorization rules if needed.
+ * Not a bean, so it is only registered in the security filter chain and not again as a servlet filter.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    private final AuthenticatedUserCache authenticatedUsers;
+    
+    public JwtAuthenticationFilter(AuthenticatedUserCache authenticatedUsers) {
+        this.authenticatedUsers = authenticatedUsers;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            authenticatedUsers.resolve(header.substring(BEARER_PREFIX.length())).ifPresent(user ->
+                SecurityContextHolder.getContext().setAuthentication(
+                    UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities())));
+        }
+        chain.doFilter(request, response);
+    }
+}
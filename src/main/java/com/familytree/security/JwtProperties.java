@@ -0,0 +1,24 @@
+package com.familytree.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Token settings bound from {@code jwt.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+    
+    /**
+     * HMAC signing secret; at least 32 bytes.
+     */
+    private String secret;
+    
+    /**
+     * Token lifetime; a plain number is read as milliseconds.
+     */
+    private Duration expiration = Duration.ofDays(1);
+}
@@ -0,0 +1,66 @@
+package com.familytree.security;
+
+import com.familytree.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and verifies HS256 access tokens. The signing key and the parser are built once from
+ * {@code jwt.secret} and shared by all requests, so verifying a token costs one HMAC and no key parsing.
+ * Every token carries a random id ({@code jti}) that {@link AuthenticatedUserCache} keys on.
+ */
+@Service
+public class JwtService {
+    
+    static final String ROLES_CLAIM = "roles";
+    
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Duration expiration;
+    
+    public JwtService(JwtProperties properties) {
+        this.signingKey = Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.expiration = properties.getExpiration();
+    }
+    
+    public Duration getExpiration() {
+        return expiration;
+    }
+    
+    public String issue(User user) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+            .id(UUID.randomUUID().toString())
+            .subject(user.getUsername())
+            .claim(ROLES_CLAIM, List.copyOf(user.getRoles()))
+            .issuedAt(Date.from(now))
+            .expiration(Date.from(now.plus(expiration)))
+            .signWith(signingKey)
+            .compact();
+    }
+    
+    /**
+     * Claims of a token with a valid signature that has not expired; empty otherwise.
+     */
+    public Optional<Claims> verify(String token) {
+        try {
+            return Optional.of(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
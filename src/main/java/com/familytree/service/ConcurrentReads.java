@@ -0,0 +1,72 @@
+package com.familytree.service;
+
+import com.familytree.config.FamilyTreeProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read queries of one request at the same time, so the request waits for the
+ * slowest query instead of the sum of all of them. A Neo4j transaction belongs to one session and
+ * cannot be shared between threads, so each query gets its own read-only transaction.
+ * Uses Spring's {@code applicationTaskExecutor}, which runs on virtual threads when
+ * {@code spring.threads.virtual.enabled} is set on Java 21.
+ */
+@Component
+public class ConcurrentReads {
+    
+    private final TaskExecutor executor;
+    private final TransactionTemplate readOnly;
+    private final boolean enabled;
+    
+    public ConcurrentReads(@Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                           PlatformTransactionManager transactionManager,
+                           FamilyTreeProperties properties) {
+        this.executor = executor;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnly.setTimeout((int) Math.max(1, properties.getConcurrentReads().getQueryTimeout().toSeconds()));
+        this.enabled = properties.getConcurrentReads().isEnabled();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Results of all reads, in the order given. Runs them one after another when disabled.
+     */
+    public <T> List<T> all(List<Supplier<T>> reads) {
+        List<T> results = new ArrayList<>(reads.size());
+        if (!enabled || reads.size() < 2) {
+            reads.forEach(read -> results.add(read.get()));
+            return results;
+        }
+        List<CompletableFuture<T>> pending = new ArrayList<>(reads.size());
+        for (Supplier<T> read : reads) {
+            pending.add(CompletableFuture.supplyAsync(() -> readOnly.execute(status -> read.get()), executor));
+        }
+        try {
+            for (CompletableFuture<T> result : pending) {
+                results.add(result.join());
+            }
+        } catch (CompletionException e) {
+            pending.forEach(result -> result.cancel(false));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+}
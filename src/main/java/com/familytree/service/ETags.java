@@ -0,0 +1,47 @@
+package com.familytree.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Strong entity tags over person versions: a digest of the response scope and the sorted
+ * (id, version) pairs of every person the response is built from. Any write to one of them,
+ * or a change in who belongs to the response, yields a different tag.
+ */
+final class ETags {
+    
+    private static final int TAG_BYTES = 18;
+    
+    private ETags() {
+    }
+    
+    /**
+     * Quoted tag; a null version counts as 0, like persons written before versions existed.
+     */
+    static String of(String scope, Map<Long, Long> versionsById) {
+        MessageDigest digest = sha256();
+        digest.update(scope.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer pair = ByteBuffer.allocate(2 * Long.BYTES);
+        new TreeMap<>(versionsById).forEach((id, version) -> {
+            pair.clear();
+            pair.putLong(id).putLong(version != null ? version : 0L);
+            digest.update(pair.array());
+        });
+        byte[] tag = Arrays.copyOf(digest.digest(), TAG_BYTES);
+        return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(tag) + '"';
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.familytree.service;
+
+/**
+ * English names for what one person is to another, given the generations from the first person up
+ * to their common ancestor and from there down to the second person. The second person's gender
+ * picks the word; without one the neutral form is used.
+ */
+final class KinshipNamer {
+    
+    private static final String[] ORDINAL_WORDS = {
+        "first", "second", "third", "fourth", "fifth", "sixth", "seventh", "eighth", "ninth", "tenth"
+    };
+    
+    private KinshipNamer() {
+    }
+    
+    /**
+     * Blood relationship; {@code halfBlood} applies to siblings sharing only one parent.
+     */
+    static String blood(int up, int down, String gender, boolean halfBlood) {
+        if (up == 0 && down == 0) {
+            return "self";
+        }
+        if (up == 0) {
+            return grand(down - 1) + word(gender, "son", "daughter", "child");
+        }
+        if (down == 0) {
+            return grand(up - 1) + word(gender, "father", "mother", "parent");
+        }
+        if (up == 1 && down == 1) {
+            return (halfBlood ? "half-" : "") + word(gender, "brother", "sister", "sibling");
+        }
+        if (up == 1) {
+            return grandEither(down - 2, gender, "nephew", "niece");
+        }
+        if (down == 1) {
+            return grandEither(up - 2, gender, "uncle", "aunt");
+        }
+        int degree = Math.min(up, down) - 1;
+        int removed = Math.abs(up - down);
+        return ordinalWord(degree) + " cousin" + removed(removed);
+    }
+    
+    /**
+     * The second person is a blood relative of the first person's spouse.
+     */
+    static String viaSpouse(int up, int down, String gender) {
+        if (up == 0 && down == 0) {
+            return spouse(gender);
+        }
+        if (up == 0) {
+            // A spouse's descendant: stepson, step-grandson, ...
+            return step(blood(up, down, gender, false));
+        }
+        return blood(up, down, gender, false) + "-in-law";
+    }
+    
+    /**
+     * The second person is the spouse of a blood relative of the first person.
+     */
+    static String spouseOf(int up, int down, String gender) {
+        if (down == 0 && up >= 1) {
+            // An ancestor's spouse who is not a blood ancestor: stepfather, step-grandfather, ...
+            return step(blood(up, down, gender, false));
+        }
+        if (down == 1 && up >= 2) {
+            // An aunt's husband is an uncle
+            return blood(up, down, gender, false);
+        }
+        return blood(up, down, gender, false) + "-in-law";
+    }
+    
+    private static String step(String relation) {
+        return relation.startsWith("grand") || relation.startsWith("great") || Character.isDigit(relation.charAt(0))
+            ? "step-" + relation
+            : "step" + relation;
+    }
+    
+    static String spouse(String gender) {
+        return word(gender, "husband", "wife", "spouse");
+    }
+    
+    /**
+     * "", "grand", "great-grand", "2nd great-grand", ... for {@code extra} generations beyond the nearest.
+     */
+    private static String grand(int extra) {
+        if (extra <= 0) {
+            return "";
+        }
+        if (extra == 1) {
+            return "grand";
+        }
+        if (extra == 2) {
+            return "great-grand";
+        }
+        return ordinalNumber(extra - 1) + " great-grand";
+    }
+    
+    private static String grandEither(int extra, String gender, String male, String female) {
+        if ("MALE".equals(gender)) {
+            return grand(extra) + male;
+        }
+        if ("FEMALE".equals(gender)) {
+            return grand(extra) + female;
+        }
+        return grand(extra) + female + " or " + grand(extra) + male;
+    }
+    
+    private static String word(String gender, String male, String female, String neutral) {
+        if ("MALE".equals(gender)) {
+            return male;
+        }
+        return "FEMALE".equals(gender) ? female : neutral;
+    }
+    
+    private static String removed(int times) {
+        switch (times) {
+            case 0:
+                return "";
+            case 1:
+                return " once removed";
+            case 2:
+                return " twice removed";
+            default:
+                return " " + times + " times removed";
+        }
+    }
+    
+    private static String ordinalWord(int n) {
+        return n <= ORDINAL_WORDS.length ? ORDINAL_WORDS[n - 1] : ordinalNumber(n);
+    }
+    
+    private static String ordinalNumber(int n) {
+        int lastTwo = n % 100;
+        if (lastTwo >= 11 && lastTwo <= 13) {
+            return n + "th";
+        }
+        switch (n % 10) {
+            case 1:
+                return n + "st";
+            case 2:
+                return n + "nd";
+            case 3:
+                return n + "rd";
+            default:
+                return n + "th";
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.familytree.service;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for users' last-login times. Logins only record the time in memory; repeated
+ * logins of one user before the next flush collapse into the latest time, and a background flush
+ * writes all queued users in batches of one UNWIND statement each. Times still queued are written
+ * on shutdown; a failed batch is queued again for the next flush.
+ */
+@Slf4j
+@Component
+public class LastLoginRecorder implements DisposableBean {
+    
+    private final ConcurrentMap<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactions;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+    
+    public LastLoginRecorder(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                             FamilyTreeProperties properties) {
+        this.userRepository = userRepository;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.batchSize = properties.getAuth().getLastLoginBatchSize();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "last-login-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getAuth().getLastLoginFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    public void record(String username) {
+        record(username, LocalDateTime.now());
+    }
+    
+    void record(String username, LocalDateTime at) {
+        pending.merge(username, at, LastLoginRecorder::later);
+    }
+    
+    public int pendingCount() {
+        return pending.size();
+    }
+    
+    /**
+     * Write the users queued when the flush starts; logins recorded meanwhile wait for the next one.
+     *
+     * @return number of users written
+     */
+    public synchronized int flush() {
+        List<String> usernames = new ArrayList<>(pending.keySet());
+        int written = 0;
+        for (int from = 0; from < usernames.size(); from += batchSize) {
+            List<Map<String, Object>> batch = new ArrayList<>(Math.min(batchSize, usernames.size() - from));
+            for (String username : usernames.subList(from, Math.min(from + batchSize, usernames.size()))) {
+                LocalDateTime at = pending.remove(username);
+                if (at != null) {
+                    batch.add(Map.of("username", username, "at", at));
+                }
+            }
+            try {
+                transactions.executeWithoutResult(status -> userRepository.updateLastLogins(batch));
+            } catch (RuntimeException e) {
+                batch.forEach(row -> record((String) row.get("username"), (LocalDateTime) row.get("at")));
+                throw e;
+            }
+            written += batch.size();
+        }
+        return written;
+    }
+    
+    @Override
+    public void destroy() {
+        flusher.shutdown();
+        flushQuietly();
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not write last-login times, {} users stay queued: {}", pending.size(), e.getMessage());
+        }
+    }
+    
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,111 @@
+package com.familytree.service;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.dto.TokenDTO;
+import com.familytree.model.User;
+import com.familytree.security.JwtService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Password login. BCrypt is deliberately slow, so a successful check is remembered for
+ * {@code familytree.auth.credential-cache-ttl}: the cache keeps an HMAC of the password under a key
+ * that exists only in this process, and the stored hash it was checked against. A repeated login
+ * with the same password and an unchanged hash is then accepted without running BCrypt again.
+ */
+@Service
+public class LoginService {
+    
+    private static final String TOKEN_TYPE = "Bearer";
+    
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtService jwtService;
+    private final Cache<String, VerifiedCredential> verified;
+    private final SecretKey digestKey;
+    private final String unknownUserHash;
+    
+    public LoginService(UserService userService, PasswordEncoder passwordEncoder, JwtService jwtService,
+                        FamilyTreeProperties properties) throws GeneralSecurityException {
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+        FamilyTreeProperties.Auth settings = properties.getAuth();
+        this.verified = settings.getCredentialCacheTtl().isZero() ? null : Caffeine.newBuilder()
+            .maximumSize(settings.getCredentialCacheMaximumSize())
+            .expireAfterWrite(settings.getCredentialCacheTtl())
+            .build();
+        this.digestKey = KeyGenerator.getInstance("HmacSHA256").generateKey();
+        // Checked against for unknown users, so they take as long to reject as a wrong password
+        this.unknownUserHash = passwordEncoder.encode("unknown-user");
+    }
+    
+    /**
+     * Token for the user if the password matches; the login time is queued, not written.
+     *
+     * @throws BadCredentialsException for unknown or disabled users and wrong passwords
+     */
+    public TokenDTO login(String username, String password) {
+        if (username == null || password == null) {
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        User user = userService.findByUsername(username).orElse(null);
+        if (user == null) {
+            passwordEncoder.matches(password, unknownUserHash);
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        if (!matches(user, password) || !user.isEnabled()) {
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        userService.updateLastLogin(username);
+        return TokenDTO.builder()
+            .accessToken(jwtService.issue(user))
+            .tokenType(TOKEN_TYPE)
+            .expiresIn(jwtService.getExpiration().toSeconds())
+            .build();
+    }
+    
+    private boolean matches(User user, String password) {
+        if (verified == null) {
+            return passwordEncoder.matches(password, user.getPasswordHash());
+        }
+        byte[] digest = digest(password);
+        VerifiedCredential cached = verified.getIfPresent(user.getUsername());
+        if (cached != null && cached.passwordHash.equals(user.getPasswordHash())
+                && MessageDigest.isEqual(cached.digest, digest)) {
+            return true;
+        }
+        if (!passwordEncoder.matches(password, user.getPasswordHash())) {
+            return false;
+        }
+        verified.put(user.getUsername(), new VerifiedCredential(user.getPasswordHash(), digest));
+        return true;
+    }
+    
+    private byte[] digest(String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(digestKey);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+    
+    @Value
+    private static class VerifiedCredential {
+        String passwordHash;
+        byte[] digest;
+    }
+}
@@ -0,0 +1,93 @@
+package com.familytree.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds Lucene queries for the {@code person_names} full-text index from user input.
+ * Input is lower-cased (wildcard and fuzzy terms bypass the analyzer) and stripped of query syntax.
+ */
+final class NameQuery {
+    
+    private static final int MIN_FUZZY_LENGTH = 4;
+    
+    private NameQuery() {
+    }
+    
+    /**
+     * Every word must match a name field exactly (boosted), by prefix, or within one edit.
+     * Returns null when the input has no searchable words.
+     */
+    static String search(String input) {
+        List<String> words = words(input);
+        if (words.isEmpty()) {
+            return null;
+        }
+        List<String> clauses = new ArrayList<>(words.size());
+        for (String word : words) {
+            StringBuilder clause = new StringBuilder("(").append(word).append("^3 OR ").append(word).append('*');
+            if (word.length() >= MIN_FUZZY_LENGTH) {
+                clause.append(" OR ").append(word).append("~1");
+            }
+            clauses.add(clause.append(')').toString());
+        }
+        return String.join(" AND ", clauses);
+    }
+    
+    /**
+     * Typeahead: completed words must match exactly, the word being typed by prefix.
+     * Returns null when the input has no searchable words.
+     */
+    static String prefix(String input) {
+        List<String> words = words(input);
+        if (words.isEmpty()) {
+            return null;
+        }
+        List<String> clauses = new ArrayList<>(words.subList(0, words.size() - 1));
+        String last = words.get(words.size() - 1);
+        clauses.add("(" + last + "^2 OR " + last + "*)");
+        return String.join(" AND ", clauses);
+    }
+    
+    /**
+     * Every word must be within {@code maxEdits} (at most 2, Lucene's limit) of a name word,
+     * or be a prefix of one. Returns null when the input has no searchable words.
+     */
+    static String fuzzy(String input, int maxEdits) {
+        List<String> words = words(input);
+        if (words.isEmpty()) {
+            return null;
+        }
+        int edits = Math.max(0, Math.min(maxEdits, 2));
+        List<String> clauses = new ArrayList<>(words.size());
+        for (String word : words) {
+            clauses.add(word.length() < MIN_FUZZY_LENGTH
+                ? "(" + word + " OR " + word + "*)"
+                : "(" + word + "~" + edits + " OR " + word + "*)");
+        }
+        return String.join(" AND ", clauses);
+    }
+    
+    private static List<String> words(String input) {
+        List<String> words = new ArrayList<>();
+        if (input == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        String lower = input.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '\'') {
+                word.append(c);
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
@@ -0,0 +1,65 @@
+package com.familytree.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Re-ranks fuzzy / phonetic candidates by how close their names are to what was typed.
+ */
+final class NameSimilarity {
+    
+    private static final int MAX_DISTANCE = 8;
+    
+    private NameSimilarity() {
+    }
+    
+    /**
+     * Sum over the query words of the smallest edit distance to any word of the candidate's names.
+     * Distances are capped, so a word with no close counterpart costs a fixed penalty.
+     */
+    static int distance(List<String> queryWords, String... names) {
+        List<String> nameWords = new ArrayList<>();
+        for (String name : names) {
+            nameWords.addAll(PhoneticKeys.words(name));
+        }
+        int total = 0;
+        for (String queryWord : queryWords) {
+            int best = MAX_DISTANCE;
+            for (String nameWord : nameWords) {
+                best = Math.min(best, levenshtein(queryWord, nameWord, best));
+            }
+            total += best;
+        }
+        return total;
+    }
+    
+    /**
+     * Edit distance, or {@code limit} as soon as it is known to be at least that large.
+     */
+    static int levenshtein(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) >= limit) {
+            return limit;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin >= limit) {
+                return limit;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], limit);
+    }
+}
@@ -0,0 +1,143 @@
+package com.familytree.service;
+
+import com.familytree.dto.LineageDTO;
+import com.familytree.dto.PedigreeEntryDTO;
+import com.familytree.dto.PersonDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Ahnentafel and d'Aboville numbering over an already loaded lineage. Parents and children are
+ * followed through the neighbour ids the lineage members carry, so no further queries are needed.
+ */
+final class PedigreeNumbering {
+    
+    private static final Comparator<PersonDTO> BIRTH_ORDER = Comparator
+        .comparing(PersonDTO::getBirthDate, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()))
+        .thenComparing(PersonDTO::getId);
+    
+    private PedigreeNumbering() {
+    }
+    
+    /**
+     * Ancestors by Ahnentafel number, ascending. The parent recorded as male takes the father's
+     * number and the one recorded as female the mother's; otherwise parents fill the free places by id.
+     */
+    static List<PedigreeEntryDTO> ahnentafel(LineageDTO lineage) {
+        Map<Long, PersonDTO> byId = byId(lineage.getAncestors());
+        List<PedigreeEntryDTO> entries = new ArrayList<>();
+        List<PersonDTO> level = fatherAndMother(lineage.getAncestors().stream()
+            .filter(ancestor -> ancestor.getGeneration() == -1)
+            .toList());
+        List<Long> numbers = List.of(2L, 3L);
+        // Collapsed lines can reach a member again beyond the lineage depth; stop at the depth
+        for (int generation = 1; !level.isEmpty() && generation <= lineage.getGenerationsUp(); generation++) {
+            List<PersonDTO> nextLevel = new ArrayList<>();
+            List<Long> nextNumbers = new ArrayList<>();
+            for (int i = 0; i < level.size(); i++) {
+                PersonDTO ancestor = level.get(i);
+                if (ancestor == null) {
+                    continue;
+                }
+                long number = numbers.get(i);
+                entries.add(PedigreeEntryDTO.builder()
+                    .ahnentafel(number)
+                    .generation(generation)
+                    .person(ancestor)
+                    .build());
+                List<PersonDTO> parents = fatherAndMother(members(ancestor.getParentIds(), byId));
+                if (!parents.isEmpty()) {
+                    nextLevel.addAll(parents);
+                    nextNumbers.add(2 * number);
+                    nextNumbers.add(2 * number + 1);
+                }
+            }
+            level = nextLevel;
+            numbers = nextNumbers;
+        }
+        return entries;
+    }
+    
+    /**
+     * Descendants by d'Aboville number in register order: each person followed by their own
+     * descendants before their next sibling.
+     */
+    static List<PedigreeEntryDTO> daboville(LineageDTO lineage) {
+        Map<Long, PersonDTO> byId = byId(lineage.getDescendants());
+        List<PersonDTO> children = lineage.getDescendants().stream()
+            .filter(descendant -> descendant.getGeneration() == 1)
+            .sorted(BIRTH_ORDER)
+            .toList();
+        List<PedigreeEntryDTO> entries = new ArrayList<>();
+        addDescendants("1", 1, lineage.getGenerationsDown(), children, byId, entries);
+        return entries;
+    }
+    
+    private static void addDescendants(String parentNumber, int generation, int maxGeneration,
+                                       List<PersonDTO> children, Map<Long, PersonDTO> byId,
+                                       List<PedigreeEntryDTO> entries) {
+        if (generation > maxGeneration) {
+            return;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            PersonDTO child = children.get(i);
+            String number = parentNumber + "." + (i + 1);
+            entries.add(PedigreeEntryDTO.builder()
+                .daboville(number)
+                .generation(generation)
+                .person(child)
+                .build());
+            List<PersonDTO> grandchildren = members(child.getChildrenIds(), byId);
+            grandchildren.sort(BIRTH_ORDER);
+            addDescendants(number, generation + 1, maxGeneration, grandchildren, byId, entries);
+        }
+    }
+    
+    /**
+     * [father, mother], either possibly null; empty when there are no parents.
+     */
+    private static List<PersonDTO> fatherAndMother(List<PersonDTO> parents) {
+        if (parents.isEmpty()) {
+            return List.of();
+        }
+        List<PersonDTO> byIdOrder = new ArrayList<>(parents);
+        byIdOrder.sort(Comparator.comparing(PersonDTO::getId));
+        PersonDTO father = byIdOrder.stream().filter(p -> "MALE".equals(p.getGender())).findFirst().orElse(null);
+        PersonDTO mother = byIdOrder.stream().filter(p -> "FEMALE".equals(p.getGender())).findFirst().orElse(null);
+        for (PersonDTO parent : byIdOrder) {
+            if (parent == father || parent == mother) {
+                continue;
+            }
+            if (father == null) {
+                father = parent;
+            } else if (mother == null) {
+                mother = parent;
+            }
+        }
+        List<PersonDTO> result = new ArrayList<>(2);
+        result.add(father);
+        result.add(mother);
+        return result;
+    }
+    
+    private static List<PersonDTO> members(Set<Long> ids, Map<Long, PersonDTO> byId) {
+        List<PersonDTO> members = new ArrayList<>();
+        if (ids != null) {
+            ids.stream().map(byId::get).filter(Objects::nonNull).forEach(members::add);
+        }
+        return members;
+    }
+    
+    private static Map<Long, PersonDTO> byId(List<PersonDTO> persons) {
+        Map<Long, PersonDTO> byId = new HashMap<>(persons.size() * 2);
+        persons.forEach(person -> byId.put(person.getId(), person));
+        return byId;
+    }
+}
@@ -1,19 +1,58 @@
 package com.familytree.service;
 
+import com.familytree.admission.TraversalAdmission;
+import com.familytree.cache.LineageCache;
+import com.familytree.dto.GenerationDTO;
+import com.familytree.dto.KinshipDTO;
 import com.familytree.dto.LineageDTO;
+import com.familytree.dto.NameSuggestionDTO;
+import com.familytree.dto.PedigreeDTO;
+import com.familytree.dto.PedigreeEntryDTO;
+import com.familytree.dto.PersonCursor;
 import com.familytree.dto.PersonDTO;
+import com.familytree.dto.PersonPatchDTO;
+import com.familytree.dto.PersonPairDTO;
+import com.familytree.dto.PersonSortOrder;
+import com.familytree.dto.PersonSummaryDTO;
+import com.familytree.dto.RelationshipBatchResultDTO;
+import com.familytree.dto.RelationshipDTO;
 import com.familytree.exception.InvalidRelationshipException;
 import com.familytree.exception.ResourceNotFoundException;
+import com.familytree.graph.CommonAncestorSearch;
+import com.familytree.graph.FamilyGraphIndex;
+import com.familytree.graph.GraphTraversal;
 import com.familytree.model.Person;
 import com.familytree.repository.PersonRepository;
+import com.familytree.repository.PersonRepositoryCustom.EdgeWrite;
+import com.familytree.repository.ReactivePersonRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * Service for managing persons and genealogical operations.
@@ -22,21 +61,114 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PersonService {
     
+    private static final int SEARCH_LIMIT = 50;
+    private static final int SIMILAR_CANDIDATES = 200;
+    private static final String PARENT = "PARENT";
+    private static final String CHILD = "CHILD";
+    private static final String SPOUSE = "SPOUSE";
+    
     private final PersonRepository personRepository;
+    private final FamilyGraphIndex graphIndex;
+    private final LineageCache lineageCache;
+    private final ConcurrentReads concurrentReads;
+    private final ReactivePersonRepository reactivePersonRepository;
+    private final TraversalAdmission admission;
     
     @Transactional(readOnly = true)
     public Optional<Person> findById(Long id) {
         return personRepository.findById(id);
     }
     
+    public boolean exists(Long id) {
+        return personRepository.existsById(id);
+    }
+    
+    /**
+     * ETag of {@link #findById}'s result from the versions of the person and their relatives alone,
+     * so a conditional GET that matches is answered without hydrating anything; empty when not found.
+     */
+    public Optional<String> getPersonETag(Long id) {
+        Map<Long, Long> versions = personRepository.findNeighbourhoodVersions(id);
+        return versions.isEmpty() ? Optional.empty() : Optional.of(ETags.of(personScope(id), versions));
+    }
+    
+    /**
+     * ETag of a person loaded with {@link #findById}; equal to {@link #getPersonETag} for the same state.
+     */
+    public String personETag(Person person) {
+        Map<Long, Long> versions = new HashMap<>();
+        Stream.of(person.getParents(), person.getChildren(), person.getSpouses())
+            .flatMap(Set::stream)
+            .forEach(relative -> versions.put(relative.getId(), relative.getVersion()));
+        versions.put(person.getId(), person.getVersion());
+        return ETags.of(personScope(person.getId()), versions);
+    }
+    
+    /**
+     * Keyset page of persons; pass the cursor of the previous page's last row to continue.
+     */
+    @Transactional(readOnly = true)
+    public List<PersonDTO> findPage(PersonSortOrder sort, PersonCursor after, int limit) {
+        if (sort == PersonSortOrder.NAME) {
+            if (after == null) {
+                return personRepository.findPageByName(null, null, limit);
+            }
+            if (after.getLastName() == null) {
+                throw new IllegalArgumentException("Cursor was not issued for name ordering");
+            }
+            return personRepository.findPageByName(
+                PersonCursor.nameSortKey(after.getLastName(), after.getFirstName()), after.getId(), limit);
+        }
+        return personRepository.findPageById(after != null ? after.getId() : null, limit);
+    }
+    
+    /**
+     * Stream every person to the consumer without holding the full result in memory.
+     */
     @Transactional(readOnly = true)
-    public List<Person> findAll() {
-        return personRepository.findAll();
+    public void exportAll(Consumer<PersonDTO> consumer) {
+        personRepository.forEachPerson(consumer);
     }
     
     @Transactional(readOnly = true)
     public List<Person> searchByName(String searchTerm) {
-        return personRepository.searchByName(searchTerm);
+        String query = NameQuery.search(searchTerm);
+        return query == null ? List.of() : personRepository.searchByName(query);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<PersonSummaryDTO> searchSummariesByName(String searchTerm) {
+        String query = NameQuery.search(searchTerm);
+        return query == null ? List.of() : personRepository.searchSummariesByName(query, SEARCH_LIMIT);
+    }
+    
+    /**
+     * Typeahead over all name fields; the last word is matched as a prefix.
+     * A single index lookup, run without an explicit transaction to save the extra round trips.
+     */
+    public List<NameSuggestionDTO> autocomplete(String prefix, int limit) {
+        String query = NameQuery.prefix(prefix);
+        return query == null ? List.of() : personRepository.autocompleteNames(query, limit);
+    }
+    
+    /**
+     * Persons whose names sound like, or are within {@code maxEdits} typos of, the given name.
+     * Candidates come from the phonetic and name indexes and are ranked by edit distance.
+     */
+    public List<PersonSummaryDTO> findSimilarNames(String name, int maxEdits) {
+        String fuzzyQuery = NameQuery.fuzzy(name, maxEdits);
+        if (fuzzyQuery == null) {
+            return List.of();
+        }
+        List<String> words = PhoneticKeys.words(name);
+        return personRepository.findSimilarNameCandidates(PhoneticKeys.query(name), fuzzyQuery, SIMILAR_CANDIDATES)
+            .stream()
+            .sorted(Comparator.comparingInt((PersonSummaryDTO candidate) -> NameSimilarity.distance(words,
+                    candidate.getFirstName(), candidate.getMiddleName(),
+                    candidate.getLastName(), candidate.getMaidenName()))
+                .thenComparing(PersonSummaryDTO::getId))
+            .limit(SEARCH_LIMIT)
+            .toList();
     }
     
     @Transactional
@@ -58,39 +190,61 @@ public class PersonService {
             .nationality(dto.getNationality())
             .isPublic(dto.isPublic())
             .visibility(dto.getVisibility())
+            .phoneticKeys(phoneticKeys(dto))
+            .nameSortKey(PersonCursor.nameSortKey(dto.getLastName(), dto.getFirstName()))
             .build();
         
-        return personRepository.save(person);
+        Person saved = personRepository.save(person);
+        afterCommit(() -> graphIndex.personAdded(saved.getId()));
+        return saved;
     }
     
+    /**
+     * Overwrite every field of the person. Written with the same property SET as {@link #patchPerson}
+     * rather than by saving the loaded entity, which would also save, and bump the versions of, the
+     * relatives it was loaded with.
+     */
     @Transactional
     public Person updatePerson(Long id, PersonDTO dto) {
-        Person person = personRepository.findById(id)
+        Map<String, Object> properties = new HashMap<>(PersonPatchDTO.replacing(dto).getChanges());
+        properties.put("phoneticKeys", phoneticKeys(dto));
+        personRepository.patchPerson(id, properties, null)
             .orElseThrow(() -> new ResourceNotFoundException("Person", id));
-        
-        person.setFirstName(dto.getFirstName());
-        person.setMiddleName(dto.getMiddleName());
-        person.setLastName(dto.getLastName());
-        person.setMaidenName(dto.getMaidenName());
-        person.setBirthDate(dto.getBirthDate());
-        person.setDeathDate(dto.getDeathDate());
-        person.setGender(dto.getGender());
-        person.setBiography(dto.getBiography());
-        person.setProfileImageUrl(dto.getProfileImageUrl());
-        person.setBirthPlace(dto.getBirthPlace());
-        person.setDeathPlace(dto.getDeathPlace());
-        person.setCurrentLocation(dto.getCurrentLocation());
-        person.setOccupation(dto.getOccupation());
-        person.setNationality(dto.getNationality());
-        person.setPublic(dto.isPublic());
-        person.setVisibility(dto.getVisibility());
-        
-        return personRepository.save(person);
+        afterCommit(() -> lineageCache.invalidate(id));
+        return personRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Person", id));
+    }
+    
+    /**
+     * Write only the fields present in the patch with one targeted SET, without loading relationships.
+     * With a version in the patch the write is refused if the person has changed since it was read.
+     */
+    @Transactional
+    public PersonDTO patchPerson(Long id, PersonPatchDTO patch) {
+        if (!patch.getUnknownFields().isEmpty()) {
+            throw new IllegalArgumentException("Fields cannot be patched: " + String.join(", ", patch.getUnknownFields()));
+        }
+        if (patch.getChanges().isEmpty()) {
+            throw new IllegalArgumentException("Patch contains no fields to change");
+        }
+        PersonDTO patched = personRepository.patchPerson(id, patch.getChanges(), patch.getVersion())
+            .orElseThrow(() -> new ResourceNotFoundException("Person", id));
+        if (patch.changesName()) {
+            personRepository.setPhoneticKeys(Map.of(id, phoneticKeys(patched)));
+        }
+        afterCommit(() -> lineageCache.invalidate(id));
+        return patched;
     }
     
     @Transactional
     public void deletePerson(Long id) {
+        long[] relatives = personRepository.touchRelatives(id);
         personRepository.deleteById(id);
+        afterCommit(() -> {
+            graphIndex.personRemoved(id);
+            // The relatives' neighbour ids and versions changed too, whether or not a cached entry reached the deleted person
+            lineageCache.relationshipChanged(LongStream.concat(LongStream.of(id), LongStream.of(relatives)).toArray());
+        });
     }
     
     @Transactional
@@ -100,27 +254,36 @@ public class PersonService {
             throw new InvalidRelationshipException("A person cannot be their own parent");
         }
         
-        Person parent = personRepository.findById(parentId)
-            .orElseThrow(() -> new ResourceNotFoundException("Parent", parentId));
-        Person child = personRepository.findById(childId)
-            .orElseThrow(() -> new ResourceNotFoundException("Child", childId));
-        
-        // Check if relationship already exists
-        if (parent.getChildren().contains(child)) {
-            throw new InvalidRelationshipException("Parent-child relationship already exists");
-        }
-        
         // Check for circular relationships (child cannot be an ancestor of parent)
-        List<Person> childAncestors = personRepository.findAncestors(childId, 100);
-        if (childAncestors.stream().anyMatch(a -> a.getId().equals(parentId))) {
+        if (wouldCreateCycle(parentId, childId)) {
             throw new InvalidRelationshipException("Cannot create circular relationship: child is already an ancestor of parent");
         }
         
-        parent.getChildren().add(child);
-        child.getParents().add(parent);
-        
-        personRepository.save(parent);
-        personRepository.save(child);
+        EdgeWrite result = personRepository.mergeParentChildEdges(List.of(edge(parentId, childId, PARENT))).get(0);
+        if (result == EdgeWrite.FIRST_NOT_FOUND) {
+            throw new ResourceNotFoundException("Parent", parentId);
+        }
+        if (result == EdgeWrite.SECOND_NOT_FOUND) {
+            throw new ResourceNotFoundException("Child", childId);
+        }
+        if (result == EdgeWrite.ALREADY_EXISTS) {
+            throw new InvalidRelationshipException("Parent-child relationship already exists");
+        }
+        afterCommit(() -> {
+            graphIndex.parentChildAdded(parentId, childId);
+            lineageCache.relationshipChanged(parentId, childId);
+        });
+    }
+    
+    /**
+     * Cycle check against the in-memory index when it knows both people, otherwise a
+     * short-circuiting reachability query; neither loads any entities.
+     */
+    private boolean wouldCreateCycle(Long parentId, Long childId) {
+        if (graphIndex.isReady() && graphIndex.contains(parentId) && graphIndex.contains(childId)) {
+            return graphIndex.wouldCreateCycle(parentId, childId);
+        }
+        return personRepository.isAncestor(childId, parentId);
     }
     
     @Transactional
@@ -130,52 +293,667 @@ public class PersonService {
             throw new InvalidRelationshipException("A person cannot be their own spouse");
         }
         
-        Person person1 = personRepository.findById(person1Id)
-            .orElseThrow(() -> new ResourceNotFoundException("Person", person1Id));
-        Person person2 = personRepository.findById(person2Id)
-            .orElseThrow(() -> new ResourceNotFoundException("Person", person2Id));
-        
-        // Check if relationship already exists
-        if (person1.getSpouses().contains(person2)) {
+        EdgeWrite result = personRepository.mergeSpouseEdges(List.of(edge(person1Id, person2Id, SPOUSE))).get(0);
+        if (result == EdgeWrite.FIRST_NOT_FOUND) {
+            throw new ResourceNotFoundException("Person", person1Id);
+        }
+        if (result == EdgeWrite.SECOND_NOT_FOUND) {
+            throw new ResourceNotFoundException("Person", person2Id);
+        }
+        if (result == EdgeWrite.ALREADY_EXISTS) {
             throw new InvalidRelationshipException("Spouse relationship already exists");
         }
+        afterCommit(() -> {
+            graphIndex.spousesAdded(person1Id, person2Id);
+            lineageCache.relationshipChanged(person1Id, person2Id);
+        });
+    }
+    
+    /**
+     * Add many relationships in one transaction with one statement per relationship kind.
+     * {@code PARENT} makes person1 the parent of person2, {@code CHILD} the reverse.
+     * Relationships that already exist are skipped; a missing person or a cycle rolls back the batch.
+     */
+    @Transactional
+    public RelationshipBatchResultDTO addRelationships(List<RelationshipDTO> relationships) {
+        Set<RelationshipDTO> parentChild = new LinkedHashSet<>();
+        Set<RelationshipDTO> spouses = new LinkedHashSet<>();
+        for (RelationshipDTO relationship : relationships) {
+            Long person1Id = relationship.getPerson1Id();
+            Long person2Id = relationship.getPerson2Id();
+            if (person1Id == null || person2Id == null) {
+                throw new InvalidRelationshipException("Both person1Id and person2Id are required");
+            }
+            if (person1Id.equals(person2Id)) {
+                throw new InvalidRelationshipException("A person cannot be related to themselves");
+            }
+            String type = relationship.getRelationshipType() == null
+                ? "" : relationship.getRelationshipType().toUpperCase(Locale.ROOT);
+            switch (type) {
+                case PARENT -> parentChild.add(edge(person1Id, person2Id, PARENT));
+                case CHILD -> parentChild.add(edge(person2Id, person1Id, PARENT));
+                case SPOUSE -> spouses.add(person1Id < person2Id
+                    ? edge(person1Id, person2Id, SPOUSE) : edge(person2Id, person1Id, SPOUSE));
+                default -> throw new InvalidRelationshipException(
+                    "Unsupported relationship type: " + relationship.getRelationshipType());
+            }
+        }
         
-        person1.getSpouses().add(person2);
-        person2.getSpouses().add(person1);
+        List<RelationshipDTO> createdParentChild = written(parentChild,
+            parentChild.isEmpty() ? List.of() : personRepository.mergeParentChildEdges(List.copyOf(parentChild)));
+        List<RelationshipDTO> createdSpouses = written(spouses,
+            spouses.isEmpty() ? List.of() : personRepository.mergeSpouseEdges(List.copyOf(spouses)));
         
-        personRepository.save(person1);
-        personRepository.save(person2);
+        // Checked after writing so cycles formed by several edges of the batch are caught too
+        if (!createdParentChild.isEmpty()) {
+            personRepository.findCycle(createdParentChild).ifPresent(cycle -> {
+                throw new InvalidRelationshipException(String.format(
+                    "Cannot create circular relationship: %d is already an ancestor of %d",
+                    cycle.getPerson2Id(), cycle.getPerson1Id()));
+            });
+        }
+        
+        afterCommit(() -> {
+            createdParentChild.forEach(e -> graphIndex.parentChildAdded(e.getPerson1Id(), e.getPerson2Id()));
+            createdSpouses.forEach(e -> graphIndex.spousesAdded(e.getPerson1Id(), e.getPerson2Id()));
+            lineageCache.relationshipChanged(Stream.concat(createdParentChild.stream(), createdSpouses.stream())
+                .flatMapToLong(e -> LongStream.of(e.getPerson1Id(), e.getPerson2Id()))
+                .toArray());
+        });
+        int created = createdParentChild.size() + createdSpouses.size();
+        return RelationshipBatchResultDTO.builder()
+            .created(created)
+            .alreadyExisting(parentChild.size() + spouses.size() - created)
+            .build();
     }
     
-    @Transactional(readOnly = true)
+    /**
+     * Relationships reported as created, failing on the first one with a missing endpoint.
+     */
+    private static List<RelationshipDTO> written(Collection<RelationshipDTO> edges, List<EdgeWrite> results) {
+        List<RelationshipDTO> created = new ArrayList<>();
+        int i = 0;
+        for (RelationshipDTO edge : edges) {
+            EdgeWrite result = results.get(i++);
+            if (result == EdgeWrite.FIRST_NOT_FOUND) {
+                throw new ResourceNotFoundException("Person", edge.getPerson1Id());
+            }
+            if (result == EdgeWrite.SECOND_NOT_FOUND) {
+                throw new ResourceNotFoundException("Person", edge.getPerson2Id());
+            }
+            if (result == EdgeWrite.CREATED) {
+                created.add(edge);
+            }
+        }
+        return created;
+    }
+    
+    private static RelationshipDTO edge(Long person1Id, Long person2Id, String type) {
+        return RelationshipDTO.builder().person1Id(person1Id).person2Id(person2Id).relationshipType(type).build();
+    }
+    
+    /**
+     * Lineage of a person, cached until a write touches someone in it. Depths too costly to serve are
+     * reduced first, as reported by the result's generationsUp/generationsDown; loads pass through
+     * admission control, while cache hits never reach it or the database.
+     */
     public LineageDTO getLineage(Long personId, int ancestorDepth, int descendantDepth) {
-        Person person = personRepository.findById(personId)
-            .orElseThrow(() -> new ResourceNotFoundException("Person", personId));
+        int[] depths = admission.clampLineage(ancestorDepth, descendantDepth, 1);
+        int up = depths[0];
+        int down = depths[1];
+        return lineageCache.get(LineageCache.Key.lineage(personId, up, down),
+            () -> admission.lineage(up, down, 1, () -> loadLineage(personId, up, down)),
+            PersonService::lineageDependencies);
+    }
+    
+    /**
+     * {@link #getLineage} one row at a time, for lineages too large to assemble: the person first
+     * (generation 0), then ancestors and then descendants, each nearest generation first. Reads
+     * straight from the database, bypassing the lineage cache; nothing is passed on for an unknown id.
+     * Depths are not reduced, but the read passes through admission control and its tier's timeout.
+     * The consumer runs while the admission slot and read transaction are held, so it must not wait
+     * on a client.
+     */
+    public void streamLineage(Long personId, int ancestorDepth, int descendantDepth, Consumer<PersonDTO> consumer) {
+        admission.lineage(ancestorDepth, descendantDepth, 1, () -> {
+            personRepository.forEachLineageMember(personId, ancestorDepth, descendantDepth, consumer);
+            return null;
+        });
+    }
+    
+    /**
+     * ETag of {@link #getLineage}'s result. Taken from the cached lineage when there is one, otherwise
+     * from a query reading only the members' versions, with member ids from the graph index when loaded.
+     */
+    public String getLineageETag(Long personId, int ancestorDepth, int descendantDepth) {
+        int[] depths = admission.clampLineage(ancestorDepth, descendantDepth, 1);
+        int up = depths[0];
+        int down = depths[1];
+        LineageDTO cached = lineageCache.getIfPresent(LineageCache.Key.lineage(personId, up, down));
+        if (cached != null) {
+            return cached.getEtag();
+        }
         
-        List<Person> ancestors = personRepository.findAncestors(personId, ancestorDepth);
-        List<Person> descendants = personRepository.findDescendants(personId, descendantDepth);
+        Map<Long, Long> versions = admission.lineage(up, down, 1, () -> {
+            if (graphIndex.isReady()) {
+                List<Long> ids = new ArrayList<>();
+                ids.add(personId);
+                LongStream.of(graphIndex.ancestors(personId, up).ids()).forEach(ids::add);
+                LongStream.of(graphIndex.descendants(personId, down).ids()).forEach(ids::add);
+                return personRepository.findVersions(ids);
+            }
+            return personRepository.findLineageVersions(personId, up, down);
+        });
+        if (!versions.containsKey(personId)) {
+            throw new ResourceNotFoundException("Person", personId);
+        }
+        return ETags.of(lineageScope(personId, up, down), versions);
+    }
+    
+    /**
+     * Ancestors with Ahnentafel numbers for a pedigree chart. Numbered from the cached lineage, so
+     * relationship and person writes keep it current through the lineage's invalidation.
+     */
+    public PedigreeDTO getPedigree(Long personId, int generations) {
+        LineageDTO lineage = getLineage(personId, generations, 0);
+        return toPedigreeDTO(lineage, lineage.getGenerationsUp(), PedigreeNumbering.ahnentafel(lineage));
+    }
+    
+    /**
+     * Descendants with d'Aboville numbers in register order, numbered from the cached lineage.
+     */
+    public PedigreeDTO getDescendancy(Long personId, int generations) {
+        LineageDTO lineage = getLineage(personId, 0, generations);
+        return toPedigreeDTO(lineage, lineage.getGenerationsDown(), PedigreeNumbering.daboville(lineage));
+    }
+    
+    private static PedigreeDTO toPedigreeDTO(LineageDTO lineage, int generations, List<PedigreeEntryDTO> entries) {
+        return PedigreeDTO.builder()
+            .personId(lineage.getPersonId())
+            .personName(lineage.getPersonName())
+            .generations(generations)
+            .entries(entries)
+            .build();
+    }
+    
+    /**
+     * Descendants streamed generation by generation, nearest first. Only the existence check runs
+     * before returning; the traversal starts when the response subscribes and follows its demand.
+     * Too costly depths are reduced, and the admission slot is held until the stream ends.
+     */
+    public Flux<PersonSummaryDTO> streamDescendants(Long personId, int maxDepth) {
+        if (!personRepository.existsById(personId)) {
+            throw new ResourceNotFoundException("Person", personId);
+        }
+        int depth = admission.clampDescendants(maxDepth);
+        return admission.descendants(depth,
+            timeout -> reactivePersonRepository.streamDescendants(personId, depth, timeout));
+    }
+    
+    /**
+     * Lineages of several persons, in request order; unknown ids are skipped. Cached lineages are
+     * reused and the rest are loaded together, so relatives shared between them are fetched once.
+     */
+    public List<LineageDTO> getLineages(List<Long> personIds, int ancestorDepth, int descendantDepth) {
+        requireIds(personIds);
+        List<Long> distinct = personIds.stream().distinct().collect(Collectors.toList());
+        int[] depths = admission.clampLineage(ancestorDepth, descendantDepth, Math.max(1, distinct.size()));
+        int up = depths[0];
+        int down = depths[1];
+        List<LineageCache.Key> keys = distinct.stream()
+            .map(id -> LineageCache.Key.lineage(id, up, down))
+            .collect(Collectors.toList());
+        Map<LineageCache.Key, LineageDTO> lineages = lineageCache.getAll(keys, missing -> {
+            List<Long> ids = missing.stream().map(LineageCache.Key::getPersonId).collect(Collectors.toList());
+            Map<LineageCache.Key, LineageDTO> loaded = new HashMap<>();
+            admission.lineage(up, down, ids.size(), () -> loadLineages(ids, up, down)).forEach((id, lineage) ->
+                loaded.put(LineageCache.Key.lineage(id, up, down), lineage));
+            return loaded;
+        }, PersonService::lineageDependencies);
+        return keys.stream()
+            .map(lineages::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Persons with their neighbour ids, in request order; unknown ids are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<PersonDTO> findPersons(List<Long> personIds) {
+        requireIds(personIds);
+        return personRepository.findPersonsById(personIds.stream().distinct().collect(Collectors.toList()));
+    }
+    
+    private static void requireIds(List<Long> personIds) {
+        if (personIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Person ids must not be null");
+        }
+    }
+    
+    private static long[] lineageDependencies(LineageDTO lineage) {
+        return LongStream.concat(LongStream.of(lineage.getPersonId()),
+            Stream.of(lineage.getAncestors(), lineage.getDescendants())
+                .flatMap(List::stream)
+                .mapToLong(PersonDTO::getId)).toArray();
+    }
+    
+    private LineageDTO loadLineage(Long personId, int ancestorDepth, int descendantDepth) {
+        if (graphIndex.isReady()) {
+            return getIndexedLineage(personId, ancestorDepth, descendantDepth);
+        }
+        
+        List<PersonDTO> relatives;
+        if (concurrentReads.isEnabled() && ancestorDepth > 0 && descendantDepth > 0) {
+            // Both halves include the person; the descendant half only contributes positive generations
+            List<List<PersonDTO>> halves = concurrentReads.all(List.of(
+                () -> personRepository.findLineage(personId, ancestorDepth, 0),
+                () -> personRepository.findLineage(personId, 0, descendantDepth)));
+            relatives = new ArrayList<>(halves.get(0));
+            halves.get(1).stream().filter(relative -> relative.getGeneration() > 0).forEach(relatives::add);
+        } else {
+            relatives = personRepository.findLineage(personId, ancestorDepth, descendantDepth);
+        }
+        LineageDTO lineage = toLineageDTO(personId, relatives, ancestorDepth, descendantDepth);
+        if (lineage == null) {
+            throw new ResourceNotFoundException("Person", personId);
+        }
+        return lineage;
+    }
+    
+    private Map<Long, LineageDTO> loadLineages(List<Long> personIds, int ancestorDepth, int descendantDepth) {
+        Map<Long, LineageDTO> lineages = new HashMap<>();
+        if (graphIndex.isReady()) {
+            Map<Long, GraphTraversal> ancestors = new HashMap<>();
+            Map<Long, GraphTraversal> descendants = new HashMap<>();
+            Set<Long> ids = new HashSet<>(personIds);
+            for (Long personId : personIds) {
+                GraphTraversal up = graphIndex.ancestors(personId, ancestorDepth);
+                GraphTraversal down = graphIndex.descendants(personId, descendantDepth);
+                ancestors.put(personId, up);
+                descendants.put(personId, down);
+                LongStream.concat(LongStream.of(up.ids()), LongStream.of(down.ids())).forEach(ids::add);
+            }
+            Map<Long, Person> persons = loadShallow(ids.stream().mapToLong(Long::longValue).toArray());
+            for (Long personId : personIds) {
+                Person person = persons.get(personId);
+                if (person != null) {
+                    lineages.put(personId, toLineageDTO(personId, person.getFullName(), person.getVersion(),
+                        toIndexedDTOs(ancestors.get(personId), persons, -1),
+                        toIndexedDTOs(descendants.get(personId), persons, 1), ancestorDepth, descendantDepth));
+                }
+            }
+            return lineages;
+        }
+        
+        personRepository.findLineages(personIds, ancestorDepth, descendantDepth).forEach((personId, lineage) ->
+            lineages.put(personId, toLineageDTO(personId, lineage, ancestorDepth, descendantDepth)));
+        return lineages;
+    }
+    
+    /**
+     * Split a lineage query result (root, ancestors and descendants, nearest first) into a lineage;
+     * null when the root is missing.
+     */
+    private static LineageDTO toLineageDTO(Long personId, List<PersonDTO> lineage, int ancestorDepth,
+                                           int descendantDepth) {
+        PersonDTO person = lineage.stream()
+            .filter(relative -> relative.getGeneration() == 0)
+            .findFirst()
+            .orElse(null);
+        if (person == null) {
+            return null;
+        }
+        
+        List<PersonDTO> ancestors = new ArrayList<>();
+        List<PersonDTO> descendants = new ArrayList<>();
+        for (PersonDTO relative : lineage) {
+            if (relative.getGeneration() < 0) {
+                ancestors.add(relative);
+            } else if (relative.getGeneration() > 0) {
+                descendants.add(relative);
+            }
+        }
+        return toLineageDTO(personId, person.fullName(), person.getVersion(), ancestors, descendants,
+            ancestorDepth, descendantDepth);
+    }
+    
+    /**
+     * Siblings are cached only while the graph index is loaded, since the cache entry must also
+     * depend on the person's parents (a new child of a parent is a new sibling).
+     */
+    public List<Person> findSiblings(Long personId) {
+        if (graphIndex.isReady()) {
+            return lineageCache.get(LineageCache.Key.siblings(personId, false), () -> {
+                long[] siblingIds = graphIndex.siblingsOf(personId);
+                Map<Long, Person> siblings = loadShallow(siblingIds);
+                return Arrays.stream(siblingIds).mapToObj(siblings::get).filter(Objects::nonNull).collect(Collectors.toList());
+            }, siblings -> siblingDependencies(personId, siblings.stream().mapToLong(Person::getId)));
+        }
+        return personRepository.findSiblings(personId);
+    }
+    
+    public List<PersonSummaryDTO> findSiblingSummaries(Long personId) {
+        if (graphIndex.isReady()) {
+            return lineageCache.get(LineageCache.Key.siblings(personId, true), () -> {
+                long[] siblingIds = graphIndex.siblingsOf(personId);
+                if (siblingIds.length == 0) {
+                    return List.<PersonSummaryDTO>of();
+                }
+                return personRepository.findSummariesById(Arrays.stream(siblingIds).boxed().collect(Collectors.toList()));
+            }, siblings -> siblingDependencies(personId, siblings.stream().mapToLong(PersonSummaryDTO::getId)));
+        }
+        return personRepository.findSiblingSummaries(personId);
+    }
+    
+    public List<Person> findRelationshipPath(Long person1Id, Long person2Id) {
+        return lineageCache.get(LineageCache.Key.path(person1Id, person2Id, false),
+            () -> admission.path(() -> personRepository.findRelationshipPath(person1Id, person2Id)),
+            path -> pathDependencies(person1Id, person2Id, path.stream().mapToLong(Person::getId)));
+    }
+    
+    public List<PersonSummaryDTO> findRelationshipPathSummaries(Long person1Id, Long person2Id) {
+        return lineageCache.get(LineageCache.Key.path(person1Id, person2Id, true),
+            () -> admission.path(() -> personRepository.findRelationshipPathSummaries(person1Id, person2Id)),
+            path -> pathDependencies(person1Id, person2Id, path.stream().mapToLong(PersonSummaryDTO::getId)));
+    }
+    
+    /**
+     * What person 2 is to person 1, through their lowest common ancestors within {@code maxDepth}
+     * generations of each. Persons who are not blood relatives are retried through one spouse on
+     * either side, which names in-laws and step-relations.
+     */
+    @Transactional(readOnly = true)
+    public KinshipDTO findKinship(Long person1Id, Long person2Id, int maxDepth) {
+        Map<Long, Person> persons = loadShallow(new long[]{person1Id, person2Id});
+        for (Long id : List.of(person1Id, person2Id)) {
+            if (!persons.containsKey(id)) {
+                throw new ResourceNotFoundException("Person", id);
+            }
+        }
+        String gender = persons.get(person2Id).getGender();
+        
+        LongFunction<long[]> parentsOf;
+        long[] spouses1;
+        long[] spouses2;
+        if (graphIndex.isReady() && graphIndex.contains(person1Id) && graphIndex.contains(person2Id)) {
+            parentsOf = graphIndex::parentsOf;
+            spouses1 = graphIndex.spousesOf(person1Id);
+            spouses2 = graphIndex.spousesOf(person2Id);
+        } else {
+            Map<Long, PersonSummaryDTO> ends = personRepository.findSummariesById(List.of(person1Id, person2Id))
+                .stream()
+                .collect(Collectors.toMap(PersonSummaryDTO::getId, Function.identity()));
+            spouses1 = toIdArray(ends.get(person1Id).getSpouseIds());
+            spouses2 = toIdArray(ends.get(person2Id).getSpouseIds());
+            Set<Long> starts = new HashSet<>(List.of(person1Id, person2Id));
+            LongStream.concat(LongStream.of(spouses1), LongStream.of(spouses2)).forEach(starts::add);
+            Map<Long, long[]> parents = personRepository.findAncestorParentIds(starts, maxDepth);
+            parentsOf = id -> parents.getOrDefault(id, new long[0]);
+        }
+        
+        CommonAncestorSearch.Result blood = CommonAncestorSearch.find(person1Id, person2Id, maxDepth, parentsOf);
+        if (blood != null) {
+            boolean halfBlood = blood.generationsUp() == 1 && blood.generationsDown() == 1
+                && blood.commonAncestorIds().length == 1
+                && Math.max(parentsOf.apply(person1Id).length, parentsOf.apply(person2Id).length) > 1;
+            return kinship(person1Id, person2Id, blood,
+                KinshipNamer.blood(blood.generationsUp(), blood.generationsDown(), gender, halfBlood), blood.path());
+        }
+        if (LongStream.of(spouses1).anyMatch(id -> id == person2Id)) {
+            return kinship(person1Id, person2Id, null, KinshipNamer.spouse(gender), new long[]{person1Id, person2Id});
+        }
+        
+        KinshipDTO closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (long spouseId : spouses1) {
+            CommonAncestorSearch.Result viaSpouse = CommonAncestorSearch.find(spouseId, person2Id, maxDepth, parentsOf);
+            if (viaSpouse != null && viaSpouse.generationsUp() + viaSpouse.generationsDown() < closestDistance) {
+                closestDistance = viaSpouse.generationsUp() + viaSpouse.generationsDown();
+                closest = kinship(person1Id, person2Id, viaSpouse,
+                    KinshipNamer.viaSpouse(viaSpouse.generationsUp(), viaSpouse.generationsDown(), gender),
+                    LongStream.concat(LongStream.of(person1Id), LongStream.of(viaSpouse.path())).toArray());
+            }
+        }
+        for (long spouseId : spouses2) {
+            CommonAncestorSearch.Result toSpouse = CommonAncestorSearch.find(person1Id, spouseId, maxDepth, parentsOf);
+            if (toSpouse != null && toSpouse.generationsUp() + toSpouse.generationsDown() < closestDistance) {
+                closestDistance = toSpouse.generationsUp() + toSpouse.generationsDown();
+                closest = kinship(person1Id, person2Id, toSpouse,
+                    KinshipNamer.spouseOf(toSpouse.generationsUp(), toSpouse.generationsDown(), gender),
+                    LongStream.concat(LongStream.of(toSpouse.path()), LongStream.of(person2Id)).toArray());
+            }
+        }
+        if (closest != null) {
+            return closest;
+        }
+        return KinshipDTO.builder()
+            .person1Id(person1Id)
+            .person2Id(person2Id)
+            .related(false)
+            .commonAncestorIds(List.of())
+            .path(List.of())
+            .build();
+    }
+    
+    /**
+     * Blood relationships for many pairs at once, e.g. to reconcile DNA matches. Pairs are answered in
+     * parallel from the graph index's ancestor labels; names are gender-neutral and no path is returned.
+     * Pairs naming an unknown person are reported as not related.
+     */
+    public List<KinshipDTO> findKinships(List<PersonPairDTO> pairs, int maxDepth) {
+        long[] person1Ids = new long[pairs.size()];
+        long[] person2Ids = new long[pairs.size()];
+        for (int i = 0; i < pairs.size(); i++) {
+            PersonPairDTO pair = pairs.get(i);
+            if (pair.getPerson1Id() == null || pair.getPerson2Id() == null) {
+                throw new IllegalArgumentException("Both person1Id and person2Id are required");
+            }
+            person1Ids[i] = pair.getPerson1Id();
+            person2Ids[i] = pair.getPerson2Id();
+        }
+        
+        CommonAncestorSearch.Result[] results;
+        LongFunction<long[]> parentsOf;
+        if (graphIndex.isReady()) {
+            results = graphIndex.lowestCommonAncestors(person1Ids, person2Ids, maxDepth);
+            parentsOf = graphIndex::parentsOf;
+        } else {
+            Set<Long> starts = new HashSet<>();
+            LongStream.concat(LongStream.of(person1Ids), LongStream.of(person2Ids)).forEach(starts::add);
+            Map<Long, long[]> parents = personRepository.findAncestorParentIds(starts, maxDepth);
+            parentsOf = id -> parents.getOrDefault(id, new long[0]);
+            CommonAncestorSearch.Result[] searched = new CommonAncestorSearch.Result[pairs.size()];
+            IntStream.range(0, searched.length)
+                .parallel()
+                .forEach(i -> searched[i] = parents.containsKey(person1Ids[i]) && parents.containsKey(person2Ids[i])
+                    ? CommonAncestorSearch.find(person1Ids[i], person2Ids[i], maxDepth, parentsOf)
+                    : null);
+            results = searched;
+        }
+        
+        List<KinshipDTO> kinships = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            CommonAncestorSearch.Result result = results[i];
+            KinshipDTO.KinshipDTOBuilder kinship = KinshipDTO.builder()
+                .person1Id(person1Ids[i])
+                .person2Id(person2Ids[i])
+                .related(result != null);
+            if (result != null) {
+                boolean halfBlood = result.generationsUp() == 1 && result.generationsDown() == 1
+                    && result.commonAncestorIds().length == 1
+                    && Math.max(parentsOf.apply(person1Ids[i]).length, parentsOf.apply(person2Ids[i]).length) > 1;
+                kinship.relationship(KinshipNamer.blood(result.generationsUp(), result.generationsDown(), null, halfBlood))
+                    .generationsUp(result.generationsUp())
+                    .generationsDown(result.generationsDown())
+                    .commonAncestorIds(LongStream.of(result.commonAncestorIds()).boxed().collect(Collectors.toList()));
+            } else {
+                kinship.commonAncestorIds(List.of());
+            }
+            kinships.add(kinship.build());
+        }
+        return kinships;
+    }
+    
+    private KinshipDTO kinship(Long person1Id, Long person2Id, CommonAncestorSearch.Result connection,
+                               String relationship, long[] pathIds) {
+        Map<Long, PersonSummaryDTO> summaries = personRepository
+            .findSummariesById(LongStream.of(pathIds).boxed().collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(PersonSummaryDTO::getId, Function.identity()));
+        return KinshipDTO.builder()
+            .person1Id(person1Id)
+            .person2Id(person2Id)
+            .related(true)
+            .relationship(relationship)
+            .generationsUp(connection != null ? connection.generationsUp() : null)
+            .generationsDown(connection != null ? connection.generationsDown() : null)
+            .commonAncestorIds(connection != null
+                ? LongStream.of(connection.commonAncestorIds()).boxed().collect(Collectors.toList())
+                : List.of())
+            .path(LongStream.of(pathIds).mapToObj(summaries::get).filter(Objects::nonNull).collect(Collectors.toList()))
+            .build();
+    }
+    
+    private static long[] toIdArray(Set<Long> ids) {
+        return ids == null ? new long[0] : ids.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    private long[] siblingDependencies(long personId, LongStream siblingIds) {
+        long[] parentIds = graphIndex.parentsOf(personId);
+        return LongStream.concat(LongStream.concat(LongStream.of(personId), LongStream.of(parentIds)), siblingIds)
+            .toArray();
+    }
+    
+    private static long[] pathDependencies(long person1Id, long person2Id, LongStream pathIds) {
+        return LongStream.concat(LongStream.of(person1Id, person2Id), pathIds).toArray();
+    }
+    
+    /**
+     * Lineage served from the in-memory graph: traversal touches no entities and only the
+     * persons in the result are loaded, without their relationship sets.
+     */
+    private LineageDTO getIndexedLineage(Long personId, int ancestorDepth, int descendantDepth) {
+        GraphTraversal ancestors = graphIndex.ancestors(personId, ancestorDepth);
+        GraphTraversal descendants = graphIndex.descendants(personId, descendantDepth);
+        
+        long[] ids = new long[ancestors.size() + descendants.size() + 1];
+        ids[0] = personId;
+        System.arraycopy(ancestors.ids(), 0, ids, 1, ancestors.size());
+        System.arraycopy(descendants.ids(), 0, ids, 1 + ancestors.size(), descendants.size());
+        Map<Long, Person> persons = loadShallow(ids);
+        
+        Person person = persons.get(personId);
+        if (person == null) {
+            throw new ResourceNotFoundException("Person", personId);
+        }
+        
+        return toLineageDTO(personId, person.getFullName(), person.getVersion(),
+            toIndexedDTOs(ancestors, persons, -1), toIndexedDTOs(descendants, persons, 1),
+            ancestorDepth, descendantDepth);
+    }
+    
+    /**
+     * Assemble the lineage from ancestors and descendants already sorted nearest generation first.
+     */
+    private static LineageDTO toLineageDTO(Long personId, String personName, Long personVersion,
+                                           List<PersonDTO> ancestors, List<PersonDTO> descendants,
+                                           int ancestorDepth, int descendantDepth) {
+        Map<Integer, List<Long>> byGeneration = new TreeMap<>();
+        Map<Long, Long> versions = new HashMap<>();
+        versions.put(personId, personVersion);
+        for (PersonDTO relative : ancestors) {
+            byGeneration.computeIfAbsent(relative.getGeneration(), g -> new ArrayList<>()).add(relative.getId());
+            versions.put(relative.getId(), relative.getVersion());
+        }
+        for (PersonDTO relative : descendants) {
+            byGeneration.computeIfAbsent(relative.getGeneration(), g -> new ArrayList<>()).add(relative.getId());
+            versions.put(relative.getId(), relative.getVersion());
+        }
+        List<GenerationDTO> generations = byGeneration.entrySet().stream()
+            .map(entry -> GenerationDTO.builder().generation(entry.getKey()).personIds(entry.getValue()).build())
+            .collect(Collectors.toList());
         
         return LineageDTO.builder()
             .personId(personId)
-            .personName(person.getFullName())
-            .ancestors(ancestors.stream().map(this::toDTO).collect(Collectors.toList()))
-            .descendants(descendants.stream().map(this::toDTO).collect(Collectors.toList()))
+            .personName(personName)
+            .ancestors(ancestors)
+            .descendants(descendants)
             .generationsUp(ancestorDepth)
             .generationsDown(descendantDepth)
+            .generations(generations)
+            .etag(ETags.of(lineageScope(personId, ancestorDepth, descendantDepth), versions))
             .build();
     }
     
-    @Transactional(readOnly = true)
-    public List<Person> findSiblings(Long personId) {
-        return personRepository.findSiblings(personId);
+    private static String personScope(Long personId) {
+        return "person:" + personId;
     }
     
-    @Transactional(readOnly = true)
-    public List<Person> findRelationshipPath(Long person1Id, Long person2Id) {
-        return personRepository.findRelationshipPath(person1Id, person2Id);
+    private static String lineageScope(Long personId, int ancestorDepth, int descendantDepth) {
+        return "lineage:" + personId + ":" + ancestorDepth + ":" + descendantDepth;
+    }
+    
+    private static String phoneticKeys(PersonDTO dto) {
+        return PhoneticKeys.of(dto.getFirstName(), dto.getMiddleName(), dto.getLastName(), dto.getMaidenName());
+    }
+    
+    private Map<Long, Person> loadShallow(long[] ids) {
+        if (ids.length == 0) {
+            return Map.of();
+        }
+        return personRepository.findAllShallowById(Arrays.stream(ids).boxed().collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(Person::getId, Function.identity()));
+    }
+    
+    private List<PersonDTO> toIndexedDTOs(GraphTraversal traversal, Map<Long, Person> persons, int direction) {
+        List<PersonDTO> result = new ArrayList<>(traversal.size());
+        for (int i = 0; i < traversal.size(); i++) {
+            Person person = persons.get(traversal.id(i));
+            if (person != null) {
+                PersonDTO dto = toIndexedDTO(person);
+                dto.setGeneration(direction * traversal.generation(i));
+                result.add(dto);
+            }
+        }
+        return result;
     }
     
-    private PersonDTO toDTO(Person person) {
+    private PersonDTO toIndexedDTO(Person person) {
+        long id = person.getId();
+        return toDTOBuilder(person)
+            .childrenIds(toIdSet(graphIndex.childrenOf(id)))
+            .parentIds(toIdSet(graphIndex.parentsOf(id)))
+            .spouseIds(toIdSet(graphIndex.spousesOf(id)))
+            .build();
+    }
+    
+    private static Set<Long> toIdSet(long[] ids) {
+        Set<Long> result = new HashSet<>(ids.length * 2);
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+    
+    /**
+     * Run once the surrounding transaction commits, so rolled-back writes never reach the graph index.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    private PersonDTO.PersonDTOBuilder toDTOBuilder(Person person) {
         return PersonDTO.builder()
             .id(person.getId())
             .firstName(person.getFirstName())
@@ -194,9 +972,6 @@ public class PersonService {
             .nationality(person.getNationality())
             .isPublic(person.isPublic())
             .visibility(person.getVisibility())
-            .childrenIds(person.getChildren().stream().map(Person::getId).collect(Collectors.toSet()))
-            .parentIds(person.getParents().stream().map(Person::getId).collect(Collectors.toSet()))
-            .spouseIds(person.getSpouses().stream().map(Person::getId).collect(Collectors.toSet()))
-            .build();
+            .version(person.getVersion());
     }
 }
@@ -0,0 +1,89 @@
+package com.familytree.service;
+
+import org.apache.commons.codec.language.DaitchMokotoffSoundex;
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Phonetic keys for person names, stored as the space-separated {@code phoneticKeys} property and
+ * indexed by {@code person_phonetic}. Each name word contributes its Double Metaphone primary and
+ * alternate codes ({@code M} prefix) and its Daitch-Mokotoff Soundex codes ({@code D} prefix),
+ * so spelling variants and transliterations of a name share at least one key.
+ */
+public final class PhoneticKeys {
+    
+    private static final DoubleMetaphone DOUBLE_METAPHONE = new DoubleMetaphone();
+    private static final DaitchMokotoffSoundex DAITCH_MOKOTOFF = new DaitchMokotoffSoundex();
+    
+    private PhoneticKeys() {
+    }
+    
+    /**
+     * Keys for all words of the given names; empty (never null) when there is nothing to encode,
+     * so persons without names are not picked up again by the backfill.
+     */
+    public static String of(String... names) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String name : names) {
+            for (String word : words(name)) {
+                keys.addAll(keysOf(word));
+            }
+        }
+        return String.join(" ", keys);
+    }
+    
+    /**
+     * Lucene query for the phonetic index: every word must share a key with some name word.
+     * Returns null when no word can be encoded.
+     */
+    static String query(String input) {
+        List<String> clauses = new ArrayList<>();
+        for (String word : words(input)) {
+            Set<String> keys = keysOf(word);
+            if (!keys.isEmpty()) {
+                clauses.add("(" + String.join(" OR ", keys) + ")");
+            }
+        }
+        return clauses.isEmpty() ? null : String.join(" AND ", clauses);
+    }
+    
+    static List<String> words(String input) {
+        List<String> words = new ArrayList<>();
+        if (input == null) {
+            return words;
+        }
+        for (String word : input.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+    
+    private static Set<String> keysOf(String word) {
+        Set<String> keys = new LinkedHashSet<>();
+        String primary = DOUBLE_METAPHONE.doubleMetaphone(word);
+        if (primary != null && !primary.isEmpty()) {
+            keys.add("M" + primary);
+            String alternate = DOUBLE_METAPHONE.doubleMetaphone(word, true);
+            if (alternate != null && !alternate.isEmpty()) {
+                keys.add("M" + alternate);
+            }
+        }
+        String soundex = DAITCH_MOKOTOFF.soundex(word);
+        if (soundex != null && !soundex.isEmpty()) {
+            for (String code : soundex.split("\\|")) {
+                // All-zero codes carry no information (e.g. words of vowels only)
+                if (!code.isEmpty() && !code.chars().allMatch(c -> c == '0')) {
+                    keys.add("D" + code);
+                }
+            }
+        }
+        return keys;
+    }
+}
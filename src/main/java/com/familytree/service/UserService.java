@@ -4,10 +4,13 @@ import com.familytree.exception.ResourceAlreadyExistsException;
 import com.familytree.exception.ResourceNotFoundException;
 import com.familytree.model.User;
 import com.familytree.repository.UserRepository;
+import com.familytree.security.AuthenticatedUserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -23,6 +26,8 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final AuthenticatedUserCache authenticatedUsers;
     
     @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
@@ -55,12 +60,11 @@ public class UserService {
         return userRepository.save(user);
     }
     
-    @Transactional
+    /**
+     * Queue the login time; it is written with other users' logins in the next batch flush.
+     */
     public void updateLastLogin(String username) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new ResourceNotFoundException("User with username: " + username));
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        lastLoginRecorder.record(username);
     }
     
     @Transactional
@@ -69,6 +73,7 @@ public class UserService {
             .orElseThrow(() -> new ResourceNotFoundException("User", userId));
         user.getRoles().add(role);
         userRepository.save(user);
+        afterCommit(() -> authenticatedUsers.evictUser(user.getUsername()));
     }
     
     @Transactional
@@ -77,5 +82,19 @@ public class UserService {
             .orElseThrow(() -> new ResourceNotFoundException("User", userId));
         user.getRoles().remove(role);
         userRepository.save(user);
+        afterCommit(() -> authenticatedUsers.evictUser(user.getUsername()));
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
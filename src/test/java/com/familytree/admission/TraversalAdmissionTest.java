@@ -0,0 +1,109 @@
+package com.familytree.admission;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.exception.TraversalRejectedException;
+import com.familytree.graph.FamilyGraphIndex;
+import com.familytree.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.exceptions.ClientException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TraversalAdmissionTest {
+    
+    private final PersonRepository personRepository = mock(PersonRepository.class);
+    private FamilyTreeProperties properties;
+    
+    @BeforeEach
+    void setUp() {
+        // 3 children per parent, 1 known parent per child
+        when(personRepository.count()).thenReturn(1000L);
+        when(personRepository.countParentChildEdges()).thenReturn(900L);
+        when(personRepository.countParents()).thenReturn(300L);
+        when(personRepository.countChildren()).thenReturn(900L);
+        properties = new FamilyTreeProperties();
+        properties.getAdmission().setMaxRows(100);
+        properties.getAdmission().setLightMaxRows(50);
+        properties.getAdmission().getHeavy().setMaxConcurrent(1);
+        properties.getAdmission().getHeavy().setMaxQueued(0);
+    }
+    
+    private TraversalAdmission admission() {
+        TraversalCostEstimator costs = new TraversalCostEstimator(personRepository, mock(FamilyGraphIndex.class), properties);
+        costs.refresh();
+        return new TraversalAdmission(costs, mock(PlatformTransactionManager.class), properties);
+    }
+    
+    @Test
+    void testClampLineage_ReducesDeeperSideUntilWithinBudget() {
+        TraversalAdmission admission = admission();
+        
+        // 1 + 5 ancestors + 363 descendants; the first fit is 1 + 3 + 39
+        assertArrayEquals(new int[]{3, 3}, admission.clampLineage(5, 5, 1));
+        assertArrayEquals(new int[]{8, 2}, admission.clampLineage(8, 2, 1));
+        assertArrayEquals(new int[]{1, 1}, admission.clampLineage(5, 5, 50));
+        assertEquals(3, admission.clampDescendants(10));
+    }
+    
+    @Test
+    void testEstimates_NeverWaitForCounting() throws Exception {
+        CountDownLatch counting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(personRepository.count()).thenAnswer(invocation -> {
+            counting.countDown();
+            release.await();
+            return 1000L;
+        });
+        TraversalCostEstimator costs = new TraversalCostEstimator(personRepository, mock(FamilyGraphIndex.class), properties);
+        
+        try {
+            assertTrue(counting.await(5, TimeUnit.SECONDS));
+            // The background count is stuck; requests still get an estimate from the assumed fan-out
+            assertEquals(1 + 2 + (2 + 4), assertTimeoutPreemptively(Duration.ofSeconds(5), () -> costs.lineageRows(1, 2)));
+        } finally {
+            release.countDown();
+            costs.destroy();
+        }
+    }
+    
+    @Test
+    void testHeavyTier_RejectsWhenFullAndAdmitsOnceReleased() {
+        TraversalAdmission admission = admission();
+        Disposable running = admission.descendants(4, timeout -> Flux.never()).subscribe();
+        
+        TraversalRejectedException rejected = assertThrows(TraversalRejectedException.class,
+            () -> admission.path(() -> "path"));
+        assertEquals(Duration.ofSeconds(1), rejected.getRetryAfter());
+        // Light traversals have their own slots
+        assertEquals("lineage", admission.lineage(1, 1, 1, () -> "lineage"));
+        
+        running.dispose();
+        assertEquals("path", admission.path(() -> "path"));
+    }
+    
+    @Test
+    void testServerTimeout_SurfacesAsQueryTimeout() {
+        TraversalAdmission admission = admission();
+        
+        assertThrows(QueryTimeoutException.class, () -> admission.lineage(1, 1, 1, () -> {
+            throw new InvalidDataAccessResourceUsageException("terminated", new ClientException(
+                "Neo.ClientError.Transaction.TransactionTimedOutClientConfiguration", "timed out"));
+        }));
+    }
+}
@@ -0,0 +1,54 @@
+package com.familytree.cache;
+
+import com.familytree.config.FamilyTreeProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LineageCache.
+ */
+class LineageCacheTest {
+    
+    private final LineageCache cache = new LineageCache(new FamilyTreeProperties());
+    private final AtomicInteger loads = new AtomicInteger();
+    
+    @Test
+    void testInvalidate_OnlyDropsDependentEntries() {
+        LineageCache.Key first = LineageCache.Key.lineage(1L, 5, 5);
+        LineageCache.Key second = LineageCache.Key.lineage(10L, 5, 5);
+        
+        load(first, 1L, 2L, 3L);
+        load(second, 10L, 11L);
+        load(first, 1L, 2L, 3L);
+        assertEquals(2, loads.get());
+        
+        cache.invalidate(3L);
+        load(first, 1L, 2L, 3L);
+        load(second, 10L, 11L);
+        assertEquals(3, loads.get());
+    }
+    
+    @Test
+    void testRelationshipChanged_ExpiresPaths() {
+        LineageCache.Key path = LineageCache.Key.path(1L, 9L, true);
+        LineageCache.Key lineage = LineageCache.Key.lineage(1L, 5, 5);
+        
+        load(path, 1L, 5L, 9L);
+        load(lineage, 1L, 2L);
+        cache.relationshipChanged(40L, 41L);
+        load(path, 1L, 5L, 9L);
+        load(lineage, 1L, 2L);
+        
+        assertEquals(3, loads.get());
+    }
+    
+    private void load(LineageCache.Key key, long... dependencies) {
+        cache.get(key, () -> {
+            loads.incrementAndGet();
+            return "value";
+        }, value -> dependencies);
+    }
+}
@@ -1,7 +1,17 @@
 package com.familytree.controller;
 
 import com.familytree.config.TestSecurityConfig;
+import com.familytree.config.WireFormatConfig;
+import com.familytree.config.WireFormats;
+import com.familytree.dto.GenerationDTO;
+import com.familytree.dto.LineageDTO;
+import com.familytree.dto.NameSuggestionDTO;
+import com.familytree.dto.PersonCursor;
 import com.familytree.dto.PersonDTO;
+import com.familytree.dto.PersonPatchDTO;
+import com.familytree.dto.PersonSortOrder;
+import com.familytree.dto.PersonSummaryDTO;
+import com.familytree.exception.TraversalRejectedException;
 import com.familytree.model.Person;
 import com.familytree.service.PersonService;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,17 +21,31 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -32,16 +56,20 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 @WebMvcTest(PersonController.class)
 @AutoConfigureMockMvc
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, WireFormatConfig.class})
 class PersonControllerTest {
     
     @Autowired
     private MockMvc mockMvc;
     
+    @Autowired
+    private WireFormats wireFormats;
+    
     @MockBean
     private PersonService personService;
     
     private Person testPerson;
+    private PersonDTO testPersonDTO;
     
     @BeforeEach
     void setUp() {
@@ -57,28 +85,209 @@ class PersonControllerTest {
             .parents(new HashSet<>())
             .spouses(new HashSet<>())
             .build();
+        
+        testPersonDTO = PersonDTO.builder()
+            .id(1L)
+            .firstName("John")
+            .lastName("Doe")
+            .birthDate(LocalDate.of(1950, 1, 15))
+            .gender("MALE")
+            .isPublic(true)
+            .visibility("PUBLIC")
+            .build();
     }
     
     @Test
     void testGetAllPersons_Success() throws Exception {
-        when(personService.findAll()).thenReturn(Arrays.asList(testPerson));
+        when(personService.findPage(PersonSortOrder.ID, null, 100)).thenReturn(Arrays.asList(testPersonDTO));
         
         mockMvc.perform(get("/api/persons"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$[0].firstName").value("John"))
-            .andExpect(jsonPath("$[0].lastName").value("Doe"));
+            .andExpect(jsonPath("$[0].lastName").value("Doe"))
+            .andExpect(header().doesNotExist(PersonController.NEXT_CURSOR_HEADER));
+    }
+    
+    @Test
+    void testGetAllPersons_FullPageReturnsNextCursor() throws Exception {
+        PersonCursor cursor = PersonCursor.builder().id(1L).lastName("Doe").firstName("John").build();
+        when(personService.findPage(PersonSortOrder.NAME, null, 1)).thenReturn(Arrays.asList(testPersonDTO));
+        when(personService.findPage(eq(PersonSortOrder.NAME), eq(cursor), eq(1))).thenReturn(Arrays.asList());
+        
+        mockMvc.perform(get("/api/persons").param("sort", "name").param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(PersonController.NEXT_CURSOR_HEADER, cursor.encode()));
+        
+        mockMvc.perform(get("/api/persons").param("sort", "name").param("limit", "1")
+                .param("cursor", cursor.encode()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+    
+    @Test
+    void testGetAllPersons_InvalidSort() throws Exception {
+        mockMvc.perform(get("/api/persons").param("sort", "age"))
+            .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportPersons_StreamsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<PersonDTO> consumer = invocation.getArgument(0);
+            consumer.accept(testPersonDTO);
+            consumer.accept(PersonDTO.builder().id(2L).firstName("Jane").build());
+            return null;
+        }).when(personService).exportAll(any(Consumer.class));
+        
+        MvcResult result = mockMvc.perform(get("/api/persons").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[1].contains("\"firstName\":\"Jane\""));
     }
     
     @Test
     void testGetPerson_Found() throws Exception {
         when(personService.findById(1L)).thenReturn(Optional.of(testPerson));
+        when(personService.personETag(testPerson)).thenReturn("\"v1\"");
         
         mockMvc.perform(get("/api/persons/1"))
             .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"v1\""))
             .andExpect(jsonPath("$.firstName").value("John"))
             .andExpect(jsonPath("$.lastName").value("Doe"));
     }
     
+    @Test
+    void testGetPerson_NotModifiedWithoutLoading() throws Exception {
+        when(personService.getPersonETag(1L)).thenReturn(Optional.of("\"v1\""));
+        
+        mockMvc.perform(get("/api/persons/1").header("If-None-Match", "\"v1\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"v1\""));
+        verify(personService, never()).findById(anyLong());
+    }
+    
+    @Test
+    void testGetLineage_ETag() throws Exception {
+        LineageDTO lineage = LineageDTO.builder().personId(1L).personName("John Doe").etag("\"v2\"").build();
+        when(personService.getLineage(1L, 5, 5)).thenReturn(lineage);
+        when(personService.getLineageETag(1L, 5, 5)).thenReturn("\"v2\"");
+        
+        mockMvc.perform(get("/api/persons/1/lineage"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"v2\""))
+            .andExpect(jsonPath("$.etag").doesNotExist());
+        mockMvc.perform(get("/api/persons/1/lineage").header("If-None-Match", "\"v2\""))
+            .andExpect(status().isNotModified());
+        verify(personService, times(1)).getLineage(1L, 5, 5);
+    }
+    
+    @Test
+    void testGetLineage_RejectedWithRetryAfter() throws Exception {
+        when(personService.getLineage(1L, 5, 5))
+            .thenThrow(new TraversalRejectedException("Too many heavy traversals in progress; retry later",
+                Duration.ofSeconds(2)));
+        
+        mockMvc.perform(get("/api/persons/1/lineage"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "2"));
+    }
+    
+    @Test
+    void testGetLineage_Smile() throws Exception {
+        LineageDTO lineage = LineageDTO.builder().personId(1L).personName("John Doe")
+            .ancestors(List.of(testPersonDTO)).descendants(List.of()).etag("\"v2\"").build();
+        when(personService.getLineage(1L, 5, 5)).thenReturn(lineage);
+        
+        byte[] body = mockMvc.perform(get("/api/persons/1/lineage").accept(WireFormats.SMILE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(WireFormats.SMILE))
+            .andReturn().getResponse().getContentAsByteArray();
+        
+        LineageDTO decoded = wireFormats.mapper(WireFormats.SMILE).readValue(body, LineageDTO.class);
+        assertEquals("John Doe", decoded.getPersonName());
+        assertEquals("Doe", decoded.getAncestors().get(0).getLastName());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamLineage_SameShapeAsLineage() throws Exception {
+        PersonDTO root = PersonDTO.builder().id(1L).firstName("John").lastName("Doe").generation(0).build();
+        PersonDTO father = PersonDTO.builder().id(3L).firstName("Father").lastName("Doe").generation(-1).build();
+        PersonDTO child = PersonDTO.builder().id(2L).firstName("Junior").lastName("Doe").generation(1).build();
+        when(personService.exists(1L)).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<PersonDTO> consumer = invocation.getArgument(3);
+            consumer.accept(root);
+            consumer.accept(father);
+            consumer.accept(child);
+            return null;
+        }).when(personService).streamLineage(eq(1L), eq(5), eq(5), any(Consumer.class));
+        
+        MvcResult result = mockMvc.perform(get("/api/persons/1/lineage/stream").accept(WireFormats.CBOR))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(WireFormats.CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+        
+        LineageDTO expected = LineageDTO.builder().personId(1L).personName("John Doe")
+            .ancestors(List.of(father)).descendants(List.of(child))
+            .generationsUp(5).generationsDown(5)
+            .generations(List.of(
+                GenerationDTO.builder().generation(-1).personIds(List.of(3L)).build(),
+                GenerationDTO.builder().generation(1).personIds(List.of(2L)).build()))
+            .build();
+        assertEquals(expected, wireFormats.mapper(WireFormats.CBOR).readValue(body, LineageDTO.class));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamLineage_SpoolsLargeLineagesBeforeSending() throws Exception {
+        int descendants = 20_000;
+        when(personService.exists(1L)).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<PersonDTO> consumer = invocation.getArgument(3);
+            consumer.accept(PersonDTO.builder().id(1L).firstName("John").lastName("Doe").generation(0).build());
+            for (long id = 2; id < descendants + 2; id++) {
+                consumer.accept(PersonDTO.builder().id(id).firstName("Descendant").lastName("Doe")
+                    .biography("Born and raised in the family home").generation(1).build());
+            }
+            return null;
+        }).when(personService).streamLineage(eq(1L), eq(5), eq(5), any(Consumer.class));
+        
+        MvcResult result = mockMvc.perform(get("/api/persons/1/lineage/stream").accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+        
+        // Past the in-memory limit, so the rows went through a temporary file
+        assertTrue(body.length > 1 << 20);
+        LineageDTO lineage = wireFormats.mapper(MediaType.APPLICATION_JSON).readValue(body, LineageDTO.class);
+        assertEquals(descendants, lineage.getDescendants().size());
+        assertEquals(descendants + 1, lineage.getDescendants().get(descendants - 1).getId());
+    }
+    
+    @Test
+    void testStreamLineage_NotFound() throws Exception {
+        when(personService.exists(999L)).thenReturn(false);
+        
+        mockMvc.perform(get("/api/persons/999/lineage/stream"))
+            .andExpect(status().isNotFound());
+    }
+    
     @Test
     void testGetPerson_NotFound() throws Exception {
         when(personService.findById(999L)).thenReturn(Optional.empty());
@@ -100,13 +309,70 @@ class PersonControllerTest {
             .andExpect(jsonPath("$.firstName").value("John"));
     }
     
+    @Test
+    void testPatchPerson_SendsOnlyPresentFields() throws Exception {
+        when(personService.patchPerson(eq(1L), any(PersonPatchDTO.class))).thenReturn(testPersonDTO);
+        
+        mockMvc.perform(patch("/api/persons/1")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"occupation\":\"Engineer\",\"biography\":null,\"version\":3}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.firstName").value("John"));
+        
+        verify(personService).patchPerson(eq(1L), argThat(patch ->
+            patch.getChanges().keySet().equals(Set.of("occupation", "biography"))
+                && "Engineer".equals(patch.getChanges().get("occupation"))
+                && patch.getChanges().get("biography") == null
+                && patch.getVersion() == 3L));
+    }
+    
+    @Test
+    void testPatchPerson_StaleVersionConflicts() throws Exception {
+        when(personService.patchPerson(eq(1L), any(PersonPatchDTO.class)))
+            .thenThrow(new OptimisticLockingFailureException("Person 1 is at version 4, not 3"));
+        
+        mockMvc.perform(patch("/api/persons/1")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"occupation\":\"Engineer\",\"version\":3}"))
+            .andExpect(status().isConflict());
+    }
+    
     @Test
     void testSearchPersons_Success() throws Exception {
-        when(personService.searchByName("John")).thenReturn(Arrays.asList(testPerson));
+        PersonSummaryDTO summary = PersonSummaryDTO.builder().id(1L).firstName("John").lastName("Doe").build();
+        when(personService.searchSummariesByName("John")).thenReturn(Arrays.asList(summary));
         
         mockMvc.perform(get("/api/persons/search")
                 .param("name", "John"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$[0].firstName").value("John"));
+            .andExpect(jsonPath("$[0].firstName").value("John"))
+            .andExpect(jsonPath("$[0].biography").doesNotExist());
+    }
+    
+    @Test
+    void testSearchPersons_FullView() throws Exception {
+        when(personService.searchByName("John")).thenReturn(Arrays.asList(testPerson));
+        
+        mockMvc.perform(get("/api/persons/search")
+                .param("name", "John")
+                .param("view", "full"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].firstName").value("John"))
+            .andExpect(jsonPath("$[0].children").isArray());
+    }
+    
+    @Test
+    void testAutocomplete_ClampsLimit() throws Exception {
+        NameSuggestionDTO suggestion = NameSuggestionDTO.builder().id(1L).name("John Doe").birthYear(1950).build();
+        when(personService.autocomplete("Jo", 25)).thenReturn(Arrays.asList(suggestion));
+        
+        mockMvc.perform(get("/api/persons/autocomplete")
+                .param("prefix", "Jo")
+                .param("limit", "500"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("John Doe"))
+            .andExpect(jsonPath("$[0].birthYear").value(1950));
     }
 }
@@ -0,0 +1,129 @@
+package com.familytree.gedcom;
+
+import com.familytree.cache.LineageCache;
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.dto.ImportResultDTO;
+import com.familytree.graph.FamilyGraphIndex;
+import com.familytree.repository.PersonRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GedcomImportServiceTest {
+    
+    private static final String FAMILY_FIRST = String.join("\n",
+        "0 HEAD",
+        "0 @F1@ FAM",
+        "1 HUSB @I1@",
+        "1 WIFE @I2@",
+        "1 CHIL @I3@",
+        "0 @I1@ INDI",
+        "1 NAME John /Smith/",
+        "0 @I2@ INDI",
+        "1 NAME Jane /Doe/",
+        "0 @I3@ INDI",
+        "1 NAME Tom /Smith/",
+        "0 TRLR");
+    
+    private static final String INDIVIDUALS_FIRST = String.join("\n",
+        "0 HEAD",
+        "0 @I1@ INDI",
+        "1 NAME John /Smith/",
+        "0 @I2@ INDI",
+        "1 NAME Jane /Doe/",
+        "0 @F1@ FAM",
+        "1 HUSB @I1@",
+        "1 WIFE @I2@",
+        "1 CHIL @I3@",
+        "0 @I3@ INDI",
+        "1 NAME Tom /Smith/",
+        "0 TRLR");
+    
+    @Test
+    void testImport_LinksFamiliesThatPrecedeTheirIndividuals() {
+        PersonRepository personRepository = mock(PersonRepository.class);
+        Set<Object> written = ConcurrentHashMap.newKeySet();
+        when(personRepository.createImportedPersons(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = invocation.getArgument(1);
+            rows.forEach(row -> written.add(row.get("importKey")));
+            return (long) rows.size();
+        });
+        // Like the Cypher MATCH, only rows whose persons were already written resolve
+        when(personRepository.linkImportedParents(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = invocation.getArgument(1);
+            return rows.stream().filter(row -> written.contains(row.get("parent")) && written.contains(row.get("child"))).count();
+        });
+        when(personRepository.linkImportedSpouses(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = invocation.getArgument(1);
+            return rows.stream().filter(row -> written.contains(row.get("person1")) && written.contains(row.get("person2"))).count();
+        });
+        FamilyTreeProperties properties = new FamilyTreeProperties();
+        properties.getBulkImport().setBatchSize(1);
+        GedcomImportService service = new GedcomImportService(personRepository, mock(FamilyGraphIndex.class),
+            mock(LineageCache.class), properties);
+        
+        ImportResultDTO result = service.importGedcom(
+            new ByteArrayInputStream(FAMILY_FIRST.getBytes(StandardCharsets.UTF_8)), "PUBLIC");
+        
+        assertEquals(3, result.getIndividuals());
+        assertEquals(2, result.getParentChildRelationships());
+        assertEquals(1, result.getSpouseRelationships());
+        assertEquals(0, result.getUnresolvedReferences());
+        assertTrue(written.containsAll(Set.of("@I1@", "@I2@", "@I3@")));
+        InOrder order = inOrder(personRepository);
+        order.verify(personRepository, atLeastOnce()).createImportedPersons(anyString(), anyList());
+        order.verify(personRepository, atLeastOnce()).linkImportedParents(anyString(), anyList());
+    }
+    
+    @Test
+    void testImport_WritesResolvedLinksBeforeTheFileEnds() {
+        PersonRepository personRepository = mock(PersonRepository.class);
+        List<String> writes = Collections.synchronizedList(new ArrayList<>());
+        when(personRepository.createImportedPersons(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = invocation.getArgument(1);
+            rows.forEach(row -> writes.add("person " + row.get("importKey")));
+            return (long) rows.size();
+        });
+        when(personRepository.linkImportedParents(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = invocation.getArgument(1);
+            rows.forEach(row -> writes.add("parent " + row.get("parent") + " " + row.get("child")));
+            return (long) rows.size();
+        });
+        when(personRepository.linkImportedSpouses(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = invocation.getArgument(1);
+            rows.forEach(row -> writes.add("spouse " + row.get("person1") + " " + row.get("person2")));
+            return (long) rows.size();
+        });
+        FamilyTreeProperties properties = new FamilyTreeProperties();
+        properties.getBulkImport().setBatchSize(1);
+        properties.getBulkImport().setWorkers(1);
+        GedcomImportService service = new GedcomImportService(personRepository, mock(FamilyGraphIndex.class),
+            mock(LineageCache.class), properties);
+        
+        ImportResultDTO result = service.importGedcom(
+            new ByteArrayInputStream(INDIVIDUALS_FIRST.getBytes(StandardCharsets.UTF_8)), "PUBLIC");
+        
+        // The spouse link is written as soon as both partners are; the children wait for @I3@
+        assertEquals(List.of("person @I1@", "person @I2@", "spouse @I1@ @I2@", "person @I3@",
+            "parent @I1@ @I3@", "parent @I2@ @I3@"), writes);
+        assertEquals(2, result.getParentChildRelationships());
+        assertEquals(0, result.getUnresolvedReferences());
+    }
+}
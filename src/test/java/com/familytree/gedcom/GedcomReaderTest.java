@@ -0,0 +1,95 @@
+package com.familytree.gedcom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GedcomReader and GedcomMapper.
+ */
+class GedcomReaderTest {
+    
+    private static final String GEDCOM = String.join("\n",
+        "\uFEFF0 HEAD",
+        "1 CHAR UTF-8",
+        "0 @I1@ INDI",
+        "1 NAME John Michael /Smith/",
+        "1 SEX M",
+        "1 BIRT",
+        "2 DATE 12 MAR 1950",
+        "2 PLAC Boston",
+        "1 NOTE First line",
+        "2 CONC  continued",
+        "2 CONT Second line",
+        "0 @I2@ INDI",
+        "1 NAME Jane /Doe/",
+        "2 _MARNM Smith",
+        "1 SEX F",
+        "0 @I3@ INDI",
+        "1 NAME Tom /Smith/",
+        "0 @F1@ FAM",
+        "1 HUSB @I1@",
+        "1 WIFE @I2@",
+        "1 CHIL @I3@",
+        "0 TRLR");
+    
+    @Test
+    void testReadAndMap() {
+        GedcomReader reader = new GedcomReader(new ByteArrayInputStream(GEDCOM.getBytes(StandardCharsets.UTF_8)));
+        
+        assertEquals("HEAD", reader.next().getTag());
+        Map<String, Object> john = GedcomMapper.toPersonRow(reader.next(), "PUBLIC");
+        Map<String, Object> jane = GedcomMapper.toPersonRow(reader.next(), "PRIVATE");
+        reader.next();
+        GedcomRecord family = reader.next();
+        assertNull(reader.next());
+        
+        assertEquals("@I1@", john.get("importKey"));
+        assertEquals("John", john.get("firstName"));
+        assertEquals("Michael", john.get("middleName"));
+        assertEquals("Smith", john.get("lastName"));
+        assertEquals("MALE", john.get("gender"));
+        assertEquals(LocalDate.of(1950, 3, 12), john.get("birthDate"));
+        assertEquals("First line continued\nSecond line", john.get("biography"));
+        assertEquals(true, john.get("isPublic"));
+        
+        assertEquals("Smith", jane.get("lastName"));
+        assertEquals("Doe", jane.get("maidenName"));
+        assertEquals("PRIVATE", jane.get("visibility"));
+        
+        List<Map<String, Object>> parentRows = GedcomMapper.toParentChildRows(family);
+        assertEquals(2, parentRows.size());
+        assertEquals(Map.of("parent", "@I2@", "child", "@I3@"), parentRows.get(1));
+        assertEquals(Map.of("person1", "@I1@", "person2", "@I2@"), GedcomMapper.toSpouseRow(family));
+    }
+    
+    @Test
+    void testFamilyPointersAreTrimmed() {
+        GedcomReader reader = new GedcomReader(new ByteArrayInputStream(String.join("\n",
+            "0 @F1@ FAM",
+            "1 HUSB @I1@ ",
+            "1 WIFE  @I2@\t",
+            "1 CHIL @I3@ ",
+            "1 CHIL  ",
+            "0 TRLR").getBytes(StandardCharsets.UTF_8)));
+        GedcomRecord family = reader.next();
+        
+        assertEquals(List.of(Map.of("parent", "@I1@", "child", "@I3@"), Map.of("parent", "@I2@", "child", "@I3@")),
+            GedcomMapper.toParentChildRows(family));
+        assertEquals(Map.of("person1", "@I1@", "person2", "@I2@"), GedcomMapper.toSpouseRow(family));
+    }
+    
+    @Test
+    void testMalformedLine() {
+        GedcomReader reader = new GedcomReader(
+            new ByteArrayInputStream("0 HEAD\nnot a gedcom line\n".getBytes(StandardCharsets.UTF_8)));
+        
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+}
@@ -0,0 +1,89 @@
+package com.familytree.generator;
+
+import com.familytree.config.FamilyTreeProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TreeGenerator.
+ */
+class TreeGeneratorTest {
+    
+    @Test
+    void testGenerate_SameSeedGivesSameTree() {
+        FamilyTreeProperties.Generator settings = settings();
+        
+        assertEquals(record(settings), record(settings));
+        settings.setSeed(7);
+        assertNotEquals(record(settings()), record(settings));
+    }
+    
+    @Test
+    void testGenerate_LinksOnlyPersonsAlreadyEmittedAndStaysWithinLimit() {
+        FamilyTreeProperties.Generator settings = settings();
+        settings.setMaxPersons(2_000);
+        Set<String> emitted = new HashSet<>();
+        Map<String, Integer> parentCounts = new HashMap<>();
+        
+        long persons = new TreeGenerator(settings).generate(new TreeGenerator.Sink() {
+            @Override
+            public void person(Map<String, Object> row) {
+                assertTrue(emitted.add((String) row.get("importKey")));
+            }
+            
+            @Override
+            public void parentChild(String parentKey, String childKey) {
+                assertTrue(emitted.contains(parentKey) && emitted.contains(childKey));
+                parentCounts.merge(childKey, 1, Integer::sum);
+            }
+            
+            @Override
+            public void spouses(String person1Key, String person2Key) {
+                assertTrue(emitted.contains(person1Key) && emitted.contains(person2Key));
+            }
+        });
+        
+        assertEquals(emitted.size(), persons);
+        assertTrue(persons <= 2_000);
+        assertFalse(parentCounts.isEmpty());
+        assertTrue(parentCounts.values().stream().allMatch(count -> count == 2));
+    }
+    
+    private static FamilyTreeProperties.Generator settings() {
+        FamilyTreeProperties.Generator settings = new FamilyTreeProperties.Generator();
+        settings.setFounders(10);
+        settings.setGenerations(5);
+        settings.setPedigreeCollapseRate(0.2);
+        return settings;
+    }
+    
+    private static List<String> record(FamilyTreeProperties.Generator settings) {
+        List<String> events = new ArrayList<>();
+        new TreeGenerator(settings).generate(new TreeGenerator.Sink() {
+            @Override
+            public void person(Map<String, Object> row) {
+                events.add(new TreeMap<>(row).toString());
+            }
+            
+            @Override
+            public void parentChild(String parentKey, String childKey) {
+                events.add(parentKey + ">" + childKey);
+            }
+            
+            @Override
+            public void spouses(String person1Key, String person2Key) {
+                events.add(person1Key + "=" + person2Key);
+            }
+        });
+        return events;
+    }
+}
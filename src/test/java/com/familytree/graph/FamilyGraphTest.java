@@ -0,0 +1,192 @@
+package com.familytree.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FamilyGraph.
+ */
+class FamilyGraphTest {
+    
+    private FamilyGraph graph;
+    
+    @BeforeEach
+    void setUp() {
+        // 10 + 11 -> 20 -> 30, 31 ; 12 -> 31 ; 20 married to 21
+        graph = FamilyGraph.builder()
+            .addParentChild(10L, 20L)
+            .addParentChild(11L, 20L)
+            .addParentChild(20L, 30L)
+            .addParentChild(20L, 31L)
+            .addParentChild(12L, 31L)
+            .addSpouses(20L, 21L)
+            .addPerson(99L)
+            .build();
+    }
+    
+    @Test
+    void testAncestors_ReportsGenerationDistance() {
+        GraphTraversal ancestors = graph.ancestors(30L, 5);
+        
+        assertEquals(3, ancestors.size());
+        assertEquals(20L, ancestors.id(0));
+        assertEquals(1, ancestors.generation(0));
+        assertEquals(2, ancestors.generation(1));
+        assertEquals(2, ancestors.generation(2));
+    }
+    
+    @Test
+    void testAncestors_FromLabelFollowIncrementalEdges() {
+        assertEquals(3, graph.ancestors(30L, 10).size());
+        
+        graph.addParentChild(5L, 10L);
+        GraphTraversal ancestors = graph.ancestors(30L, 10);
+        assertEquals(4, ancestors.size());
+        assertEquals(5L, ancestors.id(3));
+        assertEquals(3, ancestors.generation(3));
+        
+        // Beyond the label depth the graph is walked; both agree on the shared range
+        assertArrayEquals(ancestors.ids(), graph.ancestors(30L, AncestorLabels.MAX_DEPTH + 5).ids());
+        
+        graph.removePerson(20L);
+        assertEquals(0, graph.ancestors(30L, 10).size());
+    }
+    
+    @Test
+    void testAncestors_FromLabelForgetRemovedPerson() {
+        // 11-generation chain 1000 -> 1001 -> ... -> 1010
+        for (long generation = 0; generation < AncestorLabels.MAX_DEPTH; generation++) {
+            graph.addParentChild(1000L + generation, 1001L + generation);
+        }
+        GraphTraversal before = graph.ancestors(1010L, AncestorLabels.MAX_DEPTH);
+        assertEquals(AncestorLabels.MAX_DEPTH, before.size());
+        assertEquals(1000L, before.id(AncestorLabels.MAX_DEPTH - 1));
+        
+        graph.removePerson(1000L);
+        GraphTraversal after = graph.ancestors(1010L, AncestorLabels.MAX_DEPTH);
+        assertEquals(AncestorLabels.MAX_DEPTH - 1, after.size());
+        assertTrue(Arrays.stream(after.ids()).allMatch(id -> id >= 1001L));
+    }
+    
+    @Test
+    void testDescendants_RespectsDepth() {
+        assertEquals(1, graph.descendants(10L, 1).size());
+        assertEquals(3, graph.descendants(10L, 2).size());
+        assertEquals(0, graph.descendants(99L, 5).size());
+    }
+    
+    @Test
+    void testSiblings_IncludesHalfSiblingsOnce() {
+        assertArrayEquals(new long[]{31L}, graph.siblingsOf(30L));
+        assertArrayEquals(new long[]{30L}, graph.siblingsOf(31L));
+    }
+    
+    @Test
+    void testSpouses_AreSymmetric() {
+        assertArrayEquals(new long[]{21L}, graph.spousesOf(20L));
+        assertArrayEquals(new long[]{20L}, graph.spousesOf(21L));
+    }
+    
+    @Test
+    void testIncrementalWrites() {
+        assertTrue(graph.addParentChild(30L, 40L));
+        assertFalse(graph.addParentChild(30L, 40L));
+        assertEquals(4, graph.descendants(10L, 3).size());
+        
+        assertTrue(graph.removePerson(20L));
+        assertFalse(graph.contains(20L));
+        assertEquals(0, graph.descendants(10L, 5).size());
+        assertEquals(0, graph.parentsOf(30L).length);
+        assertEquals(0, graph.spousesOf(21L).length);
+        assertArrayEquals(new long[]{12L}, graph.parentsOf(31L));
+    }
+    
+    @Test
+    void testParentAndChildCounts_FollowIncrementalEdges() {
+        assertEquals(4, graph.parentCount());
+        assertEquals(3, graph.childCount());
+        
+        graph.addParentChild(99L, 21L);
+        assertEquals(5, graph.parentCount());
+        assertEquals(4, graph.childCount());
+        
+        graph.removePerson(20L);
+        assertEquals(2, graph.parentCount());
+        assertEquals(2, graph.childCount());
+    }
+    
+    @Test
+    void testCompaction_PreservesEdges() {
+        for (long child = 1000L; child < 4000L; child++) {
+            graph.addParentChild(99L, child);
+        }
+        graph.removePerson(1000L);
+        
+        long[] children = graph.childrenOf(99L);
+        Arrays.sort(children);
+        assertEquals(2999, children.length);
+        assertEquals(1001L, children[0]);
+        assertArrayEquals(new long[]{99L}, graph.parentsOf(3999L));
+    }
+    
+    @Test
+    void testCycleCheck_FollowsIncrementalEdges() {
+        assertTrue(graph.isAncestor(10L, 30L));
+        assertFalse(graph.isAncestor(30L, 10L));
+        assertTrue(graph.wouldCreateCycle(30L, 10L));
+        assertTrue(graph.wouldCreateCycle(20L, 20L));
+        assertFalse(graph.wouldCreateCycle(10L, 30L));
+        
+        // 99 was loaded after the tree; making it an ancestor of 10 forces a reorder
+        graph.addParentChild(50L, 99L);
+        graph.addParentChild(99L, 10L);
+        assertTrue(graph.isAncestor(50L, 31L));
+        assertTrue(graph.wouldCreateCycle(30L, 50L));
+        assertFalse(graph.wouldCreateCycle(50L, 12L));
+        
+        graph.removePerson(99L);
+        assertFalse(graph.isAncestor(50L, 31L));
+        assertFalse(graph.wouldCreateCycle(30L, 50L));
+    }
+    
+    @Test
+    void testLowestCommonAncestors_FollowIncrementalEdges() {
+        CommonAncestorSearch.Result siblings = graph.lowestCommonAncestors(30L, 31L, 5);
+        assertEquals(1, siblings.generationsUp());
+        assertEquals(1, siblings.generationsDown());
+        assertArrayEquals(new long[]{20L}, siblings.commonAncestorIds());
+        assertNull(graph.lowestCommonAncestors(30L, 12L, 5));
+        
+        // Cached labels of 31 and its new child must pick up the new grandparent
+        graph.addParentChild(31L, 40L);
+        assertNull(graph.lowestCommonAncestors(40L, 99L, 5));
+        graph.addParentChild(99L, 12L);
+        CommonAncestorSearch.Result viaNewEdge = graph.lowestCommonAncestors(40L, 99L, 5);
+        assertEquals(3, viaNewEdge.generationsUp());
+        assertEquals(0, viaNewEdge.generationsDown());
+        assertNull(graph.lowestCommonAncestors(40L, 99L, 2));
+        
+        graph.removePerson(12L);
+        assertNull(graph.lowestCommonAncestors(40L, 99L, 5));
+    }
+    
+    @Test
+    void testLowestCommonAncestors_ForgetRemovedPersonAtLabelDepth() {
+        // Two 11-generation chains below 1000: 1001..1010 and 2001..2010
+        graph.addParentChild(1000L, 1001L);
+        graph.addParentChild(1000L, 2001L);
+        for (long generation = 1; generation < AncestorLabels.MAX_DEPTH; generation++) {
+            graph.addParentChild(1000L + generation, 1001L + generation);
+            graph.addParentChild(2000L + generation, 2001L + generation);
+        }
+        CommonAncestorSearch.Result cousins = graph.lowestCommonAncestors(1010L, 2010L, AncestorLabels.MAX_DEPTH);
+        assertArrayEquals(new long[]{1000L}, cousins.commonAncestorIds());
+        
+        graph.removePerson(1000L);
+        assertNull(graph.lowestCommonAncestors(1010L, 2010L, AncestorLabels.MAX_DEPTH));
+    }
+}
@@ -0,0 +1,55 @@
+package com.familytree.migration;
+
+import com.familytree.config.FamilyTreeProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for GraphMigrationRunner against an embedded Neo4j.
+ */
+class GraphMigrationRunnerTest {
+    
+    private static Neo4j neo4j;
+    private static Driver driver;
+    
+    @BeforeAll
+    static void startDatabase() {
+        neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+        driver = GraphDatabase.driver(neo4j.boltURI());
+    }
+    
+    @AfterAll
+    static void stopDatabase() {
+        driver.close();
+        neo4j.close();
+    }
+    
+    @Test
+    void testMigrate_AppliesEachVersionOnce() {
+        Neo4jClient client = Neo4jClient.create(driver);
+        GraphMigrationRunner runner = new GraphMigrationRunner(client, new FamilyTreeProperties());
+        client.query("CREATE (:Person {firstName: 'Unversioned'})").run();
+        
+        assertEquals(GraphMigrations.ALL.size(), runner.migrate());
+        assertEquals(0, runner.migrate());
+        
+        Collection<String> constraints = client.query("SHOW CONSTRAINTS YIELD name RETURN name")
+            .fetchAs(String.class).all();
+        assertTrue(constraints.contains("user_username_unique"));
+        Collection<Integer> versions = client.query("MATCH (m:SchemaMigration) RETURN m.version")
+            .fetchAs(Integer.class).all();
+        assertEquals(GraphMigrations.ALL.size(), versions.size());
+        assertEquals(0L, client.query("MATCH (p:Person {firstName: 'Unversioned'}) RETURN p.version")
+            .fetchAs(Long.class).one().orElseThrow());
+    }
+}
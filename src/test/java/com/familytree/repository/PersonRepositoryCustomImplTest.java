@@ -0,0 +1,216 @@
+package com.familytree.repository;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.dto.PersonCursor;
+import com.familytree.dto.PersonDTO;
+import com.familytree.dto.RelationshipDTO;
+import com.familytree.migration.GraphMigrationRunner;
+import com.familytree.repository.PersonRepositoryCustom.EdgeWrite;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the hand-written Cypher of PersonRepositoryCustomImpl against an embedded Neo4j.
+ */
+class PersonRepositoryCustomImplTest {
+    
+    private static Neo4j neo4j;
+    private static Driver driver;
+    private static Neo4jClient client;
+    
+    private PersonRepositoryCustomImpl repository;
+    
+    @BeforeAll
+    static void startDatabase() {
+        neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+        driver = GraphDatabase.driver(neo4j.boltURI());
+        client = Neo4jClient.create(driver);
+        new GraphMigrationRunner(client, new FamilyTreeProperties()).run(null);
+    }
+    
+    @AfterAll
+    static void stopDatabase() {
+        driver.close();
+        neo4j.close();
+    }
+    
+    @BeforeEach
+    void setUp() {
+        client.query("MATCH (p:Person) DETACH DELETE p").run();
+        repository = new PersonRepositoryCustomImpl(client);
+    }
+    
+    @Test
+    void testFindPageByName_WalksEqualNamesWithoutGapsOrRepeats() {
+        long noName = person(null, null);
+        long ann1 = person("Ann", "Smith");
+        long bob = person("Bob", "Smith");
+        long ann2 = person("Ann", "Smith");
+        long smithson = person(null, "Smithson");
+        long ann3 = person("Ann", "Smith");
+        long adams = person("Zoe", "Adams");
+        
+        List<Long> walked = new ArrayList<>();
+        List<PersonDTO> page = repository.findPageByName(null, null, 2);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 2);
+            page.forEach(person -> walked.add(person.getId()));
+            PersonDTO last = page.get(page.size() - 1);
+            page = repository.findPageByName(
+                PersonCursor.nameSortKey(last.getLastName(), last.getFirstName()), last.getId(), 2);
+        }
+        
+        // Equal names are ordered by id, which deleted nodes may have handed out in any order
+        List<Long> anns = Stream.of(ann1, ann2, ann3).sorted().toList();
+        assertEquals(List.of(noName, adams, anns.get(0), anns.get(1), anns.get(2), bob, smithson), walked);
+    }
+    
+    @Test
+    void testFindPageById_ContinuesAfterCursor() {
+        List<Long> created = Stream.of(person("Ann", "Smith"), person("Bob", "Smith"), person("Cid", "Smith"))
+            .sorted().toList();
+        long first = created.get(0);
+        long second = created.get(1);
+        long third = created.get(2);
+        
+        assertEquals(List.of(first, second), ids(repository.findPageById(null, 2)));
+        assertEquals(List.of(third), ids(repository.findPageById(second, 2)));
+        assertEquals(List.of(), ids(repository.findPageById(third, 2)));
+    }
+    
+    @Test
+    void testFindLineage_StopsAtRequestedDepthsAndKeepsNearestGeneration() {
+        long[] chain = new long[6];
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = person("Gen" + i, "Doe");
+            if (i > 0) {
+                parentOf(chain[i - 1], chain[i]);
+            }
+        }
+        // Pedigree collapse: chain[1] is also a direct parent of chain[3]
+        parentOf(chain[1], chain[3]);
+        
+        assertEquals(Map.of(chain[3], 0, chain[2], -1, chain[1], -1, chain[4], 1),
+            generations(repository.findLineage(chain[3], 1, 1)));
+        assertEquals(Map.of(chain[3], 0, chain[2], -1, chain[1], -1, chain[0], -2, chain[4], 1, chain[5], 2),
+            generations(repository.findLineage(chain[3], 2, 2)));
+        assertEquals(Map.of(chain[3], 0), generations(repository.findLineage(chain[3], 0, 0)));
+        assertEquals(6, repository.findLineage(chain[0], 0, 5).size());
+    }
+    
+    @Test
+    void testFindLineages_BoundsEachRootSeparately() {
+        long grandparent = person("Grandparent", "Doe");
+        long parent = person("Parent", "Doe");
+        long child = person("Child", "Doe");
+        parentOf(grandparent, parent);
+        parentOf(parent, child);
+        
+        Map<Long, List<PersonDTO>> lineages = repository.findLineages(List.of(parent, child, -1L), 1, 1);
+        
+        assertEquals(Map.of(parent, 0, grandparent, -1, child, 1), generations(lineages.get(parent)));
+        assertEquals(Map.of(child, 0, parent, -1), generations(lineages.get(child)));
+        assertFalse(lineages.containsKey(-1L));
+    }
+    
+    @Test
+    void testMergeEdges_IsIdempotentAndBumpsVersionsOnce() {
+        long parent = person("Parent", "Doe");
+        long child = person("Child", "Doe");
+        long spouse = person("Spouse", "Doe");
+        List<RelationshipDTO> parentChild = List.of(edge(parent, child));
+        List<RelationshipDTO> spouses = List.of(edge(parent, spouse));
+        
+        assertEquals(List.of(EdgeWrite.CREATED), repository.mergeParentChildEdges(parentChild));
+        assertEquals(List.of(EdgeWrite.CREATED), repository.mergeSpouseEdges(spouses));
+        assertEquals(List.of(EdgeWrite.ALREADY_EXISTS), repository.mergeParentChildEdges(parentChild));
+        assertEquals(List.of(EdgeWrite.ALREADY_EXISTS), repository.mergeSpouseEdges(List.of(edge(spouse, parent))));
+        assertEquals(List.of(EdgeWrite.FIRST_NOT_FOUND, EdgeWrite.SECOND_NOT_FOUND),
+            repository.mergeParentChildEdges(List.of(edge(-1L, child), edge(parent, -1L))));
+        
+        assertEquals(Map.of(parent, 2L, child, 1L, spouse, 1L), repository.findVersions(List.of(parent, child, spouse)));
+        assertEquals(1L, count("MATCH (:Person)-[r:PARENT_OF]->(:Person) RETURN count(r)"));
+        assertEquals(2L, count("MATCH (:Person)-[r:SPOUSE_OF]->(:Person) RETURN count(r)"));
+    }
+    
+    @Test
+    void testPatchPerson_ChecksVersionAndRecomputesNameSortKey() {
+        long id = person("Ann", "Smith");
+        Map<String, Object> rename = new HashMap<>();
+        rename.put("lastName", "Jones");
+        rename.put("occupation", null);
+        
+        PersonDTO patched = repository.patchPerson(id, rename, 0L).orElseThrow();
+        
+        assertEquals("Jones", patched.getLastName());
+        assertEquals(1L, patched.getVersion());
+        assertEquals(List.of(id), ids(repository.findPageByName(PersonCursor.nameSortKey("Jones", "Ann"), -1L, 10)));
+        assertEquals(List.of(), ids(repository.findPageByName(PersonCursor.nameSortKey("Smith", "Ann"), -1L, 10)));
+        
+        // A stale version is refused and changes nothing
+        assertThrows(OptimisticLockingFailureException.class,
+            () -> repository.patchPerson(id, Map.of("lastName", "Brown"), 0L));
+        assertEquals(Map.of(id, 1L), repository.findVersions(List.of(id)));
+        assertEquals(List.of(id), ids(repository.findPageByName(PersonCursor.nameSortKey("Jones", "Ann"), -1L, 10)));
+        
+        // Without a version the patch always applies
+        assertEquals(2L, repository.patchPerson(id, Map.of("firstName", "Anna"), null).orElseThrow().getVersion());
+        assertEquals(Optional.empty(), repository.patchPerson(-1L, Map.of("firstName", "Nobody"), null));
+    }
+    
+    private static long person(String firstName, String lastName) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("firstName", firstName);
+        properties.put("lastName", lastName);
+        return client.query("CREATE (p:Person) SET p = $properties, p.version = 0 " +
+                            "SET p.nameSortKey = " + PersonRepositoryCustomImpl.NAME_SORT_KEY + " " +
+                            "RETURN id(p)")
+            .bind(properties).to("properties")
+            .fetchAs(Long.class)
+            .one()
+            .orElseThrow();
+    }
+    
+    private static void parentOf(long parentId, long childId) {
+        client.query("MATCH (a:Person), (b:Person) WHERE id(a) = $parentId AND id(b) = $childId " +
+                     "CREATE (a)-[:PARENT_OF]->(b)")
+            .bind(parentId).to("parentId")
+            .bind(childId).to("childId")
+            .run();
+    }
+    
+    private static RelationshipDTO edge(long person1Id, long person2Id) {
+        return RelationshipDTO.builder().person1Id(person1Id).person2Id(person2Id).build();
+    }
+    
+    private static long count(String cypher) {
+        return client.query(cypher).fetchAs(Long.class).one().orElseThrow();
+    }
+    
+    private static Map<Long, Integer> generations(List<PersonDTO> lineage) {
+        Map<Long, Integer> generations = new HashMap<>();
+        lineage.forEach(person -> assertNull(generations.put(person.getId(), person.getGeneration())));
+        return generations;
+    }
+    
+    private static List<Long> ids(List<PersonDTO> persons) {
+        return persons.stream().map(PersonDTO::getId).toList();
+    }
+}
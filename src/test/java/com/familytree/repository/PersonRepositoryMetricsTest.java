@@ -0,0 +1,45 @@
+package com.familytree.repository;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.dto.PersonDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PersonRepositoryMetrics.
+ */
+class PersonRepositoryMetricsTest {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    
+    @Test
+    void testMeasure_TimesQueryAndCountsRowsByQueryAndDepth() {
+        PersonRepository target = mock(PersonRepository.class);
+        when(target.findLineage(1L, 2, 3)).thenReturn(List.of(new PersonDTO(), new PersonDTO()));
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new PersonRepositoryMetrics(registry, new FamilyTreeProperties()));
+        PersonRepository repository = factory.getProxy();
+        
+        repository.findLineage(1L, 2, 3);
+        repository.findLineage(1L, 2, 3);
+        
+        assertEquals(2, registry.get(PersonRepositoryMetrics.QUERY_TIMER)
+            .tags("query", "findLineage", "depth", "2/3", "outcome", "success").timer().count());
+        assertEquals(4, registry.get(PersonRepositoryMetrics.ROWS_COUNTER)
+            .tags("query", "findLineage", "depth", "2/3").counter().count());
+    }
+    
+    @Test
+    void testRows_OnlyCountsRowShapedResults() {
+        assertEquals(-1, PersonRepositoryMetrics.rows(void.class, null));
+        assertEquals(-1, PersonRepositoryMetrics.rows(long.class, 5L));
+        assertEquals(0, PersonRepositoryMetrics.rows(List.class, null));
+        assertEquals(3, PersonRepositoryMetrics.rows(List.class, List.of(1, 2, 3)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.familytree.security;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.model.User;
+import com.familytree.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthenticatedUserCacheTest {
+    
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private JwtService jwtService;
+    private AuthenticatedUserCache cache;
+    private User user;
+    
+    @BeforeEach
+    void setUp() {
+        JwtProperties jwt = new JwtProperties();
+        jwt.setSecret("0123456789abcdef0123456789abcdef");
+        jwtService = new JwtService(jwt);
+        cache = new AuthenticatedUserCache(jwtService, userRepository, new FamilyTreeProperties());
+        user = User.builder().id(1L).username("ann").roles(Set.of("EDITOR")).enabled(true).build();
+    }
+    
+    @Test
+    void testResolve_CachesUnknownUsers() {
+        String token = jwtService.issue(user);
+        when(userRepository.findByUsername("ann")).thenReturn(Optional.empty());
+        
+        assertEquals(Optional.empty(), cache.resolve(token));
+        assertEquals(Optional.empty(), cache.resolve(token));
+        verify(userRepository, times(1)).findByUsername("ann");
+    }
+    
+    @Test
+    void testResolve_CachesDisabledUsersUntilEvicted() {
+        String token = jwtService.issue(user);
+        user.setEnabled(false);
+        when(userRepository.findByUsername("ann")).thenAnswer(invocation -> Optional.of(user));
+        
+        assertEquals(Optional.empty(), cache.resolve(token));
+        assertEquals(Optional.empty(), cache.resolve(token));
+        verify(userRepository, times(1)).findByUsername("ann");
+        
+        user.setEnabled(true);
+        cache.evictUser("ann");
+        assertEquals("ann", cache.resolve(token).orElseThrow().getUsername());
+        verify(userRepository, times(2)).findByUsername("ann");
+    }
+}
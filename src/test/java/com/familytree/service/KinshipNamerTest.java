@@ -0,0 +1,55 @@
+package com.familytree.service;
+
+import com.familytree.graph.CommonAncestorSearch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for KinshipNamer and the common-ancestor search behind it.
+ */
+class KinshipNamerTest {
+    
+    @Test
+    void testBloodRelationshipNames() {
+        assertEquals("mother", KinshipNamer.blood(1, 0, "FEMALE", false));
+        assertEquals("2nd great-grandson", KinshipNamer.blood(0, 4, "MALE", false));
+        assertEquals("half-sister", KinshipNamer.blood(1, 1, "FEMALE", true));
+        assertEquals("grandniece or grandnephew", KinshipNamer.blood(1, 3, null, false));
+        assertEquals("first cousin", KinshipNamer.blood(2, 2, null, false));
+        assertEquals("second cousin once removed", KinshipNamer.blood(3, 4, null, false));
+        assertEquals("third cousin twice removed", KinshipNamer.blood(6, 4, null, false));
+    }
+    
+    @Test
+    void testInLawNames() {
+        assertEquals("mother-in-law", KinshipNamer.viaSpouse(1, 0, "FEMALE"));
+        assertEquals("stepchild", KinshipNamer.viaSpouse(0, 1, "OTHER"));
+        assertEquals("son-in-law", KinshipNamer.spouseOf(0, 1, "MALE"));
+        assertEquals("aunt", KinshipNamer.spouseOf(2, 1, "FEMALE"));
+        assertEquals("step-grandson", KinshipNamer.viaSpouse(0, 2, "MALE"));
+        assertEquals("step-great-grandchild", KinshipNamer.viaSpouse(0, 3, null));
+        assertEquals("stepmother", KinshipNamer.spouseOf(1, 0, "FEMALE"));
+        assertEquals("step-grandfather", KinshipNamer.spouseOf(2, 0, "MALE"));
+        assertEquals("step-2nd great-grandparent", KinshipNamer.spouseOf(4, 0, null));
+    }
+    
+    @Test
+    void testSearch_FindsLowestCommonAncestorsAndPath() {
+        // 1 + 2 -> 3, 4 ; 3 -> 5 -> 7 ; 4 -> 6
+        Map<Long, long[]> parents = Map.of(
+            3L, new long[]{1L, 2L}, 4L, new long[]{1L, 2L},
+            5L, new long[]{3L}, 6L, new long[]{4L}, 7L, new long[]{5L});
+        CommonAncestorSearch.Result result = CommonAncestorSearch.find(7L, 6L, 10,
+            id -> parents.getOrDefault(id, new long[0]));
+        
+        assertEquals(3, result.generationsUp());
+        assertEquals(2, result.generationsDown());
+        assertArrayEquals(new long[]{1L, 2L}, result.commonAncestorIds());
+        assertEquals(5, result.path()[1]);
+        assertEquals(6, result.path().length);
+        assertNull(CommonAncestorSearch.find(7L, 6L, 2, id -> parents.getOrDefault(id, new long[0])));
+    }
+}
@@ -0,0 +1,71 @@
+package com.familytree.service;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class LastLoginRecorderTest {
+    
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final List<List<Map<String, Object>>> batches = new ArrayList<>();
+    private LastLoginRecorder recorder;
+    
+    @BeforeEach
+    void setUp() {
+        FamilyTreeProperties properties = new FamilyTreeProperties();
+        properties.getAuth().setLastLoginBatchSize(2);
+        properties.getAuth().setLastLoginFlushInterval(Duration.ofHours(1));
+        recorder = new LastLoginRecorder(userRepository, mock(PlatformTransactionManager.class), properties);
+        doAnswer(invocation -> batches.add(invocation.getArgument(0))).when(userRepository).updateLastLogins(anyList());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        recorder.destroy();
+    }
+    
+    @Test
+    void testFlush_CoalescesRepeatedLoginsAndWritesInBatches() {
+        LocalDateTime first = LocalDateTime.of(2024, 1, 1, 9, 0);
+        recorder.record("ann", first);
+        recorder.record("ann", first.plusMinutes(5));
+        recorder.record("ann", first.plusMinutes(1));
+        recorder.record("bob", first);
+        recorder.record("cy", first);
+        
+        assertEquals(3, recorder.flush());
+        
+        assertEquals(2, batches.size());
+        assertEquals(3, batches.stream().mapToInt(List::size).sum());
+        Map<String, Object> ann = batches.stream().flatMap(List::stream)
+            .filter(row -> row.get("username").equals("ann")).findFirst().orElseThrow();
+        assertEquals(first.plusMinutes(5), ann.get("at"));
+        assertEquals(0, recorder.pendingCount());
+        assertEquals(0, recorder.flush());
+    }
+    
+    @Test
+    void testFlush_FailedBatchStaysQueued() {
+        doThrow(new IllegalStateException("down")).when(userRepository).updateLastLogins(anyList());
+        recorder.record("ann", LocalDateTime.of(2024, 1, 1, 9, 0));
+        
+        recorder.destroy();
+        
+        assertEquals(1, recorder.pendingCount());
+    }
+}
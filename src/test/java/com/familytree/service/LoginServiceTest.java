@@ -0,0 +1,60 @@
+package com.familytree.service;
+
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.dto.TokenDTO;
+import com.familytree.model.User;
+import com.familytree.security.JwtProperties;
+import com.familytree.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class LoginServiceTest {
+    
+    private final UserService userService = mock(UserService.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private JwtService jwtService;
+    private LoginService loginService;
+    private User user;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        JwtProperties jwt = new JwtProperties();
+        jwt.setSecret("0123456789abcdef0123456789abcdef");
+        jwtService = new JwtService(jwt);
+        loginService = new LoginService(userService, passwordEncoder, jwtService, new FamilyTreeProperties());
+        user = User.builder().id(1L).username("ann").passwordHash("hash-1").roles(Set.of("EDITOR")).enabled(true).build();
+        when(userService.findByUsername("ann")).thenAnswer(invocation -> Optional.of(user));
+        when(passwordEncoder.matches("secret", "hash-1")).thenReturn(true);
+    }
+    
+    @Test
+    void testLogin_RepeatedLoginSkipsPasswordHashing() {
+        TokenDTO token = loginService.login("ann", "secret");
+        loginService.login("ann", "secret");
+        
+        assertEquals("ann", jwtService.verify(token.getAccessToken()).orElseThrow().getSubject());
+        verify(passwordEncoder, times(1)).matches("secret", "hash-1");
+        verify(userService, times(2)).updateLastLogin("ann");
+    }
+    
+    @Test
+    void testLogin_WrongPasswordOrChangedHashIsCheckedAgain() {
+        loginService.login("ann", "secret");
+        
+        assertThrows(BadCredentialsException.class, () -> loginService.login("ann", "guess"));
+        user.setPasswordHash("hash-2");
+        assertThrows(BadCredentialsException.class, () -> loginService.login("ann", "secret"));
+        verify(passwordEncoder).matches("guess", "hash-1");
+        verify(passwordEncoder).matches("secret", "hash-2");
+        verify(userService, times(1)).updateLastLogin(anyString());
+    }
+}
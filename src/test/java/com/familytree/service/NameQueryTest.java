@@ -0,0 +1,28 @@
+package com.familytree.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NameQuery.
+ */
+class NameQueryTest {
+    
+    @Test
+    void testSearch_RequiresEveryWord() {
+        assertEquals("(ann^3 OR ann*) AND (o'brien^3 OR o'brien* OR o'brien~1)", NameQuery.search(" Ann  O'Brien "));
+    }
+    
+    @Test
+    void testPrefix_MatchesLastWordByPrefix() {
+        assertEquals("mary AND (smi^2 OR smi*)", NameQuery.prefix("Mary Smi"));
+    }
+    
+    @Test
+    void testQuerySyntaxIsStripped() {
+        assertEquals("(jo^2 OR jo*)", NameQuery.prefix("jo*\"~"));
+        assertNull(NameQuery.search("*:() "));
+        assertNull(NameQuery.prefix(null));
+    }
+}
@@ -0,0 +1,69 @@
+package com.familytree.service;
+
+import com.familytree.dto.LineageDTO;
+import com.familytree.dto.PedigreeEntryDTO;
+import com.familytree.dto.PersonDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PedigreeNumbering.
+ */
+class PedigreeNumberingTest {
+    
+    @Test
+    void testAhnentafel_NumbersCollapsedAncestorOncePerLine() {
+        // Person 6 is the father of both parents (half-siblings who married)
+        LineageDTO lineage = LineageDTO.builder()
+            .personId(1L)
+            .ancestors(List.of(
+                person(3L, "FEMALE", -1, Set.of(5L, 6L), null),
+                person(4L, "MALE", -1, Set.of(6L), null),
+                person(5L, "FEMALE", -2, Set.of(), null),
+                person(6L, "MALE", -2, Set.of(), null)))
+            .descendants(List.of())
+            .generationsUp(2)
+            .build();
+        
+        List<PedigreeEntryDTO> entries = PedigreeNumbering.ahnentafel(lineage);
+        
+        assertEquals(List.of(2L, 3L, 4L, 6L, 7L), entries.stream().map(PedigreeEntryDTO::getAhnentafel).toList());
+        assertEquals(List.of(4L, 3L, 6L, 6L, 5L), entries.stream().map(entry -> entry.getPerson().getId()).toList());
+        assertEquals(List.of(1, 1, 2, 2, 2), entries.stream().map(PedigreeEntryDTO::getGeneration).toList());
+    }
+    
+    @Test
+    void testDaboville_RegisterOrderByBirth() {
+        LineageDTO lineage = LineageDTO.builder()
+            .personId(1L)
+            .ancestors(List.of())
+            .descendants(List.of(
+                person(2L, "MALE", 1, Set.of(), LocalDate.of(1950, 1, 1)),
+                person(3L, "FEMALE", 1, Set.of(), LocalDate.of(1948, 1, 1)),
+                person(5L, null, 2, Set.of(), null)))
+            .generationsDown(2)
+            .build();
+        lineage.getDescendants().get(1).setChildrenIds(Set.of(5L));
+        
+        List<PedigreeEntryDTO> entries = PedigreeNumbering.daboville(lineage);
+        
+        assertEquals(List.of("1.1", "1.1.1", "1.2"), entries.stream().map(PedigreeEntryDTO::getDaboville).toList());
+        assertEquals(List.of(3L, 5L, 2L), entries.stream().map(entry -> entry.getPerson().getId()).toList());
+    }
+    
+    private static PersonDTO person(Long id, String gender, int generation, Set<Long> parentIds, LocalDate birthDate) {
+        return PersonDTO.builder()
+            .id(id)
+            .gender(gender)
+            .generation(generation)
+            .parentIds(parentIds)
+            .childrenIds(Set.of())
+            .birthDate(birthDate)
+            .build();
+    }
+}
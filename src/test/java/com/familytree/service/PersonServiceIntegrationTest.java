@@ -0,0 +1,67 @@
+package com.familytree.service;
+
+import com.familytree.dto.LineageDTO;
+import com.familytree.dto.PersonDTO;
+import com.familytree.dto.PersonPatchDTO;
+import com.familytree.model.Person;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PersonService against an embedded Neo4j.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext
+class PersonServiceIntegrationTest {
+    
+    private static final Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+    
+    @Autowired
+    private PersonService personService;
+    
+    @DynamicPropertySource
+    static void neo4jProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.neo4j.uri", neo4j::boltURI);
+    }
+    
+    @AfterAll
+    static void stopDatabase() {
+        neo4j.close();
+    }
+    
+    @Test
+    void testUpdatePerson_LeavesRelativesVersionsAlone() {
+        Person parent = personService.createPerson(person("Parent"));
+        Person child = personService.createPerson(person("Child"));
+        Person grandchild = personService.createPerson(person("Grandchild"));
+        personService.addParentChildRelationship(parent.getId(), child.getId());
+        personService.addParentChildRelationship(child.getId(), grandchild.getId());
+        
+        // The grandchild's lineage holds the child's version but does not reach the parent
+        LineageDTO cached = personService.getLineage(grandchild.getId(), 1, 0);
+        PersonDTO cachedChild = cached.getAncestors().get(0);
+        
+        personService.updatePerson(parent.getId(), person("Renamed"));
+        
+        assertEquals(cachedChild.getVersion(), personService.findById(child.getId()).orElseThrow().getVersion());
+        assertEquals(cached.getEtag(), personService.getLineageETag(grandchild.getId(), 1, 0));
+        PersonPatchDTO patch = new PersonPatchDTO();
+        patch.setOccupation("Baker");
+        patch.setVersion(cachedChild.getVersion());
+        assertEquals("Baker", personService.patchPerson(child.getId(), patch).getOccupation());
+        assertEquals("Renamed", personService.findById(parent.getId()).orElseThrow().getFirstName());
+    }
+    
+    private static PersonDTO person(String firstName) {
+        return PersonDTO.builder().firstName(firstName).lastName("Doe").visibility("PUBLIC").build();
+    }
+}
@@ -1,21 +1,43 @@
 package com.familytree.service;
 
+import com.familytree.admission.TraversalAdmission;
+import com.familytree.admission.TraversalCostEstimator;
+import com.familytree.cache.LineageCache;
+import com.familytree.config.FamilyTreeProperties;
+import com.familytree.dto.GenerationDTO;
 import com.familytree.dto.LineageDTO;
+import com.familytree.dto.PersonCursor;
 import com.familytree.dto.PersonDTO;
+import com.familytree.dto.PersonPatchDTO;
+import com.familytree.dto.PersonSortOrder;
+import com.familytree.dto.RelationshipBatchResultDTO;
+import com.familytree.dto.RelationshipDTO;
+import com.familytree.exception.InvalidRelationshipException;
+import com.familytree.exception.ResourceNotFoundException;
+import com.familytree.graph.FamilyGraph;
+import com.familytree.graph.FamilyGraphIndex;
 import com.familytree.model.Person;
 import com.familytree.repository.PersonRepository;
+import com.familytree.repository.PersonRepositoryCustom.EdgeWrite;
+import com.familytree.repository.ReactivePersonRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,6 +52,23 @@ class PersonServiceTest {
     @Mock
     private PersonRepository personRepository;
     
+    @Mock
+    private FamilyGraphIndex graphIndex;
+    
+    @Spy
+    private LineageCache lineageCache = new LineageCache(new FamilyTreeProperties());
+    
+    @Spy
+    private ConcurrentReads concurrentReads = new ConcurrentReads(new SyncTaskExecutor(),
+        mock(PlatformTransactionManager.class), new FamilyTreeProperties());
+    
+    @Mock
+    private ReactivePersonRepository reactivePersonRepository;
+    
+    @Spy
+    private TraversalAdmission admission = new TraversalAdmission(mock(TraversalCostEstimator.class),
+        mock(PlatformTransactionManager.class), new FamilyTreeProperties());
+    
     @InjectMocks
     private PersonService personService;
     
@@ -61,6 +100,17 @@ class PersonServiceTest {
             .build();
     }
     
+    @Test
+    void testFindPage_ByNameSeeksAfterCursorSortKey() {
+        PersonDTO last = PersonDTO.builder().id(7L).lastName("Smith").build();
+        PersonCursor cursor = PersonCursor.decode(PersonCursor.after(last, PersonSortOrder.NAME).encode());
+        
+        personService.findPage(PersonSortOrder.NAME, cursor, 20);
+        
+        verify(personRepository).findPageByName("Smith\u0000", 7L, 20);
+        assertTrue(PersonCursor.nameSortKey("Smith", "Ann").compareTo(PersonCursor.nameSortKey("Smithson", null)) < 0);
+    }
+    
     @Test
     void testFindById_Success() {
         when(personRepository.findById(1L)).thenReturn(Optional.of(testPerson));
@@ -99,10 +149,33 @@ class PersonServiceTest {
         verify(personRepository, times(1)).save(any(Person.class));
     }
     
+    @Test
+    void testPatchPerson_WritesChangedFieldsAndRefreshesPhoneticKeys() {
+        PersonPatchDTO patch = new PersonPatchDTO();
+        patch.setLastName("Smyth");
+        patch.setVersion(2L);
+        PersonDTO patched = PersonDTO.builder().id(1L).firstName("John").lastName("Smyth").version(3L).build();
+        when(personRepository.patchPerson(1L, Map.of("lastName", "Smyth"), 2L)).thenReturn(Optional.of(patched));
+        
+        assertSame(patched, personService.patchPerson(1L, patch));
+        verify(personRepository).setPhoneticKeys(Map.of(1L, PhoneticKeys.of("John", "Smyth")));
+        verify(personRepository, never()).findById(anyLong());
+        verify(personRepository, never()).save(any(Person.class));
+    }
+    
+    @Test
+    void testPatchPerson_RejectsReadOnlyFields() throws Exception {
+        PersonPatchDTO patch = new ObjectMapper()
+            .readValue("{\"occupation\":\"Engineer\",\"childrenIds\":[2]}", PersonPatchDTO.class);
+        
+        assertThrows(IllegalArgumentException.class, () -> personService.patchPerson(1L, patch));
+        verifyNoInteractions(personRepository);
+    }
+    
     @Test
     void testSearchByName_ReturnsResults() {
         List<Person> persons = Arrays.asList(testPerson);
-        when(personRepository.searchByName("John")).thenReturn(persons);
+        when(personRepository.searchByName("(john^3 OR john* OR john~1)")).thenReturn(persons);
         
         List<Person> results = personService.searchByName("John");
         
@@ -112,66 +185,162 @@ class PersonServiceTest {
     
     @Test
     void testAddParentChildRelationship_Success() {
-        Person parent = Person.builder()
-            .id(1L)
-            .firstName("Parent")
-            .lastName("Doe")
-            .children(new HashSet<>())
-            .parents(new HashSet<>())
-            .spouses(new HashSet<>())
-            .build();
+        when(personRepository.mergeParentChildEdges(anyList())).thenReturn(List.of(EdgeWrite.CREATED));
         
-        Person child = Person.builder()
-            .id(2L)
-            .firstName("Child")
-            .lastName("Doe")
-            .children(new HashSet<>())
-            .parents(new HashSet<>())
-            .spouses(new HashSet<>())
-            .build();
+        personService.addParentChildRelationship(1L, 2L);
+        
+        verify(personRepository).mergeParentChildEdges(List.of(RelationshipDTO.builder()
+            .person1Id(1L).person2Id(2L).relationshipType("PARENT").build()));
+        verify(personRepository, never()).findById(anyLong());
+        verify(personRepository, never()).save(any(Person.class));
+    }
+    
+    @Test
+    void testAddParentChildRelationship_AlreadyExists() {
+        when(personRepository.mergeParentChildEdges(anyList())).thenReturn(List.of(EdgeWrite.ALREADY_EXISTS));
         
-        when(personRepository.findById(1L)).thenReturn(Optional.of(parent));
-        when(personRepository.findById(2L)).thenReturn(Optional.of(child));
-        when(personRepository.save(any(Person.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        assertThrows(InvalidRelationshipException.class, () -> personService.addParentChildRelationship(1L, 2L));
+    }
+    
+    @Test
+    void testAddRelationships_Batch() {
+        when(personRepository.mergeParentChildEdges(anyList()))
+            .thenReturn(List.of(EdgeWrite.CREATED, EdgeWrite.ALREADY_EXISTS));
+        when(personRepository.mergeSpouseEdges(anyList())).thenReturn(List.of(EdgeWrite.CREATED));
+        when(personRepository.findCycle(anyList())).thenReturn(Optional.empty());
         
-        personService.addParentChildRelationship(1L, 2L);
+        RelationshipBatchResultDTO result = personService.addRelationships(List.of(
+            RelationshipDTO.builder().person1Id(1L).person2Id(2L).relationshipType("PARENT").build(),
+            RelationshipDTO.builder().person1Id(3L).person2Id(1L).relationshipType("child").build(),
+            RelationshipDTO.builder().person1Id(4L).person2Id(1L).relationshipType("SPOUSE").build(),
+            RelationshipDTO.builder().person1Id(1L).person2Id(4L).relationshipType("SPOUSE").build()));
         
-        assertTrue(parent.getChildren().contains(child));
-        assertTrue(child.getParents().contains(parent));
-        verify(personRepository, times(2)).save(any(Person.class));
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getAlreadyExisting());
+        verify(personRepository).findCycle(List.of(RelationshipDTO.builder()
+            .person1Id(1L).person2Id(2L).relationshipType("PARENT").build()));
     }
     
     @Test
-    void testGetLineage_Success() {
-        Person ancestor = Person.builder()
-            .id(0L)
-            .firstName("Grandpa")
-            .lastName("Doe")
-            .children(new HashSet<>())
-            .parents(new HashSet<>())
-            .spouses(new HashSet<>())
-            .build();
+    void testAddParentChildRelationship_RejectsCycle() {
+        FamilyGraph graph = FamilyGraph.builder().addParentChild(2L, 1L).build();
         
-        Person descendant = Person.builder()
-            .id(2L)
-            .firstName("Junior")
-            .lastName("Doe")
-            .children(new HashSet<>())
-            .parents(new HashSet<>())
-            .spouses(new HashSet<>())
-            .build();
+        when(graphIndex.isReady()).thenReturn(true);
+        when(graphIndex.contains(anyLong())).thenReturn(true);
+        when(graphIndex.wouldCreateCycle(1L, 2L)).thenReturn(graph.wouldCreateCycle(1L, 2L));
         
-        when(personRepository.findById(1L)).thenReturn(Optional.of(testPerson));
-        when(personRepository.findAncestors(1L, 5)).thenReturn(Arrays.asList(ancestor));
-        when(personRepository.findDescendants(1L, 5)).thenReturn(Arrays.asList(descendant));
+        assertThrows(InvalidRelationshipException.class, () -> personService.addParentChildRelationship(1L, 2L));
+        verify(personRepository, never()).mergeParentChildEdges(anyList());
+        verify(personRepository, never()).isAncestor(anyLong(), anyLong());
+    }
+    
+    @Test
+    void testGetLineage_Success() {
+        PersonDTO grandpa = PersonDTO.builder().id(0L).firstName("Grandpa").lastName("Doe").generation(-2).build();
+        PersonDTO father = PersonDTO.builder().id(3L).firstName("Father").lastName("Doe").generation(-1).build();
+        PersonDTO root = PersonDTO.builder().id(1L).firstName("John").lastName("Doe").generation(0).build();
+        PersonDTO descendant = PersonDTO.builder().id(2L).firstName("Junior").lastName("Doe").generation(1).build();
+        
+        when(personRepository.findLineage(1L, 5, 0)).thenReturn(Arrays.asList(root, father, grandpa));
+        when(personRepository.findLineage(1L, 0, 5)).thenReturn(Arrays.asList(root, descendant));
         
         LineageDTO lineage = personService.getLineage(1L, 5, 5);
         
         assertNotNull(lineage);
         assertEquals(1L, lineage.getPersonId());
-        assertEquals(1, lineage.getAncestors().size());
+        assertEquals("John Doe", lineage.getPersonName());
+        assertEquals(2, lineage.getAncestors().size());
         assertEquals(1, lineage.getDescendants().size());
+        assertEquals("Father", lineage.getAncestors().get(0).getFirstName());
+        assertEquals(List.of(-2, -1, 1), lineage.getGenerations().stream().map(GenerationDTO::getGeneration).toList());
+        assertEquals(List.of(0L), lineage.getGenerations().get(0).getPersonIds());
+        verify(personRepository, never()).findById(anyLong());
+    }
+    
+    @Test
+    void testGetLineageETag_MatchesLoadedLineageWithoutLoadingIt() {
+        PersonDTO father = PersonDTO.builder().id(3L).firstName("Father").generation(-1).version(4L).build();
+        PersonDTO root = PersonDTO.builder().id(1L).firstName("John").generation(0).version(2L).build();
+        PersonDTO descendant = PersonDTO.builder().id(2L).firstName("Junior").generation(1).version(0L).build();
+        
+        when(personRepository.findLineageVersions(1L, 5, 5)).thenReturn(Map.of(1L, 2L, 3L, 4L, 2L, 0L));
+        when(personRepository.findLineage(1L, 5, 0)).thenReturn(Arrays.asList(root, father));
+        when(personRepository.findLineage(1L, 0, 5)).thenReturn(Arrays.asList(root, descendant));
+        
+        String etag = personService.getLineageETag(1L, 5, 5);
+        verify(personRepository, never()).findLineage(anyLong(), anyInt(), anyInt());
+        
+        assertEquals(etag, personService.getLineage(1L, 5, 5).getEtag());
+        assertEquals(etag, personService.getLineageETag(1L, 5, 5));
+        verify(personRepository, times(1)).findLineageVersions(1L, 5, 5);
+        
+        when(personRepository.findLineageVersions(1L, 5, 5)).thenReturn(Map.of(1L, 2L, 3L, 5L, 2L, 0L));
+        lineageCache.invalidate(3L);
+        assertNotEquals(etag, personService.getLineageETag(1L, 5, 5));
+    }
+    
+    @Test
+    void testGetLineages_ReusesCachedLineagesAndSkipsUnknownIds() {
+        PersonDTO root = PersonDTO.builder().id(1L).firstName("John").lastName("Doe").generation(0).build();
+        PersonDTO father = PersonDTO.builder().id(3L).firstName("Father").lastName("Doe").generation(-1).build();
+        PersonDTO sibling = PersonDTO.builder().id(4L).firstName("Jack").lastName("Doe").generation(0).build();
+        PersonDTO siblingsFather = PersonDTO.builder().id(3L).firstName("Father").lastName("Doe").generation(-1).build();
+        
+        when(personRepository.findLineage(1L, 5, 0)).thenReturn(Arrays.asList(root, father));
+        when(personRepository.findLineage(1L, 0, 5)).thenReturn(Arrays.asList(root));
+        when(personRepository.findLineages(List.of(4L, 99L), 5, 5))
+            .thenReturn(Map.of(4L, Arrays.asList(sibling, siblingsFather)));
+        
+        personService.getLineage(1L, 5, 5);
+        List<LineageDTO> lineages = personService.getLineages(List.of(4L, 1L, 99L, 4L), 5, 5);
+        
+        assertEquals(List.of(4L, 1L), lineages.stream().map(LineageDTO::getPersonId).toList());
+        assertEquals("Jack Doe", lineages.get(0).getPersonName());
+        assertEquals(3L, lineages.get(1).getAncestors().get(0).getId());
+    }
+    
+    @Test
+    void testGetLineage_FromGraphIndex() {
+        FamilyGraph graph = FamilyGraph.builder()
+            .addParentChild(0L, 1L)
+            .addParentChild(1L, 2L)
+            .build();
+        Person ancestor = Person.builder().id(0L).firstName("Grandpa").lastName("Doe").build();
+        Person descendant = Person.builder().id(2L).firstName("Junior").lastName("Doe").build();
+        
+        when(graphIndex.isReady()).thenReturn(true);
+        when(graphIndex.ancestors(1L, 5)).thenReturn(graph.ancestors(1L, 5));
+        when(graphIndex.descendants(1L, 5)).thenReturn(graph.descendants(1L, 5));
+        when(graphIndex.childrenOf(anyLong())).thenAnswer(inv -> graph.childrenOf(inv.getArgument(0)));
+        when(graphIndex.parentsOf(anyLong())).thenAnswer(inv -> graph.parentsOf(inv.getArgument(0)));
+        when(graphIndex.spousesOf(anyLong())).thenAnswer(inv -> graph.spousesOf(inv.getArgument(0)));
+        when(personRepository.findAllShallowById(anyCollection()))
+            .thenReturn(Arrays.asList(testPerson, ancestor, descendant));
+        
+        LineageDTO lineage = personService.getLineage(1L, 5, 5);
+        
+        assertEquals("John Doe", lineage.getPersonName());
         assertEquals("Grandpa", lineage.getAncestors().get(0).getFirstName());
+        assertEquals(Set.of(1L), lineage.getAncestors().get(0).getChildrenIds());
+        assertEquals(Set.of(1L), lineage.getDescendants().get(0).getParentIds());
+        assertEquals(-1, lineage.getAncestors().get(0).getGeneration());
+        assertEquals(1, lineage.getDescendants().get(0).getGeneration());
+        verify(personRepository, never()).findLineage(anyLong(), anyInt(), anyInt());
+    }
+    
+    @Test
+    void testDeletePerson_InvalidatesRelativesLineages() {
+        PersonDTO child = PersonDTO.builder().id(2L).firstName("Junior").generation(0).version(0L).build();
+        PersonDTO grandchild = PersonDTO.builder().id(5L).firstName("Baby").generation(1).version(0L).build();
+        
+        when(personRepository.findLineage(2L, 0, 5)).thenReturn(Arrays.asList(child, grandchild));
+        when(personRepository.touchRelatives(1L)).thenReturn(new long[] {2L});
+        
+        personService.getLineage(2L, 0, 5);
+        personService.deletePerson(1L);
+        personService.getLineage(2L, 0, 5);
+        
+        verify(personRepository, times(2)).findLineage(2L, 0, 5);
     }
     
     @Test
@@ -189,4 +358,12 @@ class PersonServiceTest {
         assertEquals(1, siblings.size());
         assertEquals("Jack", siblings.get(0).getFirstName());
     }
+    
+    @Test
+    void testStreamDescendants_UnknownPersonFailsBeforeStreaming() {
+        when(personRepository.existsById(99L)).thenReturn(false);
+        
+        assertThrows(ResourceNotFoundException.class, () -> personService.streamDescendants(99L, 5));
+        verifyNoInteractions(reactivePersonRepository);
+    }
 }
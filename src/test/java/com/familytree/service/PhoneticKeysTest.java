@@ -0,0 +1,32 @@
+package com.familytree.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PhoneticKeys and NameSimilarity.
+ */
+class PhoneticKeysTest {
+    
+    @Test
+    void testSpellingVariants_ShareAKey() {
+        List<String> johnson = Arrays.asList(PhoneticKeys.of("Johnson").split(" "));
+        assertTrue(Arrays.stream(PhoneticKeys.of("Jonsen").split(" ")).anyMatch(johnson::contains));
+        assertEquals("", PhoneticKeys.of(null, " ", "--"));
+        assertNull(PhoneticKeys.query("42"));
+    }
+    
+    @Test
+    void testDistance_IsBoundedAndRanksCloserNames() {
+        assertEquals(2, NameSimilarity.levenshtein("kitten", "sitting", 2));
+        assertEquals(3, NameSimilarity.levenshtein("kitten", "sitting", 8));
+        
+        List<String> query = PhoneticKeys.words("Jon Smyth");
+        assertTrue(NameSimilarity.distance(query, "John", null, "Smith", null)
+            < NameSimilarity.distance(query, "Joan", null, "Smithers", null));
+    }
+}